@@ -22,7 +22,11 @@ public @interface DataMapping {
     Class<? extends PropertiesSourceObject> sourceClass();
 
     /**
-     * define use which property in source class to set the described property
+     * define use which property in source class to set the described property.
+     * <p>
+     * it can be a dotted path such as "customer.address.city", each step is read by the getter of the previous value.
+     * when a step before the last one is null, the described property is not written.
+     * {@link #fieldAccess()} applies to the last step only, and a path is not written back by the reverse transformer.
      *
      * @return
      */
@@ -31,6 +35,8 @@ public @interface DataMapping {
     /**
      * when this annotation is describe a {@link java.util.Map}, {@link java.util.Collection} or a POJO
      * this setting is to control the copier whether to make a deepCopy on this property or not.
+     * the nested POJO has to be a {@link com.lzh.beanmapping.common.PropertiesSourceObject} mapped to the target type,
+     * only immutable values are shared between source and target.
      *
      * @return
      */
@@ -38,11 +44,49 @@ public @interface DataMapping {
 
     /**
      * when this annotation is describe a property which parameter type is different from source property
-     * use this setting to provide converter
+     * use this setting to provide converter.
+     * <p>
+     * besides {@link Function}, the primitive specialized interfaces listed in
+     * {@link com.lzh.beanmapping.common.util.beanmapping.ConverterContract} are accepted,
+     * such as {@link java.util.function.ToIntFunction} or {@link java.util.function.LongFunction},
+     * so numeric properties can be converted without boxing.
+     * <p>
+     * the converter class must be public, it is kept in a field of the generated transformer with its own type
+     * and its method is called directly. the converter is instantiated once for each generated transformer,
+     * or shared by all of them when it is marked with {@link StatelessConverter}.
+     * transformers are shared, by {@link com.lzh.beanmapping.common.util.beanmapping.BeanTransformUtil}
+     * and by the parallel batch methods of {@link com.lzh.beanmapping.common.util.beanmapping.BeanTransformer},
+     * so every converter must be thread-safe: keep it stateless or immutable,
+     * and do not hold mutable helpers such as {@link java.text.SimpleDateFormat} in its fields.
      *
      * @return
      */
-    Class<? extends Function> converter() default DefaultConverter.class;
+    Class<?> converter() default DefaultConverter.class;
+
+    /**
+     * the converter used by the reverse transformer, which writes the described property back into source property,
+     * see {@link com.lzh.beanmapping.common.util.beanmapping.ReverseTransformer}.
+     * it follows the rules of {@link #converter()} with the types swapped.
+     * a property with a {@link #converter()} but without inverse converter is not written back.
+     *
+     * @return
+     */
+    Class<?> inverseConverter() default DefaultConverter.class;
+
+    /**
+     * when it is true the generated transformer reads the source field with the name of {@link #sourceProperty()}
+     * and writes the described field directly instead of calling the getter and the setter,
+     * so trivial accessors do not take the inlining budget of the generated method.
+     * <p>
+     * a field is accessed directly only when it is not static, the target field is not final,
+     * its type is the type of the property, and it is public or not private in the package of the generated class.
+     * the generated class is put in the package of target class and defined by the class loader of source class,
+     * so package-private fields of classes in that package can be used. otherwise the accessors are called,
+     * they are required in any case and any logic in them is skipped by the direct access.
+     *
+     * @return
+     */
+    boolean fieldAccess() default false;
 
 }
 
@@ -0,0 +1,19 @@
+package com.lzh.beanmapping.common.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * This annotation marks a converter which keeps no state, so one instance of it
+ * can be shared by all transformers instead of creating one for each property.
+ * <p>
+ * a converter with this annotation must be thread-safe and must have a public no-arg constructor.
+ * the annotation is inherited, so subclasses of a stateless converter must not add mutable state either.
+ *
+ * @see com.lzh.beanmapping.common.util.beanmapping.ConverterRegistry
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+@Documented
+@Inherited
+public @interface StatelessConverter {
+}
@@ -0,0 +1,37 @@
+package com.lzh.beanmapping.common.converter;
+
+import com.lzh.beanmapping.common.annotation.StatelessConverter;
+
+import java.util.function.IntFunction;
+
+/**
+ * This class is the base of the converters from an ordinal to an enum constant without boxing.
+ * the constants are copied once, {@code values()} is not called for each conversion.
+ * an ordinal out of range throws {@link IllegalArgumentException}.
+ *
+ * @param <E> the enum type
+ * @see AbstractStringToEnumConverter
+ */
+@StatelessConverter
+public abstract class AbstractOrdinalToEnumConverter<E extends Enum<E>> implements IntFunction<E> {
+    private final E[] constants;
+
+    protected AbstractOrdinalToEnumConverter() {
+        this(null);
+    }
+
+    protected AbstractOrdinalToEnumConverter(Class<E> enumClass) {
+        Class<E> resolvedClass = enumClass != null
+                ? enumClass
+                : AbstractStringToEnumConverter.resolveEnumClass(getClass(), AbstractOrdinalToEnumConverter.class);
+        this.constants = resolvedClass.getEnumConstants();
+    }
+
+    @Override
+    public E apply(int value) {
+        if (value < 0 || value >= constants.length) {
+            throw new IllegalArgumentException("ordinal " + value + " is out of range of " + constants.length + " constants");
+        }
+        return constants[value];
+    }
+}
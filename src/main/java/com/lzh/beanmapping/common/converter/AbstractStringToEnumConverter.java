@@ -0,0 +1,61 @@
+package com.lzh.beanmapping.common.converter;
+
+import com.lzh.beanmapping.common.annotation.StatelessConverter;
+import org.springframework.core.ResolvableType;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * This class is the base of the converters from a constant name to an enum constant.
+ * the constants are indexed by name once, so a lookup does not go through {@link Enum#valueOf(Class, String)}.
+ * null is kept as null, an unknown name throws {@link IllegalArgumentException}.
+ * <p>
+ * a subclass only needs to bind the type argument:
+ * <pre>
+ * public class ColorConverter extends AbstractStringToEnumConverter&lt;Color&gt; {
+ * }
+ * </pre>
+ *
+ * @param <E> the enum type
+ */
+@StatelessConverter
+public abstract class AbstractStringToEnumConverter<E extends Enum<E>> implements Function<String, E> {
+    private final Class<E> enumClass;
+    private final Map<String, E> constants;
+
+    protected AbstractStringToEnumConverter() {
+        this(null);
+    }
+
+    protected AbstractStringToEnumConverter(Class<E> enumClass) {
+        this.enumClass = enumClass != null ? enumClass : resolveEnumClass(getClass(), AbstractStringToEnumConverter.class);
+        Map<String, E> constants = new HashMap<>();
+        for (E constant : this.enumClass.getEnumConstants()) {
+            constants.put(constant.name(), constant);
+        }
+        this.constants = Collections.unmodifiableMap(constants);
+    }
+
+    @Override
+    public E apply(String value) {
+        if (value == null) {
+            return null;
+        }
+        E constant = constants.get(value);
+        if (constant == null) {
+            throw new IllegalArgumentException("No enum constant " + enumClass.getName() + "." + value);
+        }
+        return constant;
+    }
+
+    static <E> Class<E> resolveEnumClass(Class<?> converterClass, Class<?> baseClass) {
+        Class<?> enumClass = ResolvableType.forClass(converterClass).as(baseClass).resolveGeneric(0);
+        if (enumClass == null || !enumClass.isEnum()) {
+            throw new IllegalArgumentException("can not resolve enum type of converter " + converterClass);
+        }
+        return (Class<E>) enumClass;
+    }
+}
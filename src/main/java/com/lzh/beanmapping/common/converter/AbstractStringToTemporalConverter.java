@@ -0,0 +1,31 @@
+package com.lzh.beanmapping.common.converter;
+
+import com.lzh.beanmapping.common.annotation.StatelessConverter;
+
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQuery;
+import java.util.function.Function;
+
+/**
+ * This class is the base of the converters which parse a string to a {@link java.time} type.
+ * {@link DateTimeFormatter} is immutable, so one instance is kept by the converter and reused by every call.
+ * null is kept as null.
+ *
+ * @param <T> the parsed type
+ */
+@StatelessConverter
+public abstract class AbstractStringToTemporalConverter<T extends TemporalAccessor> implements Function<String, T> {
+    private final DateTimeFormatter formatter;
+    private final TemporalQuery<T> query;
+
+    protected AbstractStringToTemporalConverter(DateTimeFormatter formatter, TemporalQuery<T> query) {
+        this.formatter = formatter;
+        this.query = query;
+    }
+
+    @Override
+    public T apply(String value) {
+        return value == null ? null : formatter.parse(value, query);
+    }
+}
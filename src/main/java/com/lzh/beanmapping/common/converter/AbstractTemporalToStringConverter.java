@@ -0,0 +1,27 @@
+package com.lzh.beanmapping.common.converter;
+
+import com.lzh.beanmapping.common.annotation.StatelessConverter;
+
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.function.Function;
+
+/**
+ * This class is the base of the converters which format a {@link java.time} type to a string
+ * with a cached {@link DateTimeFormatter}. null is kept as null.
+ *
+ * @param <T> the formatted type
+ */
+@StatelessConverter
+public abstract class AbstractTemporalToStringConverter<T extends TemporalAccessor> implements Function<T, String> {
+    private final DateTimeFormatter formatter;
+
+    protected AbstractTemporalToStringConverter(DateTimeFormatter formatter) {
+        this.formatter = formatter;
+    }
+
+    @Override
+    public String apply(T value) {
+        return value == null ? null : formatter.format(value);
+    }
+}
@@ -0,0 +1,18 @@
+package com.lzh.beanmapping.common.converter;
+
+import com.lzh.beanmapping.common.annotation.StatelessConverter;
+
+import java.math.BigDecimal;
+import java.util.function.Function;
+
+/**
+ * convert {@link BigDecimal} to a string without exponent, null is kept as null
+ */
+@StatelessConverter
+public class BigDecimalToStringConverter implements Function<BigDecimal, String> {
+
+    @Override
+    public String apply(BigDecimal value) {
+        return value == null ? null : value.toPlainString();
+    }
+}
@@ -0,0 +1,19 @@
+package com.lzh.beanmapping.common.converter;
+
+import com.lzh.beanmapping.common.annotation.StatelessConverter;
+
+import java.util.Date;
+import java.util.function.ToLongFunction;
+
+/**
+ * convert {@link Date} to milliseconds since the epoch without boxing,
+ * the date must not be null because a primitive can not hold it
+ */
+@StatelessConverter
+public class DateToEpochMillisConverter implements ToLongFunction<Date> {
+
+    @Override
+    public long applyAsLong(Date value) {
+        return value.getTime();
+    }
+}
@@ -0,0 +1,18 @@
+package com.lzh.beanmapping.common.converter;
+
+import com.lzh.beanmapping.common.annotation.StatelessConverter;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * convert any enum constant to its ordinal without boxing,
+ * the constant must not be null because a primitive can not hold it
+ */
+@StatelessConverter
+public class EnumToOrdinalConverter implements ToIntFunction<Enum<?>> {
+
+    @Override
+    public int applyAsInt(Enum<?> value) {
+        return value.ordinal();
+    }
+}
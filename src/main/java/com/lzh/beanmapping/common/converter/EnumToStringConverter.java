@@ -0,0 +1,17 @@
+package com.lzh.beanmapping.common.converter;
+
+import com.lzh.beanmapping.common.annotation.StatelessConverter;
+
+import java.util.function.Function;
+
+/**
+ * convert any enum constant to its name, null is kept as null
+ */
+@StatelessConverter
+public class EnumToStringConverter implements Function<Enum<?>, String> {
+
+    @Override
+    public String apply(Enum<?> value) {
+        return value == null ? null : value.name();
+    }
+}
@@ -0,0 +1,18 @@
+package com.lzh.beanmapping.common.converter;
+
+import com.lzh.beanmapping.common.annotation.StatelessConverter;
+
+import java.util.Date;
+import java.util.function.LongFunction;
+
+/**
+ * convert milliseconds since the epoch to {@link Date} without boxing
+ */
+@StatelessConverter
+public class EpochMillisToDateConverter implements LongFunction<Date> {
+
+    @Override
+    public Date apply(long value) {
+        return new Date(value);
+    }
+}
@@ -0,0 +1,19 @@
+package com.lzh.beanmapping.common.converter;
+
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * format {@link Instant} with {@link DateTimeFormatter#ISO_INSTANT} by default,
+ * subclass it with another formatter to produce other formats
+ */
+public class InstantToStringConverter extends AbstractTemporalToStringConverter<Instant> {
+
+    public InstantToStringConverter() {
+        this(DateTimeFormatter.ISO_INSTANT);
+    }
+
+    protected InstantToStringConverter(DateTimeFormatter formatter) {
+        super(formatter);
+    }
+}
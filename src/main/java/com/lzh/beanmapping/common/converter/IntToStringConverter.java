@@ -0,0 +1,17 @@
+package com.lzh.beanmapping.common.converter;
+
+import com.lzh.beanmapping.common.annotation.StatelessConverter;
+
+import java.util.function.IntFunction;
+
+/**
+ * convert int to its decimal string without boxing
+ */
+@StatelessConverter
+public class IntToStringConverter implements IntFunction<String> {
+
+    @Override
+    public String apply(int value) {
+        return Integer.toString(value);
+    }
+}
@@ -0,0 +1,19 @@
+package com.lzh.beanmapping.common.converter;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * format {@link LocalDateTime} with {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME} by default,
+ * subclass it with another formatter to produce other formats
+ */
+public class LocalDateTimeToStringConverter extends AbstractTemporalToStringConverter<LocalDateTime> {
+
+    public LocalDateTimeToStringConverter() {
+        this(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    protected LocalDateTimeToStringConverter(DateTimeFormatter formatter) {
+        super(formatter);
+    }
+}
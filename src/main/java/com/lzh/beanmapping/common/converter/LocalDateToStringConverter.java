@@ -0,0 +1,19 @@
+package com.lzh.beanmapping.common.converter;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * format {@link LocalDate} with {@link DateTimeFormatter#ISO_LOCAL_DATE} by default,
+ * subclass it with another formatter to produce other formats
+ */
+public class LocalDateToStringConverter extends AbstractTemporalToStringConverter<LocalDate> {
+
+    public LocalDateToStringConverter() {
+        this(DateTimeFormatter.ISO_LOCAL_DATE);
+    }
+
+    protected LocalDateToStringConverter(DateTimeFormatter formatter) {
+        super(formatter);
+    }
+}
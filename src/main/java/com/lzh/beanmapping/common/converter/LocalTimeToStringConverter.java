@@ -0,0 +1,19 @@
+package com.lzh.beanmapping.common.converter;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * format {@link LocalTime} with {@link DateTimeFormatter#ISO_LOCAL_TIME} by default,
+ * subclass it with another formatter to produce other formats
+ */
+public class LocalTimeToStringConverter extends AbstractTemporalToStringConverter<LocalTime> {
+
+    public LocalTimeToStringConverter() {
+        this(DateTimeFormatter.ISO_LOCAL_TIME);
+    }
+
+    protected LocalTimeToStringConverter(DateTimeFormatter formatter) {
+        super(formatter);
+    }
+}
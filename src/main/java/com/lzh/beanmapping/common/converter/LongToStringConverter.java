@@ -0,0 +1,17 @@
+package com.lzh.beanmapping.common.converter;
+
+import com.lzh.beanmapping.common.annotation.StatelessConverter;
+
+import java.util.function.LongFunction;
+
+/**
+ * convert long to its decimal string without boxing
+ */
+@StatelessConverter
+public class LongToStringConverter implements LongFunction<String> {
+
+    @Override
+    public String apply(long value) {
+        return Long.toString(value);
+    }
+}
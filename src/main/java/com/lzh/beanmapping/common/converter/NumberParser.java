@@ -0,0 +1,62 @@
+package com.lzh.beanmapping.common.converter;
+
+/**
+ * This class is used to parse decimal numbers without allocation.
+ * it accepts an optional leading sign followed by ASCII digits only,
+ * which is the format produced by {@link Integer#toString(int)} and {@link Long#toString(long)}.
+ */
+final class NumberParser {
+
+    private NumberParser() {
+    }
+
+    static int parseInt(CharSequence value) {
+        return (int) parse(value, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    static long parseLong(CharSequence value) {
+        return parse(value, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * accumulate the value negatively like {@link Long#parseLong(String)} does, so min value can be parsed without overflow
+     */
+    private static long parse(CharSequence value, long minValue, long maxValue) {
+        if (value == null) {
+            throw new NumberFormatException("null");
+        }
+        int length = value.length();
+        if (length == 0) {
+            throw new NumberFormatException("empty string");
+        }
+        int index = 0;
+        boolean negative = false;
+        char first = value.charAt(0);
+        if (first == '-' || first == '+') {
+            if (length == 1) {
+                throw illegalNumber(value);
+            }
+            negative = first == '-';
+            index++;
+        }
+        long limit = negative ? minValue : -maxValue;
+        long multiplyLimit = limit / 10;
+        long result = 0;
+        for (; index < length; index++) {
+            int digit = value.charAt(index) - '0';
+            if (digit < 0 || digit > 9 || result < multiplyLimit) {
+                throw illegalNumber(value);
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                throw illegalNumber(value);
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    private static NumberFormatException illegalNumber(CharSequence value) {
+        return new NumberFormatException("For input string: \"" + value + "\"");
+    }
+}
@@ -0,0 +1,18 @@
+package com.lzh.beanmapping.common.converter;
+
+import com.lzh.beanmapping.common.annotation.StatelessConverter;
+
+import java.math.BigDecimal;
+import java.util.function.Function;
+
+/**
+ * convert a string to {@link BigDecimal}, null is kept as null
+ */
+@StatelessConverter
+public class StringToBigDecimalConverter implements Function<String, BigDecimal> {
+
+    @Override
+    public BigDecimal apply(String value) {
+        return value == null ? null : new BigDecimal(value);
+    }
+}
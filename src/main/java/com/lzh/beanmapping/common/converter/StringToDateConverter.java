@@ -1,15 +1,76 @@
 package com.lzh.beanmapping.common.converter;
 
+import com.lzh.beanmapping.common.annotation.StatelessConverter;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Date;
 import java.util.function.Function;
 
+/**
+ * convert a string of "MM/dd/yyyy[ HH:mm[:ss]]" to {@link Date}, null is kept as null.
+ * the string is read in the default time zone at the time of each call, so the shared instance follows
+ * {@link java.util.TimeZone#setDefault}, or in the fixed zone given by a subclass.
+ * <p>
+ * the fields are read from their fixed positions by hand instead of the deprecated {@link Date#Date(String)},
+ * which guesses the format, or a {@link java.time.format.DateTimeFormatter}, which resolves a map of fields for each call.
+ * prefer {@link StringToLocalDateConverter} or {@link StringToLocalDateTimeConverter} for new properties.
+ */
+@StatelessConverter
 public class StringToDateConverter implements Function<String, Date> {
+    private static final int DATE_LENGTH = 10, MINUTE_LENGTH = 16, SECOND_LENGTH = 19;
+
+    /**
+     * null for the default time zone
+     */
+    private final ZoneId zone;
 
-    public StringToDateConverter(){}
+    public StringToDateConverter(){
+        this.zone = null;
+    }
+
+    protected StringToDateConverter(ZoneId zone) {
+        this.zone = zone;
+    }
 
     @Override
     public Date apply(String string) {
-        return new Date(string);
+        if (string == null) {
+            return null;
+        }
+        int length = string.length();
+        if ((length != DATE_LENGTH && length != MINUTE_LENGTH && length != SECOND_LENGTH)
+                || string.charAt(2) != '/' || string.charAt(5) != '/'
+                || (length > DATE_LENGTH && (string.charAt(10) != ' ' || string.charAt(13) != ':'))
+                || (length == SECOND_LENGTH && string.charAt(16) != ':')) {
+            throw new IllegalArgumentException("date " + string + " does not match MM/dd/yyyy[ HH:mm[:ss]]");
+        }
+        int month = digits(string, 0, 2),
+                day = digits(string, 3, 2),
+                year = digits(string, 6, 4),
+                hour = length > DATE_LENGTH ? digits(string, 11, 2) : 0,
+                minute = length > DATE_LENGTH ? digits(string, 14, 2) : 0,
+                second = length == SECOND_LENGTH ? digits(string, 17, 2) : 0;
+        LocalDateTime dateTime;
+        try {
+            dateTime = LocalDateTime.of(year, month, day, hour, minute, second);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("date " + string + " is out of range", e);
+        }
+        return Date.from(dateTime.atZone(zone != null ? zone : ZoneId.systemDefault()).toInstant());
+    }
+
+    private static int digits(String string, int from, int count) {
+        int result = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = string.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("date " + string + " does not match MM/dd/yyyy[ HH:mm[:ss]]");
+            }
+            result = result * 10 + digit;
+        }
+        return result;
     }
 
     @Override
@@ -0,0 +1,19 @@
+package com.lzh.beanmapping.common.converter;
+
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * parse a string to {@link Instant} with {@link DateTimeFormatter#ISO_INSTANT} by default,
+ * subclass it with another formatter to accept other formats
+ */
+public class StringToInstantConverter extends AbstractStringToTemporalConverter<Instant> {
+
+    public StringToInstantConverter() {
+        this(DateTimeFormatter.ISO_INSTANT);
+    }
+
+    protected StringToInstantConverter(DateTimeFormatter formatter) {
+        super(formatter, Instant::from);
+    }
+}
@@ -0,0 +1,18 @@
+package com.lzh.beanmapping.common.converter;
+
+import com.lzh.beanmapping.common.annotation.StatelessConverter;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * convert a decimal string to int without boxing,
+ * {@link NumberFormatException} is thrown when the string is null or is not a decimal int
+ */
+@StatelessConverter
+public class StringToIntConverter implements ToIntFunction<String> {
+
+    @Override
+    public int applyAsInt(String value) {
+        return NumberParser.parseInt(value);
+    }
+}
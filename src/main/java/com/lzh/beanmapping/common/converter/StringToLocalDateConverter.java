@@ -0,0 +1,19 @@
+package com.lzh.beanmapping.common.converter;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * parse a string to {@link LocalDate} with {@link DateTimeFormatter#ISO_LOCAL_DATE} by default,
+ * subclass it with another formatter to accept other formats
+ */
+public class StringToLocalDateConverter extends AbstractStringToTemporalConverter<LocalDate> {
+
+    public StringToLocalDateConverter() {
+        this(DateTimeFormatter.ISO_LOCAL_DATE);
+    }
+
+    protected StringToLocalDateConverter(DateTimeFormatter formatter) {
+        super(formatter, LocalDate::from);
+    }
+}
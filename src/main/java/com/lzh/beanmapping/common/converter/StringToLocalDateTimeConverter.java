@@ -0,0 +1,19 @@
+package com.lzh.beanmapping.common.converter;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * parse a string to {@link LocalDateTime} with {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME} by default,
+ * subclass it with another formatter to accept other formats
+ */
+public class StringToLocalDateTimeConverter extends AbstractStringToTemporalConverter<LocalDateTime> {
+
+    public StringToLocalDateTimeConverter() {
+        this(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    protected StringToLocalDateTimeConverter(DateTimeFormatter formatter) {
+        super(formatter, LocalDateTime::from);
+    }
+}
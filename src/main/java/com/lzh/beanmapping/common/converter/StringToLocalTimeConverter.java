@@ -0,0 +1,19 @@
+package com.lzh.beanmapping.common.converter;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * parse a string to {@link LocalTime} with {@link DateTimeFormatter#ISO_LOCAL_TIME} by default,
+ * subclass it with another formatter to accept other formats
+ */
+public class StringToLocalTimeConverter extends AbstractStringToTemporalConverter<LocalTime> {
+
+    public StringToLocalTimeConverter() {
+        this(DateTimeFormatter.ISO_LOCAL_TIME);
+    }
+
+    protected StringToLocalTimeConverter(DateTimeFormatter formatter) {
+        super(formatter, LocalTime::from);
+    }
+}
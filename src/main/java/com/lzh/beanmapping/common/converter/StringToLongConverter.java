@@ -0,0 +1,18 @@
+package com.lzh.beanmapping.common.converter;
+
+import com.lzh.beanmapping.common.annotation.StatelessConverter;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * convert a decimal string to long without boxing,
+ * {@link NumberFormatException} is thrown when the string is null or is not a decimal long
+ */
+@StatelessConverter
+public class StringToLongConverter implements ToLongFunction<String> {
+
+    @Override
+    public long applyAsLong(String value) {
+        return NumberParser.parseLong(value);
+    }
+}
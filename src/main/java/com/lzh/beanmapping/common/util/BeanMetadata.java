@@ -0,0 +1,80 @@
+package com.lzh.beanmapping.common.util;
+
+import com.lzh.beanmapping.common.exception.BeanMappingException;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This class is used to share the reflective metadata of a class, its fields and the accessors of its bean properties,
+ * so they are computed once for each distinct class however many mapping pairs use it.
+ * <p>
+ * the metadata is kept in a {@link ClassValue}, it is attached to the class itself and is collected together
+ * with the class loader, so a redeployed class loader is not retained by this cache.
+ * the {@link Field} and {@link PropertyDescriptor} instances are shared, callers must not change their accessibility.
+ */
+public final class BeanMetadata {
+    private static final ClassValue<BeanMetadata> METADATA = new ClassValue<BeanMetadata>() {
+        @Override
+        protected BeanMetadata computeValue(Class<?> type) {
+            return new BeanMetadata(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final Field[] declaredFields;
+    private final ConcurrentMap<String, PropertyDescriptor> properties = new ConcurrentHashMap<>();
+    private volatile PropertyScanner scanner;
+
+    private BeanMetadata(Class<?> type) {
+        this.type = type;
+        this.declaredFields = type.getDeclaredFields();
+    }
+
+    public static BeanMetadata of(Class<?> type) {
+        return METADATA.get(type);
+    }
+
+    /**
+     * @return a copy of the fields declared by the class itself
+     */
+    public Field[] getDeclaredFields() {
+        return declaredFields.clone();
+    }
+
+    Field[] declaredFields() {
+        return declaredFields;
+    }
+
+    /**
+     * find the accessors of given property, the public methods of class are scanned at the first call
+     * and the descriptor is built only for the properties asked for
+     *
+     * @param propertyName name of property
+     * @return descriptor of property, or null when the class has neither getter nor setter of it
+     * @throws BeanMappingException when the setter of property is ambiguous
+     * @see PropertyScanner
+     */
+    public PropertyDescriptor getProperty(String propertyName) {
+        PropertyDescriptor descriptor = properties.get(propertyName);
+        if (descriptor == null) {
+            descriptor = scanner().find(propertyName);
+            if (descriptor != null) {
+                PropertyDescriptor existing = properties.putIfAbsent(propertyName, descriptor);
+                descriptor = existing != null ? existing : descriptor;
+            }
+        }
+        return descriptor;
+    }
+
+    private PropertyScanner scanner() {
+        PropertyScanner propertyScanner = scanner;
+        if (propertyScanner == null) {
+            propertyScanner = new PropertyScanner(type);
+            scanner = propertyScanner;
+        }
+        return propertyScanner;
+    }
+}
@@ -0,0 +1,161 @@
+package com.lzh.beanmapping.common.util;
+
+import com.lzh.beanmapping.common.exception.BeanMappingException;
+
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is used to find the accessors of a bean property by the names of public methods,
+ * it replaces {@link java.beans.Introspector} which locks, builds the whole BeanInfo and only accepts void setters.
+ * <p>
+ * getters are {@code getXxx()} and {@code isXxx()} returning boolean, {@code isXxx()} is preferred as Introspector does.
+ * setters are in the order of preference {@code setXxx(value)} with any return type,
+ * builder-style {@code withXxx(value)} and fluent {@code xxx(value)}, the latter two must return void or the bean itself.
+ * when the property has a getter only the setters accepting its type are used.
+ * <p>
+ * the accessors are kept by {@link ScannedPropertyDescriptor}, a {@link PropertyDescriptor} only keeps soft references to them
+ * and looks a cleared one up again through Introspector, which does not find a setter returning a value.
+ */
+class PropertyScanner {
+    private static final int SET_RANK = 0, WITH_RANK = 1, FLUENT_RANK = 2;
+
+    private final Class<?> type;
+    private final Map<String, Method> getters = new HashMap<>();
+    private final Map<String, List<Method>> setters = new HashMap<>();
+
+    PropertyScanner(Class<?> type) {
+        this.type = type;
+        for (Method method : type.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) || method.isBridge() || method.isSynthetic()
+                    || method.getDeclaringClass() == Object.class) {
+                continue;
+            }
+            if (method.getParameterCount() == 0) {
+                indexGetter(method);
+            } else if (method.getParameterCount() == 1) {
+                indexSetter(method);
+            }
+        }
+    }
+
+    private void indexGetter(Method method) {
+        String name = method.getName();
+        Class<?> returnType = method.getReturnType();
+        if (name.startsWith("is") && name.length() > 2 && returnType == boolean.class) {
+            getters.put(decapitalize(name.substring(2)), method);
+        } else if (name.startsWith("get") && name.length() > 3 && returnType != void.class) {
+            getters.putIfAbsent(decapitalize(name.substring(3)), method);
+        }
+    }
+
+    private void indexSetter(Method method) {
+        String name = method.getName();
+        if (name.startsWith("set") && name.length() > 3) {
+            setters.computeIfAbsent(decapitalize(name.substring(3)), key -> new ArrayList<>()).add(method);
+        }
+        Class<?> returnType = method.getReturnType();
+        if (returnType != void.class && !returnType.isAssignableFrom(type)) {
+            return;
+        }
+        if (name.startsWith("with") && name.length() > 4) {
+            setters.computeIfAbsent(decapitalize(name.substring(4)), key -> new ArrayList<>()).add(method);
+        }
+        setters.computeIfAbsent(name, key -> new ArrayList<>()).add(method);
+    }
+
+    /**
+     * @param propertyName name of property
+     * @return descriptor with the getter and the setter of property, either of them may be null, or null when there is neither
+     * @throws BeanMappingException when the setter is ambiguous or does not match the type of getter
+     */
+    PropertyDescriptor find(String propertyName) {
+        Method getter = getters.get(propertyName);
+        Method setter = findSetter(propertyName, getter == null ? null : getter.getReturnType());
+        if (getter == null && setter == null) {
+            return null;
+        }
+        try {
+            return new ScannedPropertyDescriptor(propertyName, getter, setter);
+        } catch (IntrospectionException e) {
+            throw new BeanMappingException("fail to describe property " + propertyName + " of class " + type, e);
+        }
+    }
+
+    private Method findSetter(String propertyName, Class<?> propertyType) {
+        List<Method> candidates = setters.get(propertyName);
+        if (candidates == null) {
+            return null;
+        }
+        Method found = null;
+        int foundRank = Integer.MAX_VALUE;
+        boolean ambiguous = false;
+        for (Method candidate : candidates) {
+            if (propertyType != null && candidate.getParameterTypes()[0] != propertyType) {
+                continue;
+            }
+            int rank = rankOf(candidate, propertyName);
+            if (rank < foundRank) {
+                found = candidate;
+                foundRank = rank;
+                ambiguous = false;
+            } else if (rank == foundRank) {
+                ambiguous = true;
+            }
+        }
+        if (ambiguous) {
+            throw new BeanMappingException("setter of property " + propertyName + " of class " + type + " is ambiguous");
+        }
+        return found;
+    }
+
+    private static int rankOf(Method setter, String propertyName) {
+        String name = setter.getName();
+        if (name.equals(propertyName)) {
+            return FLUENT_RANK;
+        }
+        return name.startsWith("set") ? SET_RANK : WITH_RANK;
+    }
+
+    /**
+     * the same rule as {@link java.beans.Introspector#decapitalize(String)}, "URL" stays "URL" and "Name" becomes "name"
+     */
+    static String decapitalize(String name) {
+        if (name.length() > 1 && Character.isUpperCase(name.charAt(1)) && Character.isUpperCase(name.charAt(0))) {
+            return name;
+        }
+        char[] chars = name.toCharArray();
+        chars[0] = Character.toLowerCase(chars[0]);
+        return new String(chars);
+    }
+
+    /**
+     * descriptor which keeps strong references to its accessors, so they survive a collection of soft references
+     */
+    static class ScannedPropertyDescriptor extends PropertyDescriptor {
+        private final Method readMethod;
+        private final Method writeMethod;
+
+        ScannedPropertyDescriptor(String propertyName, Method readMethod, Method writeMethod) throws IntrospectionException {
+            super(propertyName, readMethod, writeMethod);
+            this.readMethod = readMethod;
+            this.writeMethod = writeMethod;
+        }
+
+        @Override
+        public Method getReadMethod() {
+            return readMethod;
+        }
+
+        @Override
+        public Method getWriteMethod() {
+            return writeMethod;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.lzh.beanmapping.common.util;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Predicate;
 
 public class ReflectUtils {
@@ -22,14 +24,17 @@ public class ReflectUtils {
         if (!checkStopClassIsNotSubClassOfClazz(clazz, stopClass)) {
             throw new RuntimeException("StopClass can not be the subclass of given class");
         }
-        Field[] fields = null;
-        fields = clazz.getDeclaredFields();
-        Class superClass = clazz.getSuperclass();
-        while (superClass != null && stopClass.isAssignableFrom(superClass)) {
-            fields = ArrayUtils.concat(fields, superClass.getDeclaredFields(), predicate);
-            superClass = superClass.getSuperclass();
+        List<Field> fields = new ArrayList<>();
+        for (Class current = clazz;
+             current != null && (current == clazz || stopClass.isAssignableFrom(current));
+             current = current.getSuperclass()) {
+            for (Field field : BeanMetadata.of(current).declaredFields()) {
+                if (predicate == null || predicate.test(field)) {
+                    fields.add(field);
+                }
+            }
         }
-        return fields;
+        return fields.toArray(new Field[0]);
     }
 
     private static boolean checkStopClassIsNotSubClassOfClazz(Class clazz, Class stopClass) {
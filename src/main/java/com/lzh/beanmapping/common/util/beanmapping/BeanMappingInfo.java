@@ -3,18 +3,17 @@ package com.lzh.beanmapping.common.util.beanmapping;
 import com.lzh.beanmapping.common.PropertiesSourceObject;
 import com.lzh.beanmapping.common.annotation.DataMapping;
 import com.lzh.beanmapping.common.exception.BeanMappingException;
+import com.lzh.beanmapping.common.util.BeanMetadata;
 import com.lzh.beanmapping.common.util.ReflectUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
 import java.util.*;
-import java.util.function.Function;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static java.util.stream.Collectors.*;
 
@@ -24,8 +23,21 @@ import static java.util.stream.Collectors.*;
 public class BeanMappingInfo {
     private static Logger logger = LoggerFactory.getLogger(BeanMappingInfo.class);
 
-    private Map<Class<? extends PropertiesSourceObject>, Set<MappingInfoItem>> mappingInfos;
+    /**
+     * parsed mapping info keyed by target class, the {@link ClassValue} does not keep the class loader of target class alive
+     */
+    private static final ClassValue<BeanMappingInfo> PARSED_INFOS = new ClassValue<BeanMappingInfo>() {
+        @Override
+        protected BeanMappingInfo computeValue(Class<?> targetClass) {
+            BeanMappingInfo beanMappingInfo = new BeanMappingInfo(targetClass);
+            beanMappingInfo.parserMappingInfo();
+            return beanMappingInfo;
+        }
+    };
+
+    private volatile Map<Class<? extends PropertiesSourceObject>, Set<MappingInfoItem>> mappingInfos;
     private final Class targetClass;
+    private final ConcurrentMap<Class, Set<MappingInfoItem>> reverseMappingInfos = new ConcurrentHashMap<>();
 
     private BeanMappingInfo(Class targetClass) {
         this.targetClass = targetClass;
@@ -37,37 +49,21 @@ public class BeanMappingInfo {
             mappingInfos
                     = fieldMap.entrySet().stream()
                     .collect(toMap(entry -> entry.getKey()
-                            , entry -> parserMappingInfos(entry.getKey(), entry.getValue())));
+                            , entry -> parserMappingInfos(entry.getKey(), entry.getValue())
+                            , (first, second) -> first
+                            , HashMap::new));
         }
     }
 
     private Set<MappingInfoItem> parserMappingInfos(Class sourceClass, List<Field> fields) {
-        PropertyDescriptor[] sourceDescriptors = null, targetDescriptors = null;
-        try {
-            sourceDescriptors = Introspector.getBeanInfo(sourceClass).getPropertyDescriptors();
-        } catch (IntrospectionException e) {
-            logger.info("fail to parser beaninfo from sourceClass :{}", sourceClass);
-            throw new RuntimeException(e);
-        }
-        try {
-            targetDescriptors = Introspector.getBeanInfo(targetClass).getPropertyDescriptors();
-        } catch (IntrospectionException e) {
-            logger.info("fail to parser beaninfo from targetClass :{}", targetClass);
-            throw new RuntimeException(e);
-        }
-        Map<String, PropertyDescriptor> sourceDescriportsMap
-                = Arrays.stream(sourceDescriptors)
-                .collect(toMap(descriptor -> descriptor.getName(), e -> e));
-        Map<String, PropertyDescriptor> targetDescriportsMap
-                = Arrays.stream(targetDescriptors)
-                .collect(toMap(descriptor -> descriptor.getName(), e -> e));
+        BeanMetadata targetMetadata = BeanMetadata.of(targetClass);
         return fields.stream()
                 .map(field -> {
                     MappingInfoItem infoItem = new MappingInfoItem();
 
                     String targetPropertyName = field.getName();
-                    PropertyDescriptor targetSetter = targetDescriportsMap.get(targetPropertyName);
-                    if (targetSetter == null) {
+                    PropertyDescriptor targetSetter = targetMetadata.getProperty(targetPropertyName);
+                    if (targetSetter == null || targetSetter.getWriteMethod() == null) {
                         logger.info("can not found setter of target property {} from source class {}", targetPropertyName, targetClass);
                         throw new BeanMappingException("can not found setter of source property from target class");
                     } else {
@@ -75,29 +71,24 @@ public class BeanMappingInfo {
                     }
 
                     DataMapping dataMapping = field.getDeclaredAnnotation(DataMapping.class);
-                    String sourcePropertyName = dataMapping.sourceProperty();
-                    PropertyDescriptor sourceGetter = sourceDescriportsMap.get(sourcePropertyName);
-                    if (sourceGetter == null) {
-                        logger.info("can not found getter of source property {} from source class {}", sourcePropertyName, sourceClass);
-                        throw new BeanMappingException("can not found source property from source class");
-                    } else {
-                        infoItem.setSourceGetter(sourceGetter);
-                    }
+                    PropertyDescriptor[] sourcePath = resolveSourcePath(sourceClass, dataMapping.sourceProperty());
+                    PropertyDescriptor sourceGetter = sourcePath[sourcePath.length - 1];
+                    String sourcePropertyName = sourceGetter.getName();
+                    Class sourceOwner = sourcePath.length == 1 ? sourceClass : sourcePath[sourcePath.length - 2].getPropertyType();
+                    infoItem.setSourceGetter(sourceGetter);
+                    infoItem.setSourcePath(Arrays.copyOf(sourcePath, sourcePath.length - 1));
                     infoItem.setNeedDeepCopy(dataMapping.needDeepCopy());
+                    if (dataMapping.fieldAccess()) {
+                        infoItem.setTargetField(findField(field, targetSetter.getPropertyType(), true));
+                        Field[] sourceFields = ReflectUtils.getAllFields(sourceOwner,
+                                sourceField -> sourceField.getName().equals(sourcePropertyName));
+                        infoItem.setSourceField(sourceFields.length == 0
+                                ? null : findField(sourceFields[0], sourceGetter.getPropertyType(), false));
+                    }
 
                     Class converterClass = dataMapping.converter();
                     if (!converterClass.equals(DataMapping.DEFAULT_CONVERTER_CLASS)) {
-                        try {
-                            Constructor<Function> constructor = converterClass.getConstructor();
-                            Function converter = constructor.newInstance();
-                            infoItem.setConverter(converter);
-                        } catch (NoSuchMethodException e) {
-                            logger.info("given converter class {} does not have default constructor", converterClass);
-                            throw new BeanMappingException("given converter class does not have default constructor", e);
-                        } catch (IllegalAccessException | InstantiationException | InvocationTargetException e) {
-                            logger.info("can not construct converter ,reason is {}", e);
-                            throw new BeanMappingException("can not construct converter", e);
-                        }
+                        infoItem.setConverter(ConverterRegistry.getConverter(converterClass));
                     } else {
                         infoItem.setConverter(null);
                     }
@@ -106,9 +97,133 @@ public class BeanMappingInfo {
 
                     return infoItem;
                 })
-                .collect(toSet());
+                .collect(collectingAndThen(toSet(), Collections::unmodifiableSet));
+    }
+
+    /**
+     * resolve the getters of a source property, which may be a dotted path such as "customer.address.city".
+     * each step is looked up in the type returned by the previous one
+     *
+     * @return getters of all steps, the last one reads the mapped value
+     */
+    private static PropertyDescriptor[] resolveSourcePath(Class sourceClass, String sourceProperty) {
+        String[] steps = sourceProperty.split("\\.", -1);
+        PropertyDescriptor[] sourcePath = new PropertyDescriptor[steps.length];
+        Class owner = sourceClass;
+        for (int i = 0; i < steps.length; i++) {
+            PropertyDescriptor getter = owner.isPrimitive() || owner.isArray() ? null : BeanMetadata.of(owner).getProperty(steps[i]);
+            if (getter == null || getter.getReadMethod() == null) {
+                logger.info("can not found getter of source property {} from class {}", steps[i], owner);
+                throw new BeanMappingException("can not found source property " + sourceProperty + " from source class " + sourceClass);
+            }
+            sourcePath[i] = getter;
+            owner = getter.getPropertyType();
+        }
+        return sourcePath;
     }
 
+    /**
+     * build the items which write the properties of target class back into source class.
+     * a reverse item reads the target property and writes the source property, with the inverse converter if any.
+     * a property is left out when it has no getter in target class or no setter in source class,
+     * when it has a converter but no inverse converter, or when its value can not be adapted or deep copied back.
+     * when several target properties are mapped from the same source property, only one of them is written back:
+     * the one of the same name as the source property, otherwise the first by name.
+     */
+    private Set<MappingInfoItem> parserReverseMappingInfos(Class sourceClass) {
+        Set<MappingInfoItem> forwardItems = getMappingInfos().get(sourceClass);
+        if (forwardItems == null) {
+            return Collections.emptySet();
+        }
+        Map<String, MappingInfoItem> forwardItemMap = forwardItems.stream()
+                .collect(toMap(infoItem -> infoItem.getTargetSetter().getName(), infoItem -> infoItem));
+        Field[] fields = ReflectUtils.getAllFields(targetClass, field -> {
+            DataMapping dataMapping = field.getDeclaredAnnotation(DataMapping.class);
+            return dataMapping != null && dataMapping.sourceClass().equals(sourceClass);
+        });
+        return Arrays.stream(fields)
+                .map(field -> reverseOf(forwardItemMap.get(field.getName()), field.getDeclaredAnnotation(DataMapping.class)))
+                .filter(Objects::nonNull)
+                .collect(groupingBy(reverseItem -> reverseItem.getTargetSetter().getName()))
+                .values().stream()
+                .map(this::writtenBackOf)
+                .collect(collectingAndThen(toSet(), Collections::unmodifiableSet));
+    }
+
+    /**
+     * @param candidates reverse items which write the same source property
+     * @return the item which writes it back, the others are logged and left out
+     */
+    private MappingInfoItem writtenBackOf(List<MappingInfoItem> candidates) {
+        MappingInfoItem writtenBack = candidates.stream()
+                .min(Comparator.comparing((MappingInfoItem reverseItem) ->
+                        !reverseItem.getSourceGetter().getName().equals(reverseItem.getTargetSetter().getName()))
+                        .thenComparing(reverseItem -> reverseItem.getSourceGetter().getName()))
+                .get();
+        for (MappingInfoItem candidate : candidates) {
+            if (candidate != writtenBack) {
+                logger.info("property {} of {} is not written back, source property {} is written back from property {}",
+                        candidate.getSourceGetter().getName(), targetClass, candidate.getTargetSetter().getName(),
+                        writtenBack.getSourceGetter().getName());
+            }
+        }
+        return writtenBack;
+    }
+
+    private MappingInfoItem reverseOf(MappingInfoItem forwardItem, DataMapping dataMapping) {
+        PropertyDescriptor targetProperty = forwardItem.getTargetSetter(), sourceProperty = forwardItem.getSourceGetter();
+        if (forwardItem.getSourcePath().length > 0) {
+            logger.info("property {} of {} is not written back, its source property is a path", targetProperty.getName(), targetClass);
+            return null;
+        }
+        if (targetProperty.getReadMethod() == null || sourceProperty.getWriteMethod() == null) {
+            logger.info("property {} of {} is not written back, it needs a getter in target class and a setter in source class",
+                    targetProperty.getName(), targetClass);
+            return null;
+        }
+        Class inverseConverterClass = dataMapping.inverseConverter();
+        boolean hasInverseConverter = !inverseConverterClass.equals(DataMapping.DEFAULT_CONVERTER_CLASS);
+        if (forwardItem.getConverter() != null && !hasInverseConverter) {
+            logger.info("property {} of {} is not written back, it has a converter but no inverse converter",
+                    targetProperty.getName(), targetClass);
+            return null;
+        }
+
+        MappingInfoItem reverseItem = new MappingInfoItem();
+        reverseItem.setSourceGetter(targetProperty);
+        reverseItem.setTargetSetter(sourceProperty);
+        reverseItem.setNeedDeepCopy(forwardItem.isNeedDeepCopy());
+        reverseItem.setSourceField(forwardItem.getTargetField());
+        reverseItem.setTargetField(forwardItem.getSourceField() == null
+                ? null : findField(forwardItem.getSourceField(), sourceProperty.getPropertyType(), true));
+        reverseItem.setConverter(hasInverseConverter ? ConverterRegistry.getConverter(inverseConverterClass) : null);
+        try {
+            reverseItem.verify();
+            if (reverseItem.isNeedDeepCopy()) {
+                DeepCopyEmitter.collectNestedPairs(DeepCopyEmitter.sourceTypeOf(reverseItem),
+                        DeepCopyEmitter.targetTypeOf(reverseItem), new HashSet<>());
+            }
+        } catch (BeanMappingException e) {
+            if (hasInverseConverter) {
+                throw e;
+            }
+            logger.info("property {} of {} is not written back: {}", targetProperty.getName(), targetClass, e.getMessage());
+            return null;
+        }
+        return reverseItem;
+    }
+
+    /**
+     * @return the given field when it can replace the accessor of property, or null
+     */
+    private static Field findField(Field field, Class propertyType, boolean written) {
+        int modifiers = field.getModifiers();
+        if (Modifier.isStatic(modifiers) || (written && Modifier.isFinal(modifiers)) || !field.getType().equals(propertyType)) {
+            logger.info("field {} can not be accessed directly, the accessor of property is used", field);
+            return null;
+        }
+        return field;
+    }
 
     private Map<Class<? extends PropertiesSourceObject>, List<Field>> filterField(Class targetClass) {
         Field[] fields = ReflectUtils.getAllFields(targetClass, field -> field.getDeclaredAnnotation(DataMapping.class) != null);
@@ -118,14 +233,32 @@ public class BeanMappingInfo {
                 ));
     }
 
+    /**
+     * get the mapping info of given target class, it is parsed once for each target class and shared by all its source classes.
+     * a failed parsing is not cached, the next call parses the class again
+     *
+     * @param clazz target class
+     * @return the shared mapping info of target class
+     */
     public static BeanMappingInfo parser(Class clazz) {
-        BeanMappingInfo beanMappingInfo = new BeanMappingInfo(clazz);
-        beanMappingInfo.parserMappingInfo();
-        return beanMappingInfo;
+        return PARSED_INFOS.get(clazz);
     }
 
+    /**
+     * @return unmodifiable view of the mapping items keyed by source class
+     */
     public Map<Class<? extends PropertiesSourceObject>, Set<MappingInfoItem>> getMappingInfos() {
-        return new HashMap<>(mappingInfos);
+        return Collections.unmodifiableMap(mappingInfos);
+    }
+
+    /**
+     * get the items which write the properties of target class back into given source class, they are built at the first call
+     *
+     * @param sourceClass class of the properties provider
+     * @return unmodifiable set of the reverse items, empty when target class is not mapped from source class
+     */
+    public Set<MappingInfoItem> getReverseMappingInfos(Class<? extends PropertiesSourceObject> sourceClass) {
+        return reverseMappingInfos.computeIfAbsent(sourceClass, this::parserReverseMappingInfos);
     }
 
     public Class getTargetClass() {
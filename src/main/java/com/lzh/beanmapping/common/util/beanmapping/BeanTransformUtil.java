@@ -3,27 +3,138 @@ package com.lzh.beanmapping.common.util.beanmapping;
 import com.lzh.beanmapping.common.PropertiesSourceObject;
 
 public class BeanTransformUtil {
+    /**
+     * registry of generated transformers, first level is keyed by target class and second level by source class.
+     * {@link ClassValue#get(Class)} does not lock once the value has been computed,
+     * so only the first lookup of a pair pays for the class generation.
+     */
+    private static final ClassValue<TransformerCache> TRANSFORMER_CACHES = new ClassValue<TransformerCache>() {
+        @Override
+        protected TransformerCache computeValue(Class<?> targetClass) {
+            return new TransformerCache(targetClass);
+        }
+    };
+
+    private static final ClassValue<ClassValue<ReverseTransformer>> REVERSE_TRANSFORMER_CACHES = new ClassValue<ClassValue<ReverseTransformer>>() {
+        @Override
+        protected ClassValue<ReverseTransformer> computeValue(Class<?> targetClass) {
+            return new ClassValue<ReverseTransformer>() {
+                @Override
+                protected ReverseTransformer computeValue(Class<?> sourceClass) {
+                    return ReverseTransformer.newInstance(targetClass, (Class<? extends PropertiesSourceObject>) sourceClass);
+                }
+            };
+        }
+    };
+
+    private BeanTransformUtil() {
+    }
+
     /**
      * create a new POJO base on given target class and class of properties provider
      *
      * @param target class of target instance
      * @param source instance of the properties provider
      * @param <T>    raw type of target class
-     * @return an instance of target class
+     * @return an instance of target class, or null when source is null
      * @throws {@link ClassNotFoundException}
      */
     public static <T> T newInstanceFrom(Class<T> target, PropertiesSourceObject source) throws ClassNotFoundException {
-        //TODO
-        return null;
+        if (source == null) {
+            return null;
+        }
+        BeanTransformer transformer = TRANSFORMER_CACHES.get(target).lookup(source.getClass());
+        return (T) transformer.getTargetInstanceFrom(source);
     }
 
+    /**
+     * copy the mapped properties of source into the given target
+     *
+     * @param target instance to be filled
+     * @param source instance of the properties provider
+     * @param <T>    raw type of target class
+     * @return the given target instance
+     */
     public static <T> T mergeProperties(T target, PropertiesSourceObject source) {
-        //TODO
-        return null;
+        if (target == null || source == null) {
+            return target;
+        }
+        BeanTransformer transformer = TRANSFORMER_CACHES.get(target.getClass()).lookup(source.getClass());
+        return (T) transformer.mergeProperties(target, source);
     }
 
+    /**
+     * get the shared transformer of given target class and source class,
+     * the transformer will be loaded from the precompiled class or built by the configured {@link TransformerEngine}
+     * when it is the first time to ask for this pair
+     *
+     * @param targetClass class of target instance
+     * @param sourceClass class of the properties provider
+     * @param <T>         raw type of target class
+     * @param <S>         raw type of source class
+     * @return the cached instance of {@link BeanTransformer}
+     */
     public static <T, S extends PropertiesSourceObject> BeanTransformer<T, S> getInstance(Class<T> targetClass, Class<S> sourceClass) {
-        //TODO
-        return null;
+        return (BeanTransformer<T, S>) TRANSFORMER_CACHES.get(targetClass).lookup(sourceClass);
+    }
+
+    /**
+     * get the shared transformer which writes instances of given target class back into given source class
+     *
+     * @param targetClass class of target instance
+     * @param sourceClass class of the properties provider
+     * @param <T>         raw type of target class
+     * @param <S>         raw type of source class
+     * @return the cached instance of {@link ReverseTransformer}
+     */
+    public static <T, S extends PropertiesSourceObject> ReverseTransformer<T, S> getReverseInstance(Class<T> targetClass, Class<S> sourceClass) {
+        return (ReverseTransformer<T, S>) REVERSE_TRANSFORMER_CACHES.get(targetClass).get(sourceClass);
+    }
+
+    /**
+     * transformers of one target class, keyed by source class.
+     * the entry of the last seen source class is kept as an inline cache,
+     * so repeated calls with the same source class do not probe the map,
+     * and a switch of source class only writes an entry which already exists, neither of them allocates.
+     */
+    private static class TransformerCache extends ClassValue<CachedTransformer> {
+        private final Class targetClass;
+        private volatile CachedTransformer lastSeen;
+
+        TransformerCache(Class targetClass) {
+            this.targetClass = targetClass;
+        }
+
+        BeanTransformer lookup(Class sourceClass) {
+            CachedTransformer cached = lastSeen;
+            if (cached == null || cached.sourceClass != sourceClass) {
+                cached = get(sourceClass);
+                lastSeen = cached;
+            }
+            return cached.transformer;
+        }
+
+        /**
+         * a transformer precompiled by {@link com.lzh.beanmapping.processor.BeanTransformerProcessor} is preferred,
+         * the transformer is only built at runtime by the {@link TransformerEngines#configured() configured engine} when there is none
+         */
+        @Override
+        protected CachedTransformer computeValue(Class<?> sourceClass) {
+            BeanTransformer transformer = PrecompiledTransformers.load(targetClass, sourceClass);
+            if (transformer == null) {
+                transformer = TransformerEngines.configured().create(targetClass, (Class<? extends PropertiesSourceObject>) sourceClass);
+            }
+            return new CachedTransformer(sourceClass, transformer);
+        }
+    }
+
+    private static class CachedTransformer {
+        private final Class sourceClass;
+        private final BeanTransformer transformer;
+
+        CachedTransformer(Class sourceClass, BeanTransformer transformer) {
+            this.sourceClass = sourceClass;
+            this.transformer = transformer;
+        }
     }
 }
@@ -1,17 +1,22 @@
 package com.lzh.beanmapping.common.util.beanmapping;
 
 import com.lzh.beanmapping.common.PropertiesSourceObject;
+import com.lzh.beanmapping.common.annotation.DataMapping;
+import com.lzh.beanmapping.common.exception.BeanMappingException;
 import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.Label;
 import org.springframework.asm.Type;
 import org.springframework.cglib.core.*;
 
-import java.lang.reflect.Method;
+import java.lang.reflect.Array;
 import java.lang.reflect.Modifier;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
-import java.util.function.Function;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 
 public abstract class BeanTransformer<T, S extends PropertiesSourceObject> {
@@ -24,15 +29,32 @@ public abstract class BeanTransformer<T, S extends PropertiesSourceObject> {
     private static final Signature MERGE_PROPERTIES
             = new Signature("mergeProperties", Constants.TYPE_OBJECT
             , new Type[]{Constants.TYPE_OBJECT, Type.getType(PropertiesSourceObject.class)});
+    private static final Signature MERGE_CHANGED_PROPERTIES
+            = new Signature("mergeChangedProperties", Type.LONG_TYPE
+            , new Type[]{Constants.TYPE_OBJECT, Type.getType(PropertiesSourceObject.class)});
+    private static final Signature DIFF
+            = new Signature("diff", Type.LONG_TYPE
+            , new Type[]{Constants.TYPE_OBJECT, Type.getType(PropertiesSourceObject.class)});
+    private static final Signature FILL_TARGET_INSTANCES
+            = new Signature("fillTargetInstances", Type.VOID_TYPE
+            , new Type[]{Constants.TYPE_OBJECT_ARRAY, Constants.TYPE_OBJECT_ARRAY, Type.INT_TYPE, Type.INT_TYPE});
+    private static final Signature MERGE_TARGET_INSTANCES
+            = new Signature("mergeTargetInstances", Type.VOID_TYPE
+            , new Type[]{Constants.TYPE_OBJECT_ARRAY, Constants.TYPE_OBJECT_ARRAY, Type.INT_TYPE, Type.INT_TYPE});
+    private static final Signature GET_TARGET_CLASS
+            = new Signature("getTargetClass", Constants.TYPE_CLASS, Constants.TYPES_EMPTY);
+    private static final Signature GET_SOURCE_CLASS
+            = new Signature("getSourceClass", Constants.TYPE_CLASS, Constants.TYPES_EMPTY);
+
+    private static final ParallelBatchConfig DEFAULT_PARALLEL_BATCH_CONFIG = new ParallelBatchConfig();
 
-    private static final Signature CONVERTER_METHOD;
+    /**
+     * the change mask is a long, a pair with more properties can not track its changes
+     */
+    public static final int MAX_CHANGE_TRACKED_PROPERTIES = 64;
 
-    static {
-        Method convertMethod = Function.class.getDeclaredMethods()[0];
-        CONVERTER_METHOD = new Signature(convertMethod.getName(),
-                Type.getReturnType(convertMethod),
-                Type.getArgumentTypes(convertMethod));
-    }
+    private volatile BeanTransformer<T, S> generatedTransformer;
+    private volatile List<String> changeTrackedProperties;
 
     public BeanTransformer() {
     }
@@ -41,6 +63,248 @@ public abstract class BeanTransformer<T, S extends PropertiesSourceObject> {
 
     public abstract T mergeProperties(T target, S source);
 
+    public abstract Class<T> getTargetClass();
+
+    public abstract Class<S> getSourceClass();
+
+    /**
+     * copy the mapped properties of source into the given target, but only call the setter of a property
+     * when the new value differs from the current value of target property,
+     * so the dirty tracking, listeners or cache invalidation behind the setters only fire for real changes.
+     * references are compared by {@link Objects#equals(Object, Object)}, a property without getter in target class is always written.
+     * <p>
+     * generated transformers override this method with inlined comparisons,
+     * the ones of {@link TransformerEngines#METHOD_HANDLE} compose them from method handles,
+     * the others delegate to the generated transformer of their pair.
+     *
+     * @param target instance to be filled
+     * @param source instance of the properties provider
+     * @return mask of the changed properties, bit i is the i-th name of {@link #getChangeTrackedProperties()}
+     * @throws com.lzh.beanmapping.common.exception.BeanMappingException when the pair has more than
+     *                                                                   {@link #MAX_CHANGE_TRACKED_PROPERTIES} properties
+     */
+    public long mergeChangedProperties(T target, S source) {
+        return generatedTransformer().mergeChangedProperties(target, source);
+    }
+
+    /**
+     * compare the mapped properties of source with the ones of the given target without writing them.
+     * the source values are converted as {@link #mergeProperties(Object, PropertiesSourceObject)} does,
+     * then compared like {@link #mergeChangedProperties(Object, PropertiesSourceObject)} compares them,
+     * but wrappers are unboxed instead of boxing primitives, so the comparison itself does not allocate.
+     * deep copied properties are compared with {@link Objects#deepEquals(Object, Object)} without copying them,
+     * so a nested bean is always reported as changed. a converter which allocates still allocates.
+     * <p>
+     * generated transformers override this method with inlined comparisons,
+     * the ones of {@link TransformerEngines#METHOD_HANDLE} compose them from method handles,
+     * the others delegate to the generated transformer of their pair.
+     *
+     * @param target instance to be compared
+     * @param source instance of the properties provider
+     * @return mask of the different properties, bit i is the i-th name of {@link #getChangeTrackedProperties()}
+     * @throws com.lzh.beanmapping.common.exception.BeanMappingException when the pair has more than
+     *                                                                   {@link #MAX_CHANGE_TRACKED_PROPERTIES} properties
+     */
+    public long diff(T target, S source) {
+        return generatedTransformer().diff(target, source);
+    }
+
+    private BeanTransformer<T, S> generatedTransformer() {
+        BeanTransformer<T, S> generated = generatedTransformer;
+        if (generated == null) {
+            generated = newInstance(getTargetClass(), getSourceClass());
+            generatedTransformer = generated;
+        }
+        return generated;
+    }
+
+    /**
+     * @return names of the target properties in the order of their bits in the mask of {@link #mergeChangedProperties(Object, PropertiesSourceObject)}
+     */
+    public List<String> getChangeTrackedProperties() {
+        List<String> properties = changeTrackedProperties;
+        if (properties == null) {
+            Set<MappingInfoItem> infoItems = BeanMappingInfo.parser(getTargetClass()).getMappingInfos().get(getSourceClass());
+            properties = Collections.unmodifiableList(PropertyStatementEmitter.changeMaskOrder(
+                    infoItems != null ? infoItems : Collections.emptySet()).stream()
+                    .map(infoItem -> infoItem.getTargetSetter().getName())
+                    .collect(toList()));
+            changeTrackedProperties = properties;
+        }
+        return properties;
+    }
+
+    /**
+     * @param changeMask mask returned by {@link #mergeChangedProperties(Object, PropertiesSourceObject)}
+     * @return names of the target properties whose bit is set in changeMask
+     */
+    public List<String> getChangedProperties(long changeMask) {
+        List<String> properties = getChangeTrackedProperties(), changed = new ArrayList<>(Long.bitCount(changeMask));
+        for (int bit = 0; bit < properties.size() && bit < MAX_CHANGE_TRACKED_PROPERTIES; bit++) {
+            if ((changeMask & (1L << bit)) != 0) {
+                changed.add(properties.get(bit));
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * create target instances from all given sources, the order of result is the iteration order of sources
+     *
+     * @param sources instances of the properties provider
+     * @return a fixed-size list of new target instances, it is backed by the array filled by the transformer,
+     * copy it into a new {@link ArrayList} to add or remove elements
+     */
+    public List<T> getTargetInstancesFrom(Collection<? extends S> sources) {
+        Object[] sourceArray = sources.toArray();
+        Object[] targets = new Object[sourceArray.length];
+        fillTargetInstances(sourceArray, targets, 0, sourceArray.length);
+        return (List<T>) Arrays.asList(targets);
+    }
+
+    /**
+     * create target instances from all given sources
+     *
+     * @param sources instances of the properties provider
+     * @return array of new target instances, element i is created from sources[i]
+     */
+    public T[] getTargetInstancesFrom(S[] sources) {
+        T[] targets = (T[]) Array.newInstance(getTargetClass(), sources.length);
+        fillTargetInstances(sources, targets, 0, sources.length);
+        return targets;
+    }
+
+    /**
+     * the variant of {@link #mergeAll(Object[], PropertiesSourceObject[], int, int)} over all elements of sources
+     */
+    public void mergeAll(T[] targets, S[] sources) {
+        mergeAll(targets, sources, 0, sources.length);
+    }
+
+    /**
+     * copy every source in [from, to) into the target at the same index, so a preallocated buffer of targets can be
+     * reused instead of creating a new target for each element. a null target is replaced by a new instance,
+     * a buffer of nulls is thus filled by the first call and recycled by the next ones.
+     * <p>
+     * a recycled target keeps the values of the properties which are not written, that is a null source value
+     * which can not be written into a primitive, a null step of a source path, or a property not mapped from source class.
+     * reset the buffer when such stale values must not be seen.
+     *
+     * @param targets buffer of target instances, it may contain nulls
+     * @param sources array of source instances
+     * @param from    first index, inclusive
+     * @param to      last index, exclusive
+     * @throws BeanMappingException when [from, to) is not a range of both arrays
+     */
+    public void mergeAll(T[] targets, S[] sources, int from, int to) {
+        if (from < 0 || from > to || to > sources.length || to > targets.length) {
+            throw new BeanMappingException("[" + from + ", " + to + ") is out of " + sources.length
+                    + " sources or " + targets.length + " targets");
+        }
+        mergeTargetInstances(sources, targets, from, to);
+    }
+
+    /**
+     * the parallel variant of {@link #getTargetInstancesFrom(Collection)} with default {@link ParallelBatchConfig}
+     */
+    public List<T> getTargetInstancesInParallel(Collection<? extends S> sources) {
+        return getTargetInstancesInParallel(sources, DEFAULT_PARALLEL_BATCH_CONFIG);
+    }
+
+    /**
+     * create target instances from all given sources on a {@link ForkJoinPool}.
+     * the result keeps the iteration order of sources because every task writes into its own range of
+     * a preallocated array. the transformer is shared by all tasks, so the converters must be thread-safe,
+     * see {@link com.lzh.beanmapping.common.annotation.DataMapping#converter()}.
+     *
+     * @param sources instances of the properties provider
+     * @param config  pool, threshold and chunk size of the fork-join tasks
+     * @return a fixed-size list of new target instances, backed by the array filled by the tasks
+     */
+    public List<T> getTargetInstancesInParallel(Collection<? extends S> sources, ParallelBatchConfig config) {
+        Object[] sourceArray = sources.toArray();
+        Object[] targets = new Object[sourceArray.length];
+        fillTargetInstancesInParallel(sourceArray, targets, config);
+        return (List<T>) Arrays.asList(targets);
+    }
+
+    /**
+     * the parallel variant of {@link #getTargetInstancesFrom(Object[])} with default {@link ParallelBatchConfig}
+     */
+    public T[] getTargetInstancesInParallel(S[] sources) {
+        return getTargetInstancesInParallel(sources, DEFAULT_PARALLEL_BATCH_CONFIG);
+    }
+
+    /**
+     * the array variant of {@link #getTargetInstancesInParallel(Collection, ParallelBatchConfig)}
+     */
+    public T[] getTargetInstancesInParallel(S[] sources, ParallelBatchConfig config) {
+        T[] targets = (T[]) Array.newInstance(getTargetClass(), sources.length);
+        fillTargetInstancesInParallel(sources, targets, config);
+        return targets;
+    }
+
+    private void fillTargetInstancesInParallel(Object[] sources, Object[] targets, ParallelBatchConfig config) {
+        if (sources.length < config.getParallelThreshold()) {
+            fillTargetInstances(sources, targets, 0, sources.length);
+        } else {
+            config.getPool().invoke(new FillTargetInstancesTask(this, sources, targets, 0, sources.length, config.getChunkSize()));
+        }
+    }
+
+    /**
+     * map the given stream lazily, each source element is transformed only when the target stream pulls it.
+     * the result is parallel when the given stream is parallel, and closing it closes the given stream.
+     *
+     * @param sources stream of the properties provider
+     * @return stream of new target instances
+     */
+    public Stream<T> map(Stream<? extends S> sources) {
+        return StreamSupport.stream(wrap(sources.spliterator()), sources.isParallel())
+                .onClose(sources::close);
+    }
+
+    /**
+     * wrap the given spliterator so that it returns a new target instance for each source element
+     *
+     * @param sources spliterator of the properties provider
+     * @return spliterator of new target instances which keeps SIZED, SUBSIZED and ORDERED of the given one
+     */
+    public Spliterator<T> wrap(Spliterator<? extends S> sources) {
+        return new TransformingSpliterator<>(this, sources);
+    }
+
+    /**
+     * create a target instance for every source in [from, to) and store it at the same index of targets.
+     * generated transformers override this method with a single loop which inlines the body of mergeProperties.
+     *
+     * @param sources array of source instances
+     * @param targets array to store the new target instances
+     * @param from    first index, inclusive
+     * @param to      last index, exclusive
+     */
+    protected void fillTargetInstances(Object[] sources, Object[] targets, int from, int to) {
+        for (int i = from; i < to; i++) {
+            targets[i] = getTargetInstanceFrom((S) sources[i]);
+        }
+    }
+
+
+    /**
+     * merge every source in [from, to) into the target at the same index, a null target is replaced by a new instance.
+     * generated transformers override this method with a single loop which inlines the body of mergeProperties.
+     *
+     * @param sources array of source instances
+     * @param targets array of target instances to be reused
+     * @param from    first index, inclusive
+     * @param to      last index, exclusive
+     */
+    protected void mergeTargetInstances(Object[] sources, Object[] targets, int from, int to) {
+        for (int i = from; i < to; i++) {
+            T target = (T) targets[i];
+            targets[i] = target == null ? getTargetInstanceFrom((S) sources[i]) : mergeProperties(target, (S) sources[i]);
+        }
+    }
 
     /**
      * @param targetClass
@@ -49,7 +313,7 @@ public abstract class BeanTransformer<T, S extends PropertiesSourceObject> {
      * @param <S>
      * @return
      */
-    public static <T, S extends PropertiesSourceObject> BeanTransformer newInstance(Class<T> targetClass, Class<S> sourceClass) {
+    public static <T, S extends PropertiesSourceObject> BeanTransformer<T, S> newInstance(Class<T> targetClass, Class<S> sourceClass) {
         Generater<T, S> generater = new Generater<>();
         generater.setTarget(targetClass);
         generater.setSource(sourceClass);
@@ -59,14 +323,19 @@ public abstract class BeanTransformer<T, S extends PropertiesSourceObject> {
 
     public static class Generater<T, S extends PropertiesSourceObject> extends AbstractClassGenerator<BeanTransformer<T, S>> {
         private static final AbstractClassGenerator.Source SOURCE = new Source(BeanTransformer.class.getName());
-        public static final String CONVERTER_FIELD_PREFIX = "converterOf";
+        public static final String CONVERTER_FIELD_PREFIX = PropertyStatementEmitter.CONVERTER_FIELD_PREFIX;
         private Class<S> source;
         private Class<T> target;
         private BeanMappingInfo beanMappingInfo;
+        private PropertyStatementEmitter statementEmitter;
 
 
         public Generater() {
             super(SOURCE);
+            BytecodeCacheStrategy bytecodeCache = BytecodeCacheStrategy.configured();
+            if (bytecodeCache != null) {
+                setStrategy(bytecodeCache);
+            }
         }
 
         /**
@@ -77,20 +346,35 @@ public abstract class BeanTransformer<T, S extends PropertiesSourceObject> {
          */
         @Override
         public void generateClass(ClassVisitor classVisitor) throws Exception {
+            if (beanMappingInfo == null) {
+                beanMappingInfo = BeanMappingInfo.parser(target);
+            }
             ClassEmitter ce = new ClassEmitter(classVisitor);
 
-            Map<Function, String> converterFieldMap = initClassStructure(ce);
+            initClassStructure(ce);
 
-            initDefaultConstruct(ce, converterFieldMap);
+            initDefaultConstruct(ce);
 
             buildMethod_getTargetInstanceFrom(ce);
 
-            buildMethod_mergeProperties(ce, converterFieldMap);
+            buildMethod_mergeProperties(ce);
+
+            buildMethod_mergeChangedProperties(ce);
+
+            buildMethod_diff(ce);
+
+            buildMethod_fillTargetInstances(ce);
+
+            buildMethod_mergeTargetInstances(ce);
+
+            buildMethod_getClass(ce, GET_TARGET_CLASS, target);
+
+            buildMethod_getClass(ce, GET_SOURCE_CLASS, source);
 
             ce.end_class();
         }
 
-        private Map<Function, String> initClassStructure(ClassEmitter ce) {
+        private void initClassStructure(ClassEmitter ce) {
             ce.begin_class(Constants.V1_8,
                     Constants.ACC_PUBLIC,
                     getClassName(),
@@ -98,36 +382,23 @@ public abstract class BeanTransformer<T, S extends PropertiesSourceObject> {
                     new Type[]{},
                     Constants.SOURCE_FILE);
 
+            statementEmitter = PropertyStatementEmitter.declare(ce, infoItems(), getClassName(), getClassLoader());
+        }
+
+        private Collection<MappingInfoItem> infoItems() {
             Set<MappingInfoItem> infoItems = beanMappingInfo.getMappingInfos().get(source);
-            Map<Function, String> fieldConverterMap = new HashMap<>();
-            infoItems.stream()
-                    .filter(infoItem -> infoItem.getConverter() != null)
-                    .forEach(infoItem -> {
-                        String converterFieldName = getConverterFieldName(infoItem);
-                        ce.declare_field(
-                                Constants.ACC_PRIVATE,
-                                converterFieldName,
-                                Type.getType(infoItem.getConverter().getClass()),
-                                null
-                        );
-                        fieldConverterMap.put(infoItem.getConverter(), converterFieldName);
-                    });
-            return fieldConverterMap;
-        }
-
-        private String getConverterFieldName(MappingInfoItem infoItem) {
-            return CONVERTER_FIELD_PREFIX + "_From_" + infoItem.getSourceGetter().getName() + "_To_" + infoItem.getSourceGetter().getName();
-        }
-
-        void buildMethod_mergeProperties(ClassEmitter ce, Map<Function, String> converterFieldMap) {
+            return infoItems != null ? infoItems : Collections.emptySet();
+        }
+
+        void buildMethod_mergeProperties(ClassEmitter ce) {
             CodeEmitter emitter = ce.begin_method(Constants.ACC_PUBLIC,
                     MERGE_PROPERTIES,
                     null);
-            buildMethodBody_mergeProperties(emitter, converterFieldMap);
+            buildMethodBody_mergeProperties(emitter);
             emitter.end_method();
         }
 
-        private void buildMethodBody_mergeProperties(CodeEmitter emitter, Map<Function, String> converterFieldMap) {
+        private void buildMethodBody_mergeProperties(CodeEmitter emitter) {
             Set<MappingInfoItem> infoItems = beanMappingInfo.getMappingInfos().get(source);
 
             if (infoItems != null && !infoItems.isEmpty()) {
@@ -145,47 +416,65 @@ public abstract class BeanTransformer<T, S extends PropertiesSourceObject> {
                 emitter.checkcast(sourceType);
                 emitter.store_local(sourceLocal);
 
-                for (MappingInfoItem infoItem : infoItems) {
-                    buildStatementForItem(emitter, infoItem, targetLocal, sourceLocal, converterFieldMap);
-                }
+                statementEmitter.emitItems(emitter, infoItems, targetLocal, sourceLocal);
             }
 
             emitter.load_arg(0);
             emitter.return_value();
         }
 
-        private void buildStatementForItem(CodeEmitter emitter
-                , MappingInfoItem infoItem
-                , Local targetLocal
-                , Local sourceLocal
-                , Map<Function, String> converterFieldMap) {
-            MethodInfo read = ReflectUtils.getMethodInfo(infoItem.getSourceGetter().getReadMethod());
-            MethodInfo write = ReflectUtils.getMethodInfo(infoItem.getTargetSetter().getWriteMethod());
+        void buildMethod_mergeChangedProperties(ClassEmitter ce) {
+            CodeEmitter emitter = ce.begin_method(Constants.ACC_PUBLIC,
+                    MERGE_CHANGED_PROPERTIES,
+                    null);
+            buildMethodBody_changeMask(emitter, statementEmitter::emitChangedItems);
+            emitter.end_method();
+        }
 
-            if (infoItem.isNeedDeepCopy()) {
+        void buildMethod_diff(ClassEmitter ce) {
+            CodeEmitter emitter = ce.begin_method(Constants.ACC_PUBLIC,
+                    DIFF,
+                    null);
+            buildMethodBody_changeMask(emitter, statementEmitter::emitDiffItems);
+            emitter.end_method();
+        }
 
-            } else {
-                if (infoItem.getConverter() != null) {
-                    Function converter = infoItem.getConverter();
-                    String coverterFieldName = converterFieldMap.get(converter);
-
-                    emitter.load_local(targetLocal);
-                    emitter.load_this();
-                    emitter.getfield(coverterFieldName);
-                    emitter.load_local(sourceLocal);
-                    emitter.invoke(read);
-                    emitter.invoke_interface(Type.getType(Function.class), CONVERTER_METHOD);
-                    emitter.checkcast(Type.getType(infoItem.getTargetSetter().getPropertyType()));
-                    emitter.invoke(write);
-                } else {
-                    emitter.load_local(targetLocal);
-                    emitter.load_local(sourceLocal);
-                    emitter.invoke(read);
-                    emitter.invoke(write);
-                }
+        /**
+         * emit the statements of every property in the order of the change mask and return the mask,
+         * a pair with too many properties gets a method which throws
+         */
+        private void buildMethodBody_changeMask(CodeEmitter emitter, ChangeMaskStatements statements) {
+            List<MappingInfoItem> orderedItems = PropertyStatementEmitter.changeMaskOrder(infoItems());
+            if (orderedItems.size() > MAX_CHANGE_TRACKED_PROPERTIES) {
+                emitter.throw_exception(Type.getType(BeanMappingException.class), "can not track the changes of "
+                        + orderedItems.size() + " properties from " + source + " to " + target
+                        + ", the limit is " + MAX_CHANGE_TRACKED_PROPERTIES);
+                return;
+            }
+            int target_arg = 0, source_arg = 1;
+            Type targetType = Type.getType(target),
+                    sourceType = Type.getType(source);
+            Local targetLocal = emitter.make_local(targetType),
+                    sourceLocal = emitter.make_local(sourceType),
+                    maskLocal = emitter.make_local(Type.LONG_TYPE);
+
+            emitter.push(0L);
+            emitter.store_local(maskLocal);
+            if (!orderedItems.isEmpty()) {
+                emitter.load_arg(target_arg);
+                emitter.checkcast(targetType);
+                emitter.store_local(targetLocal);
+
+                emitter.load_arg(source_arg);
+                emitter.checkcast(sourceType);
+                emitter.store_local(sourceLocal);
+
+                statements.emit(emitter, orderedItems, targetLocal, sourceLocal, maskLocal);
             }
-        }
 
+            emitter.load_local(maskLocal);
+            emitter.return_value();
+        }
 
         void buildMethod_getTargetInstanceFrom(ClassEmitter ce) {
             CodeEmitter codeEmitter = ce.begin_method(Constants.ACC_PUBLIC,
@@ -210,7 +499,133 @@ public abstract class BeanTransformer<T, S extends PropertiesSourceObject> {
             emitter.return_value();
         }
 
-        void initDefaultConstruct(ClassEmitter ce, Map<Function, String> converterFieldMap) {
+        void buildMethod_fillTargetInstances(ClassEmitter ce) {
+            CodeEmitter emitter = ce.begin_method(Constants.ACC_PROTECTED,
+                    FILL_TARGET_INSTANCES,
+                    null);
+            buildMethodBody_fillTargetInstances(emitter);
+            emitter.end_method();
+        }
+
+        /**
+         * emit a single loop over [from, to) which creates the target, inlines the statements of mergeProperties
+         * and stores the target, so there is no virtual call per element
+         */
+        private void buildMethodBody_fillTargetInstances(CodeEmitter emitter) {
+            int sources_arg = 0, targets_arg = 1, from_arg = 2, to_arg = 3;
+            Type targetType = Type.getType(target),
+                    sourceType = Type.getType(source);
+            Local indexLocal = emitter.make_local(Type.INT_TYPE),
+                    targetLocal = emitter.make_local(targetType),
+                    sourceLocal = emitter.make_local(sourceType);
+            Label loopBody = emitter.make_label(),
+                    loopCondition = emitter.make_label();
+
+            emitter.load_arg(from_arg);
+            emitter.store_local(indexLocal);
+            emitter.goTo(loopCondition);
+
+            emitter.mark(loopBody);
+            emitter.load_arg(sources_arg);
+            emitter.load_local(indexLocal);
+            emitter.aaload();
+            emitter.checkcast(sourceType);
+            emitter.store_local(sourceLocal);
+
+            emitter.new_instance(targetType);
+            emitter.dup();
+            emitter.invoke_constructor(targetType);
+            emitter.store_local(targetLocal);
+
+            statementEmitter.emitItems(emitter, infoItems(), targetLocal, sourceLocal);
+
+            emitter.load_arg(targets_arg);
+            emitter.load_local(indexLocal);
+            emitter.load_local(targetLocal);
+            emitter.aastore();
+            emitter.iinc(indexLocal, 1);
+
+            emitter.mark(loopCondition);
+            emitter.load_local(indexLocal);
+            emitter.load_arg(to_arg);
+            emitter.if_icmp(CodeEmitter.LT, loopBody);
+
+            emitter.return_value();
+        }
+
+        void buildMethod_mergeTargetInstances(ClassEmitter ce) {
+            CodeEmitter emitter = ce.begin_method(Constants.ACC_PROTECTED,
+                    MERGE_TARGET_INSTANCES,
+                    null);
+            buildMethodBody_mergeTargetInstances(emitter);
+            emitter.end_method();
+        }
+
+        /**
+         * emit a single loop over [from, to) which loads the target, creates and stores it only when it is null,
+         * then inlines the statements of mergeProperties
+         */
+        private void buildMethodBody_mergeTargetInstances(CodeEmitter emitter) {
+            int sources_arg = 0, targets_arg = 1, from_arg = 2, to_arg = 3;
+            Type targetType = Type.getType(target),
+                    sourceType = Type.getType(source);
+            Local indexLocal = emitter.make_local(Type.INT_TYPE),
+                    targetLocal = emitter.make_local(targetType),
+                    sourceLocal = emitter.make_local(sourceType);
+            Label loopBody = emitter.make_label(),
+                    loopCondition = emitter.make_label(),
+                    targetReady = emitter.make_label();
+
+            emitter.load_arg(from_arg);
+            emitter.store_local(indexLocal);
+            emitter.goTo(loopCondition);
+
+            emitter.mark(loopBody);
+            emitter.load_arg(sources_arg);
+            emitter.load_local(indexLocal);
+            emitter.aaload();
+            emitter.checkcast(sourceType);
+            emitter.store_local(sourceLocal);
+
+            emitter.load_arg(targets_arg);
+            emitter.load_local(indexLocal);
+            emitter.aaload();
+            emitter.checkcast(targetType);
+            emitter.store_local(targetLocal);
+            emitter.load_local(targetLocal);
+            emitter.ifnonnull(targetReady);
+            emitter.new_instance(targetType);
+            emitter.dup();
+            emitter.invoke_constructor(targetType);
+            emitter.store_local(targetLocal);
+            emitter.load_arg(targets_arg);
+            emitter.load_local(indexLocal);
+            emitter.load_local(targetLocal);
+            emitter.aastore();
+            emitter.mark(targetReady);
+
+            statementEmitter.emitItems(emitter, infoItems(), targetLocal, sourceLocal);
+
+            emitter.iinc(indexLocal, 1);
+
+            emitter.mark(loopCondition);
+            emitter.load_local(indexLocal);
+            emitter.load_arg(to_arg);
+            emitter.if_icmp(CodeEmitter.LT, loopBody);
+
+            emitter.return_value();
+        }
+
+        void buildMethod_getClass(ClassEmitter ce, Signature signature, Class clazz) {
+            CodeEmitter emitter = ce.begin_method(Constants.ACC_PUBLIC,
+                    signature,
+                    null);
+            emitter.visitLdcInsn(Type.getType(clazz));
+            emitter.return_value();
+            emitter.end_method();
+        }
+
+        void initDefaultConstruct(ClassEmitter ce) {
             CodeEmitter codeEmitter =
                     ce.begin_method(
                             Constants.ACC_PUBLIC,
@@ -223,18 +638,7 @@ public abstract class BeanTransformer<T, S extends PropertiesSourceObject> {
             codeEmitter.load_this();
             codeEmitter.super_invoke_constructor();
 
-            converterFieldMap.entrySet().stream()
-                    .forEach(entry -> {
-                        Function converter = entry.getKey();
-                        String converterFieldName = entry.getValue();
-                        Type converterType = Type.getType(converter.getClass());
-
-                        codeEmitter.load_this();
-                        codeEmitter.new_instance(converterType);
-                        codeEmitter.dup();
-                        codeEmitter.invoke_constructor(converterType);
-                        codeEmitter.putfield(converterFieldName);
-                    });
+            statementEmitter.emitFieldInitialization(codeEmitter);
 
             codeEmitter.return_value();
             codeEmitter.end_method();
@@ -246,10 +650,24 @@ public abstract class BeanTransformer<T, S extends PropertiesSourceObject> {
          * @return instance of {@link BeanTransformer}
          */
         public BeanTransformer<T, S> create() {
+            if (Modifier.isPublic(source.getModifiers()) && usesFieldAccess()) {
+                setNamePrefix(target.getName());
+            }
             Object key = KEY_FACTORY.newInstance(target.getName(), source.getName());
             return (BeanTransformer<T, S>) super.create(key);
         }
 
+        /**
+         * the generated class is put in the package of target class when a property of this pair asks for field access,
+         * so the package-private fields of target class can be accessed
+         */
+        private boolean usesFieldAccess() {
+            return com.lzh.beanmapping.common.util.ReflectUtils.getAllFields(target, field -> {
+                DataMapping dataMapping = field.getDeclaredAnnotation(DataMapping.class);
+                return dataMapping != null && dataMapping.fieldAccess() && dataMapping.sourceClass().equals(source);
+            }).length > 0;
+        }
+
         public void setSource(Class source) {
             if (!Modifier.isPublic(source.getModifiers())) {
                 this.setNamePrefix(source.getName());
@@ -262,7 +680,21 @@ public abstract class BeanTransformer<T, S extends PropertiesSourceObject> {
                 this.setNamePrefix(target.getName());
             }
             this.target = target;
-            beanMappingInfo = BeanMappingInfo.parser(target);
+        }
+
+        public Class<S> getSource() {
+            return source;
+        }
+
+        public Class<T> getTarget() {
+            return target;
+        }
+
+        /**
+         * @return name chosen for the class being generated, it is only set during {@link #create()}
+         */
+        String getGeneratedClassName() {
+            return getClassName();
         }
 
         @Override
@@ -283,6 +715,45 @@ public abstract class BeanTransformer<T, S extends PropertiesSourceObject> {
 
     }
 
+    /**
+     * split [from, to) in halves until a range is not larger than chunkSize, then fill the range in one call
+     */
+    private static class FillTargetInstancesTask extends RecursiveAction {
+        private final BeanTransformer transformer;
+        private final Object[] sources;
+        private final Object[] targets;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        FillTargetInstancesTask(BeanTransformer transformer, Object[] sources, Object[] targets, int from, int to, int chunkSize) {
+            this.transformer = transformer;
+            this.sources = sources;
+            this.targets = targets;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                transformer.fillTargetInstances(sources, targets, from, to);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new FillTargetInstancesTask(transformer, sources, targets, from, middle, chunkSize),
+                        new FillTargetInstancesTask(transformer, sources, targets, middle, to, chunkSize));
+            }
+        }
+    }
+
+    /**
+     * emitter of the statements of a method returning a change mask
+     */
+    private interface ChangeMaskStatements {
+        void emit(CodeEmitter emitter, List<MappingInfoItem> orderedItems, Local targetLocal, Local sourceLocal, Local maskLocal);
+    }
+
     interface BeanTransformerKey {
         Object newInstance(String targetClassName, String sourceClassName);
     }
@@ -0,0 +1,323 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.annotation.DataMapping;
+import com.lzh.beanmapping.common.exception.BeanMappingException;
+import com.lzh.beanmapping.common.util.BeanMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.asm.ClassReader;
+import org.springframework.cglib.core.ClassGenerator;
+import org.springframework.cglib.core.ClassNameReader;
+import org.springframework.cglib.core.DefaultGeneratorStrategy;
+import org.springframework.cglib.core.GeneratorStrategy;
+import org.springframework.core.ResolvableType;
+
+import java.beans.PropertyDescriptor;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
+import java.security.DigestInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * This class is used to keep the bytes of generated transformers in a local directory,
+ * so the next process defines them directly instead of parsing the mapping info and emitting them again.
+ * <p>
+ * an entry is named by the target class, the source class and a SHA-256 hash of the bytes of every class
+ * the generated code depends on: the target and source classes with their superclasses, the converters,
+ * the classes in the generic types of deep copied properties, whose mappings decide how their elements are copied,
+ * and the code of this library: the bytes of its jar, or of all its class files when it is a directory,
+ * so an upgrade of the library invalidates every entry. the classes of the generator are hashed as well,
+ * they are all that is left when the code source of the library can not be read.
+ * an entry whose hash no longer matches is stale, it is ignored and replaced by the newly generated bytes.
+ * <p>
+ * the cache is enabled for every {@link BeanTransformer.Generater} by the system property {@value #CACHE_DIR_PROPERTY}.
+ */
+class BytecodeCacheStrategy implements GeneratorStrategy {
+    private static Logger logger = LoggerFactory.getLogger(BytecodeCacheStrategy.class);
+
+    static final String CACHE_DIR_PROPERTY = "beanmapping.bytecode.cache.dir";
+    private static final String SEPARATOR = "__";
+    private static final String SUFFIX = ".class";
+    private static final Class[] GENERATOR_CLASSES = {BeanTransformer.class, BeanTransformer.Generater.class,
+            BeanMappingInfo.class, MappingInfoItem.class, PropertyStatementEmitter.class, DeepCopyEmitter.class, TypeAdapter.class,
+            ConverterContract.class, ConverterRegistry.class, BeanMetadata.class, scannerClass()};
+    private static final BytecodeCacheStrategy SYSTEM_PROPERTY_STRATEGY = fromSystemProperty();
+
+    private final Path directory;
+    private final GeneratorStrategy delegate = DefaultGeneratorStrategy.INSTANCE;
+
+    BytecodeCacheStrategy(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return the strategy configured by {@value #CACHE_DIR_PROPERTY}, or null when the cache is not enabled
+     */
+    static BytecodeCacheStrategy configured() {
+        return SYSTEM_PROPERTY_STRATEGY;
+    }
+
+    private static BytecodeCacheStrategy fromSystemProperty() {
+        String directory = System.getProperty(CACHE_DIR_PROPERTY);
+        return directory == null || directory.isEmpty() ? null : new BytecodeCacheStrategy(Paths.get(directory));
+    }
+
+    @Override
+    public byte[] generate(ClassGenerator cg) throws Exception {
+        BeanTransformer.Generater generater = (BeanTransformer.Generater) cg;
+        String entryPrefix = generater.getTarget().getName() + SEPARATOR + generater.getSource().getName() + SEPARATOR;
+        String hash = hashOf(generater.getTarget(), generater.getSource());
+        if (hash == null) {
+            return delegate.generate(cg);
+        }
+        Path entry = directory.resolve(entryPrefix + hash + SUFFIX);
+        byte[] cached = read(entry);
+        if (cached != null && generater.getGeneratedClassName().equals(ClassNameReader.getClassName(new ClassReader(cached)))) {
+            return cached;
+        }
+        byte[] bytes = delegate.generate(cg);
+        write(entry, entryPrefix, bytes);
+        return bytes;
+    }
+
+    private byte[] read(Path entry) {
+        if (!Files.isRegularFile(entry)) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(entry);
+        } catch (IOException e) {
+            logger.info("can not read cached transformer {}, it will be generated again", entry, e);
+            return null;
+        }
+    }
+
+    /**
+     * write the entry through a temporary file and an atomic move, so a concurrent process never reads a partial entry,
+     * then remove the stale entries of the same pair
+     */
+    private void write(Path entry, String entryPrefix, byte[] bytes) {
+        try {
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, entryPrefix, ".tmp");
+            Files.write(temporary, bytes);
+            Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            try (Stream<Path> entries = Files.list(directory)) {
+                entries.filter(path -> !path.equals(entry))
+                        .filter(path -> path.getFileName().toString().startsWith(entryPrefix)
+                                && path.getFileName().toString().endsWith(SUFFIX))
+                        .forEach(BytecodeCacheStrategy::deleteQuietly);
+            }
+        } catch (IOException e) {
+            logger.info("can not write cached transformer {}", entry, e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.info("can not delete stale cached transformer {}", path, e);
+        }
+    }
+
+    /**
+     * @return hex SHA-256 of the classes the generated transformer depends on, or null when one of them has no class file
+     */
+    static String hashOf(Class target, Class source) {
+        MessageDigest digest = newDigest();
+        byte[] library = LibraryFingerprint.VALUE;
+        if (library != null) {
+            digest.update(library);
+        }
+        for (Class dependency : dependenciesOf(target, source)) {
+            byte[] bytes = classBytesOf(dependency);
+            if (bytes == null) {
+                return null;
+            }
+            digest.update(dependency.getName().getBytes(StandardCharsets.UTF_8));
+            digest.update(bytes);
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    static Set<Class> dependenciesOf(Class target, Class source) {
+        Set<Class> dependencies = new LinkedHashSet<>();
+        for (Class generatorClass : GENERATOR_CLASSES) {
+            dependencies.add(generatorClass);
+        }
+        addHierarchy(target, dependencies);
+        addHierarchy(source, dependencies);
+        for (Class current = target; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : BeanMetadata.of(current).getDeclaredFields()) {
+                DataMapping dataMapping = field.getDeclaredAnnotation(DataMapping.class);
+                if (dataMapping != null) {
+                    addHierarchy(dataMapping.converter(), dependencies);
+                    if (dataMapping.sourceClass() == source) {
+                        addPropertyTypes(target, source, field.getName(), dataMapping, dependencies);
+                    }
+                }
+            }
+        }
+        return dependencies;
+    }
+
+    /**
+     * the classes read by a source path such as "customer.address.city" are part of the generated null-safe chain.
+     * a deep copy picks the copy of an element from the classes in the generic types of getter and setter,
+     * such as the element of a List, so a change of their mappings changes the generated code.
+     * the accessors are looked up by {@link BeanMetadata} from the annotation, the mapping is not parsed,
+     * an invalid mapping is left to the generation which reports it
+     */
+    private static void addPropertyTypes(Class target, Class source, String targetPropertyName, DataMapping dataMapping,
+                                         Set<Class> dependencies) {
+        String[] steps = dataMapping.sourceProperty().split("\\.", -1);
+        PropertyDescriptor getter = null;
+        Class owner = source;
+        for (int i = 0; i < steps.length; i++) {
+            if (i > 0) {
+                addHierarchy(owner, dependencies);
+            }
+            getter = owner.isPrimitive() || owner.isArray() ? null : BeanMetadata.of(owner).getProperty(steps[i]);
+            if (getter == null || getter.getReadMethod() == null) {
+                return;
+            }
+            owner = getter.getPropertyType();
+        }
+        if (!dataMapping.needDeepCopy()) {
+            return;
+        }
+        PropertyDescriptor setter = BeanMetadata.of(target).getProperty(targetPropertyName);
+        if (setter == null || setter.getWriteMethod() == null) {
+            return;
+        }
+        addTypeClasses(ResolvableType.forMethodReturnType(getter.getReadMethod()), dependencies);
+        addTypeClasses(ResolvableType.forMethodParameter(setter.getWriteMethod(), 0), dependencies);
+    }
+
+    /**
+     * add the classes of type, its component type and its generics, the classes of the JDK are left out as they do not change
+     */
+    private static void addTypeClasses(ResolvableType type, Set<Class> dependencies) {
+        if (type.isArray()) {
+            addTypeClasses(type.getComponentType(), dependencies);
+            return;
+        }
+        Class clazz = type.resolve();
+        if (clazz != null && clazz.getClassLoader() != null) {
+            addHierarchy(clazz, dependencies);
+        }
+        for (ResolvableType generic : type.getGenerics()) {
+            addTypeClasses(generic, dependencies);
+        }
+    }
+
+    private static void addHierarchy(Class clazz, Set<Class> dependencies) {
+        for (Class current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+            dependencies.add(current);
+        }
+    }
+
+    /**
+     * the scanner which chooses the accessors of {@link BeanMetadata} is package-private, it is loaded by name
+     */
+    private static Class scannerClass() {
+        try {
+            return Class.forName(BeanMetadata.class.getPackage().getName() + ".PropertyScanner", false,
+                    BeanMetadata.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * @return SHA-256 of the code source of this library, or null when it can not be read
+     */
+    static byte[] libraryFingerprint() {
+        return LibraryFingerprint.VALUE;
+    }
+
+    /**
+     * the code source is read once per process, on the first lookup of the cache
+     */
+    private static class LibraryFingerprint {
+        private static final byte[] VALUE = compute();
+
+        private static byte[] compute() {
+            CodeSource codeSource = BytecodeCacheStrategy.class.getProtectionDomain().getCodeSource();
+            if (codeSource == null || codeSource.getLocation() == null) {
+                return null;
+            }
+            try {
+                Path location = Paths.get(codeSource.getLocation().toURI());
+                MessageDigest digest = newDigest();
+                if (Files.isRegularFile(location)) {
+                    update(digest, location);
+                } else if (Files.isDirectory(location)) {
+                    try (Stream<Path> paths = Files.walk(location)) {
+                        for (Path path : (Iterable<Path>) paths.filter(file -> file.toString().endsWith(SUFFIX)).sorted()::iterator) {
+                            digest.update(location.relativize(path).toString().getBytes(StandardCharsets.UTF_8));
+                            update(digest, path);
+                        }
+                    }
+                } else {
+                    return null;
+                }
+                return digest.digest();
+            } catch (URISyntaxException | IOException | RuntimeException e) {
+                logger.info("can not read the code source {}, only the classes of the generator are hashed",
+                        codeSource.getLocation(), e);
+                return null;
+            }
+        }
+
+        private static void update(MessageDigest digest, Path file) throws IOException {
+            try (InputStream input = new DigestInputStream(Files.newInputStream(file), digest)) {
+                byte[] buffer = new byte[8192];
+                while (input.read(buffer) >= 0) {
+                    // the digest is updated by the stream
+                }
+            }
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new BeanMappingException("SHA-256 is not supported", e);
+        }
+    }
+
+    private static byte[] classBytesOf(Class clazz) {
+        ClassLoader classLoader = clazz.getClassLoader() != null ? clazz.getClassLoader() : ClassLoader.getSystemClassLoader();
+        String resourceName = clazz.getName().replace('.', '/') + SUFFIX;
+        try (InputStream input = classLoader.getResourceAsStream(resourceName)) {
+            if (input == null) {
+                return null;
+            }
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int read = input.read(buffer); read >= 0; read = input.read(buffer)) {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.PropertiesSourceObject;
+
+/**
+ * the engine of {@link BeanTransformer.Generater}, it defines one class for each pair
+ */
+final class CglibTransformerEngine implements TransformerEngine {
+
+    @Override
+    public String getName() {
+        return "cglib";
+    }
+
+    @Override
+    public <T, S extends PropertiesSourceObject> BeanTransformer<T, S> create(Class<T> targetClass, Class<S> sourceClass) {
+        return BeanTransformer.newInstance(targetClass, sourceClass);
+    }
+}
@@ -0,0 +1,71 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.exception.BeanMappingException;
+
+import java.util.function.*;
+
+/**
+ * This enum lists the functional interfaces which can be used as {@link com.lzh.beanmapping.common.annotation.DataMapping#converter()}.
+ * the primitive specialized contracts let a converter consume or produce primitives without boxing.
+ */
+public enum ConverterContract {
+    FUNCTION(Function.class, "apply", Object.class, Object.class),
+    PREDICATE(Predicate.class, "test", Object.class, boolean.class),
+    TO_INT_FUNCTION(ToIntFunction.class, "applyAsInt", Object.class, int.class),
+    TO_LONG_FUNCTION(ToLongFunction.class, "applyAsLong", Object.class, long.class),
+    TO_DOUBLE_FUNCTION(ToDoubleFunction.class, "applyAsDouble", Object.class, double.class),
+    INT_FUNCTION(IntFunction.class, "apply", int.class, Object.class),
+    LONG_FUNCTION(LongFunction.class, "apply", long.class, Object.class),
+    DOUBLE_FUNCTION(DoubleFunction.class, "apply", double.class, Object.class),
+    INT_UNARY_OPERATOR(IntUnaryOperator.class, "applyAsInt", int.class, int.class),
+    LONG_UNARY_OPERATOR(LongUnaryOperator.class, "applyAsLong", long.class, long.class),
+    DOUBLE_UNARY_OPERATOR(DoubleUnaryOperator.class, "applyAsDouble", double.class, double.class),
+    INT_TO_LONG_FUNCTION(IntToLongFunction.class, "applyAsLong", int.class, long.class),
+    INT_TO_DOUBLE_FUNCTION(IntToDoubleFunction.class, "applyAsDouble", int.class, double.class),
+    LONG_TO_INT_FUNCTION(LongToIntFunction.class, "applyAsInt", long.class, int.class),
+    LONG_TO_DOUBLE_FUNCTION(LongToDoubleFunction.class, "applyAsDouble", long.class, double.class),
+    DOUBLE_TO_INT_FUNCTION(DoubleToIntFunction.class, "applyAsInt", double.class, int.class),
+    DOUBLE_TO_LONG_FUNCTION(DoubleToLongFunction.class, "applyAsLong", double.class, long.class);
+
+    private final Class interfaceClass;
+    private final String methodName;
+    private final Class erasedParameterType;
+    private final Class erasedReturnType;
+
+    ConverterContract(Class interfaceClass, String methodName, Class erasedParameterType, Class erasedReturnType) {
+        this.interfaceClass = interfaceClass;
+        this.methodName = methodName;
+        this.erasedParameterType = erasedParameterType;
+        this.erasedReturnType = erasedReturnType;
+    }
+
+    /**
+     * find the contract implemented by given converter class, the first one in declaring order wins
+     *
+     * @throws BeanMappingException when the class implements none of them
+     */
+    public static ConverterContract of(Class converterClass) {
+        for (ConverterContract contract : values()) {
+            if (contract.interfaceClass.isAssignableFrom(converterClass)) {
+                return contract;
+            }
+        }
+        throw new BeanMappingException("converter " + converterClass + " does not implement any supported functional interface");
+    }
+
+    public Class getInterfaceClass() {
+        return interfaceClass;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public Class getErasedParameterType() {
+        return erasedParameterType;
+    }
+
+    public Class getErasedReturnType() {
+        return erasedReturnType;
+    }
+}
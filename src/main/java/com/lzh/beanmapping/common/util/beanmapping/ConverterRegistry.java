@@ -0,0 +1,57 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.annotation.StatelessConverter;
+import com.lzh.beanmapping.common.exception.BeanMappingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * This class is used to provide converter instances for the mapping info and the generated transformers.
+ * a converter marked with {@link StatelessConverter} is created once and shared as a singleton,
+ * any other converter gets a new instance for each request.
+ */
+public final class ConverterRegistry {
+    private static Logger logger = LoggerFactory.getLogger(ConverterRegistry.class);
+
+    private static final ClassValue<Object> SHARED_CONVERTERS = new ClassValue<Object>() {
+        @Override
+        protected Object computeValue(Class<?> converterClass) {
+            return newConverter(converterClass);
+        }
+    };
+
+    private ConverterRegistry() {
+    }
+
+    /**
+     * @param converterClass class of the converter, it must have a public no-arg constructor
+     * @return the shared instance when converterClass is stateless, otherwise a new instance
+     * @throws BeanMappingException when the converter can not be constructed
+     */
+    public static Object getConverter(Class<?> converterClass) {
+        if (isStateless(converterClass)) {
+            return SHARED_CONVERTERS.get(converterClass);
+        }
+        return newConverter(converterClass);
+    }
+
+    public static boolean isStateless(Class<?> converterClass) {
+        return converterClass.isAnnotationPresent(StatelessConverter.class);
+    }
+
+    private static Object newConverter(Class<?> converterClass) {
+        try {
+            Constructor constructor = converterClass.getConstructor();
+            return constructor.newInstance();
+        } catch (NoSuchMethodException e) {
+            logger.info("given converter class {} does not have default constructor", converterClass);
+            throw new BeanMappingException("given converter class does not have default constructor", e);
+        } catch (IllegalAccessException | InstantiationException | InvocationTargetException e) {
+            logger.info("can not construct converter ,reason is {}", e);
+            throw new BeanMappingException("can not construct converter", e);
+        }
+    }
+}
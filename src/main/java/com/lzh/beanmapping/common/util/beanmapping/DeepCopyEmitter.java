@@ -0,0 +1,489 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.PropertiesSourceObject;
+import com.lzh.beanmapping.common.exception.BeanMappingException;
+import org.springframework.asm.Label;
+import org.springframework.asm.Type;
+import org.springframework.cglib.core.CodeEmitter;
+import org.springframework.cglib.core.Constants;
+import org.springframework.cglib.core.Local;
+import org.springframework.cglib.core.Signature;
+import org.springframework.core.ResolvableType;
+
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This class is used to emit the deep copy of a property whose {@link com.lzh.beanmapping.common.annotation.DataMapping#needDeepCopy()} is true.
+ * <p>
+ * the copy is specialized on the generic type of getter and setter:
+ * <ul>
+ * <li>arrays are copied by clone, or by {@link System#arraycopy} when only the component type changes,
+ * and by an emitted loop when the components need copy</li>
+ * <li>collections and maps are rebuilt into a presized instance, elements are copied recursively</li>
+ * <li>a {@link PropertiesSourceObject} whose target type is mapped from it is copied by the transformer of that pair</li>
+ * <li>a {@link Date} or a {@link Calendar} is copied by clone</li>
+ * <li>an immutable value, such as a primitive, a wrapper, a String, an enum or a java.time value, is copied by reference</li>
+ * </ul>
+ * any other value, such as an unmapped nested POJO, can not be copied and fails the verification of the mapping.
+ * no reflection or serialization is involved at runtime.
+ */
+class DeepCopyEmitter {
+    public static final String NESTED_TRANSFORMER_FIELD_PREFIX = "nestedTransformerOf_";
+
+    private static final Type BEAN_TRANSFORMER = Type.getType(BeanTransformer.class);
+    private static final Type BEAN_TRANSFORM_UTIL = Type.getType(BeanTransformUtil.class);
+    private static final Type COLLECTION = Type.getType(Collection.class);
+    private static final Type MAP = Type.getType(Map.class);
+    private static final Type MAP_ENTRY = Type.getType(Map.Entry.class);
+    private static final Type ITERATOR = Type.getType(Iterator.class);
+    private static final Type SYSTEM = Type.getType(System.class);
+    private static final Type COMPARATOR = Type.getType(Comparator.class);
+    private static final List<Class> CLONEABLE_TYPES = Arrays.asList(Date.class, Calendar.class);
+    private static final List<Class> IMMUTABLE_TYPES = Arrays.asList(String.class, java.math.BigDecimal.class,
+            java.math.BigInteger.class, UUID.class, Class.class, Locale.class, Currency.class, java.net.URI.class);
+    private static final Signature SIZE = new Signature("size", Type.INT_TYPE, Constants.TYPES_EMPTY);
+    private static final Signature ITERATOR_METHOD = new Signature("iterator", ITERATOR, Constants.TYPES_EMPTY);
+    private static final Signature ENTRY_SET = new Signature("entrySet", Type.getType(Set.class), Constants.TYPES_EMPTY);
+    private static final Signature HAS_NEXT = new Signature("hasNext", Type.BOOLEAN_TYPE, Constants.TYPES_EMPTY);
+    private static final Signature NEXT = new Signature("next", Constants.TYPE_OBJECT, Constants.TYPES_EMPTY);
+    private static final Signature GET_KEY = new Signature("getKey", Constants.TYPE_OBJECT, Constants.TYPES_EMPTY);
+    private static final Signature GET_VALUE = new Signature("getValue", Constants.TYPE_OBJECT, Constants.TYPES_EMPTY);
+    private static final Signature ADD = new Signature("add", Type.BOOLEAN_TYPE, new Type[]{Constants.TYPE_OBJECT});
+    private static final Signature PUT = new Signature("put", Constants.TYPE_OBJECT, new Type[]{Constants.TYPE_OBJECT, Constants.TYPE_OBJECT});
+    private static final Signature COMPARATOR_METHOD = new Signature("comparator", COMPARATOR, Constants.TYPES_EMPTY);
+    private static final Signature CLONE = new Signature("clone", Constants.TYPE_OBJECT, Constants.TYPES_EMPTY);
+    private static final Signature ARRAYCOPY = new Signature("arraycopy", Type.VOID_TYPE,
+            new Type[]{Constants.TYPE_OBJECT, Type.INT_TYPE, Constants.TYPE_OBJECT, Type.INT_TYPE, Type.INT_TYPE});
+    private static final Signature GET_INSTANCE = new Signature("getInstance", BEAN_TRANSFORMER,
+            new Type[]{Constants.TYPE_CLASS, Constants.TYPE_CLASS});
+    private static final Signature GET_TARGET_INSTANCE_FROM = new Signature("getTargetInstanceFrom", Constants.TYPE_OBJECT,
+            new Type[]{Type.getType(PropertiesSourceObject.class)});
+
+    /**
+     * implementations whose int constructor is the initial capacity
+     */
+    private static final List<Class> SIZED_IMPLEMENTATIONS = Arrays.asList(ArrayList.class, Vector.class, ArrayDeque.class,
+            HashSet.class, LinkedHashSet.class, HashMap.class, LinkedHashMap.class, Hashtable.class, ConcurrentHashMap.class);
+    /**
+     * implementations which resize when size reaches 3/4 of the capacity, so the capacity is scaled by 4/3.
+     * {@link ConcurrentHashMap} is not one of them, its int constructor already leaves room for 1.5 times the size
+     */
+    private static final List<Class> HASH_IMPLEMENTATIONS = Arrays.asList(
+            HashSet.class, LinkedHashSet.class, HashMap.class, LinkedHashMap.class, Hashtable.class);
+
+    private final Map<NestedPair, String> nestedTransformerFields;
+
+    DeepCopyEmitter(Map<NestedPair, String> nestedTransformerFields) {
+        this.nestedTransformerFields = nestedTransformerFields;
+    }
+
+    enum CopyKind {
+        REFERENCE, CLONE, ARRAY, COLLECTION, MAP, BEAN
+    }
+
+    static ResolvableType sourceTypeOf(MappingInfoItem infoItem) {
+        return ResolvableType.forMethodReturnType(infoItem.getSourceGetter().getReadMethod());
+    }
+
+    static ResolvableType targetTypeOf(MappingInfoItem infoItem) {
+        return ResolvableType.forMethodParameter(infoItem.getTargetSetter().getWriteMethod(), 0);
+    }
+
+    /**
+     * decide how a value of sourceType is copied into a value of targetType
+     *
+     * @throws BeanMappingException when the value can not be copied
+     */
+    static CopyKind kindOf(ResolvableType sourceType, ResolvableType targetType) {
+        Class sourceClass = sourceType.resolve(Object.class),
+                targetClass = targetType.resolve(Object.class);
+        if (sourceClass.isArray() && targetClass.isArray()) {
+            return CopyKind.ARRAY;
+        }
+        if (Collection.class.isAssignableFrom(sourceClass) && Collection.class.isAssignableFrom(targetClass)) {
+            return CopyKind.COLLECTION;
+        }
+        if (Map.class.isAssignableFrom(sourceClass) && Map.class.isAssignableFrom(targetClass)) {
+            return CopyKind.MAP;
+        }
+        if (PropertiesSourceObject.class.isAssignableFrom(sourceClass)
+                && BeanMappingInfo.parser(targetClass).getMappingInfos().containsKey(sourceClass)) {
+            return CopyKind.BEAN;
+        }
+        if (!targetClass.isAssignableFrom(sourceClass)) {
+            throw new BeanMappingException("can not deep copy " + sourceType + " into " + targetType);
+        }
+        if (cloneableTypeOf(sourceClass) != null) {
+            return CopyKind.CLONE;
+        }
+        if (isImmutable(sourceClass)) {
+            return CopyKind.REFERENCE;
+        }
+        throw new BeanMappingException("can not deep copy " + sourceType + " into " + targetType
+                + ", it is neither immutable nor a PropertiesSourceObject mapped to the target");
+    }
+
+    private static Class cloneableTypeOf(Class sourceClass) {
+        for (Class cloneableType : CLONEABLE_TYPES) {
+            if (cloneableType.isAssignableFrom(sourceClass)) {
+                return cloneableType;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * only the values which can not be changed are shared between source and target
+     */
+    private static boolean isImmutable(Class sourceClass) {
+        return sourceClass.isPrimitive() || sourceClass.isEnum() || TypeAdapter.isWrapper(sourceClass)
+                || IMMUTABLE_TYPES.contains(sourceClass)
+                || sourceClass.getName().startsWith("java.time.") && Modifier.isFinal(sourceClass.getModifiers());
+    }
+
+    /**
+     * find all pairs which are copied by a nested transformer, the generator declares a field for each of them
+     */
+    static void collectNestedPairs(ResolvableType sourceType, ResolvableType targetType, Set<NestedPair> pairs) {
+        switch (kindOf(sourceType, targetType)) {
+            case ARRAY:
+                collectNestedPairs(sourceType.getComponentType(), targetType.getComponentType(), pairs);
+                break;
+            case COLLECTION:
+                collectNestedPairs(sourceType.asCollection().getGeneric(0), targetType.asCollection().getGeneric(0), pairs);
+                break;
+            case MAP:
+                collectNestedPairs(sourceType.asMap().getGeneric(0), targetType.asMap().getGeneric(0), pairs);
+                collectNestedPairs(sourceType.asMap().getGeneric(1), targetType.asMap().getGeneric(1), pairs);
+                break;
+            case BEAN:
+                pairs.add(new NestedPair(targetType.resolve(), sourceType.resolve()));
+                break;
+            default:
+        }
+    }
+
+    /**
+     * the value of sourceType is on the top of stack, replace it with its copy of targetType
+     *
+     * @return the class of the value left on the stack
+     */
+    Class emitCopy(CodeEmitter emitter, ResolvableType sourceType, ResolvableType targetType) {
+        CopyKind kind = kindOf(sourceType, targetType);
+        if (kind == CopyKind.REFERENCE) {
+            return sourceType.resolve(Object.class);
+        }
+        Class sourceClass = sourceType.resolve(Object.class);
+        Local sourceLocal = emitter.make_local(Type.getType(sourceClass));
+        Label copyLabel = emitter.make_label(),
+                endLabel = emitter.make_label();
+
+        emitter.store_local(sourceLocal);
+        emitter.load_local(sourceLocal);
+        emitter.ifnonnull(copyLabel);
+        emitter.aconst_null();
+        emitter.goTo(endLabel);
+
+        emitter.mark(copyLabel);
+        switch (kind) {
+            case ARRAY:
+                emitArrayCopy(emitter, sourceLocal, sourceType, targetType);
+                break;
+            case COLLECTION:
+                emitCollectionCopy(emitter, sourceLocal, sourceType, targetType);
+                break;
+            case MAP:
+                emitMapCopy(emitter, sourceLocal, sourceType, targetType);
+                break;
+            case BEAN:
+                emitBeanCopy(emitter, sourceLocal, sourceType, targetType);
+                break;
+            case CLONE:
+                emitter.load_local(sourceLocal);
+                emitter.invoke_virtual(Type.getType(cloneableTypeOf(sourceClass)), CLONE);
+                emitter.checkcast(Type.getType(targetType.resolve()));
+                break;
+            default:
+        }
+        emitter.mark(endLabel);
+        return targetType.resolve(Object.class);
+    }
+
+    /**
+     * an element is read as Object from an iterator or an entry, cast it before copying when its copy needs the type
+     */
+    private void emitElementCopy(CodeEmitter emitter, ResolvableType sourceType, ResolvableType targetType) {
+        if (kindOf(sourceType, targetType) != CopyKind.REFERENCE) {
+            emitter.checkcast(Type.getType(sourceType.resolve(Object.class)));
+            emitCopy(emitter, sourceType, targetType);
+        }
+    }
+
+    private void emitArrayCopy(CodeEmitter emitter, Local sourceLocal, ResolvableType sourceType, ResolvableType targetType) {
+        Class sourceClass = sourceType.resolve(), targetClass = targetType.resolve();
+        ResolvableType sourceComponent = sourceType.getComponentType(),
+                targetComponent = targetType.getComponentType();
+        Type targetArrayType = Type.getType(targetClass),
+                targetComponentType = Type.getType(targetClass.getComponentType());
+
+        if (kindOf(sourceComponent, targetComponent) == CopyKind.REFERENCE) {
+            if (sourceClass.equals(targetClass)) {
+                emitter.load_local(sourceLocal);
+                emitter.invoke_virtual(Type.getType(sourceClass), CLONE);
+                emitter.checkcast(targetArrayType);
+            } else {
+                Local targetLocal = emitter.make_local(targetArrayType);
+                emitter.load_local(sourceLocal);
+                emitter.arraylength();
+                emitter.newarray(targetComponentType);
+                emitter.store_local(targetLocal);
+
+                emitter.load_local(sourceLocal);
+                emitter.push(0);
+                emitter.load_local(targetLocal);
+                emitter.push(0);
+                emitter.load_local(sourceLocal);
+                emitter.arraylength();
+                emitter.invoke_static(SYSTEM, ARRAYCOPY);
+                emitter.load_local(targetLocal);
+            }
+            return;
+        }
+
+        Local targetLocal = emitter.make_local(targetArrayType),
+                indexLocal = emitter.make_local(Type.INT_TYPE);
+        Label loopBody = emitter.make_label(),
+                loopCondition = emitter.make_label();
+        emitter.load_local(sourceLocal);
+        emitter.arraylength();
+        emitter.newarray(targetComponentType);
+        emitter.store_local(targetLocal);
+        emitter.push(0);
+        emitter.store_local(indexLocal);
+        emitter.goTo(loopCondition);
+
+        emitter.mark(loopBody);
+        emitter.load_local(targetLocal);
+        emitter.load_local(indexLocal);
+        emitter.load_local(sourceLocal);
+        emitter.load_local(indexLocal);
+        emitter.array_load(Type.getType(sourceClass.getComponentType()));
+        emitCopy(emitter, sourceComponent, targetComponent);
+        emitter.array_store(targetComponentType);
+        emitter.iinc(indexLocal, 1);
+
+        emitter.mark(loopCondition);
+        emitter.load_local(indexLocal);
+        emitter.load_local(sourceLocal);
+        emitter.arraylength();
+        emitter.if_icmp(CodeEmitter.LT, loopBody);
+
+        emitter.load_local(targetLocal);
+    }
+
+    private void emitCollectionCopy(CodeEmitter emitter, Local sourceLocal, ResolvableType sourceType, ResolvableType targetType) {
+        Class sourceClass = sourceType.resolve(), targetClass = targetType.resolve();
+        Class implementation = chooseImplementation(sourceClass, targetClass);
+        Type implementationType = Type.getType(implementation);
+        ResolvableType sourceElement = sourceType.asCollection().getGeneric(0),
+                targetElement = targetType.asCollection().getGeneric(0);
+        Local targetLocal = emitter.make_local(implementationType),
+                iteratorLocal = emitter.make_local(ITERATOR);
+
+        emitNewContainer(emitter, sourceLocal, sourceClass, implementation, SortedSet.class,
+                kindOf(sourceElement, targetElement) == CopyKind.REFERENCE);
+        emitter.store_local(targetLocal);
+
+        emitter.load_local(sourceLocal);
+        invoke(emitter, sourceClass, COLLECTION, ITERATOR_METHOD);
+        emitter.store_local(iteratorLocal);
+        Label loopCondition = emitter.make_label(),
+                loopEnd = emitter.make_label();
+        emitter.mark(loopCondition);
+        emitter.load_local(iteratorLocal);
+        emitter.invoke_interface(ITERATOR, HAS_NEXT);
+        emitter.if_jump(CodeEmitter.EQ, loopEnd);
+
+        emitter.load_local(targetLocal);
+        emitter.load_local(iteratorLocal);
+        emitter.invoke_interface(ITERATOR, NEXT);
+        emitElementCopy(emitter, sourceElement, targetElement);
+        emitter.invoke_virtual(implementationType, ADD);
+        emitter.pop();
+        emitter.goTo(loopCondition);
+
+        emitter.mark(loopEnd);
+        emitter.load_local(targetLocal);
+    }
+
+    private void emitMapCopy(CodeEmitter emitter, Local sourceLocal, ResolvableType sourceType, ResolvableType targetType) {
+        Class sourceClass = sourceType.resolve(), targetClass = targetType.resolve();
+        Class implementation = chooseImplementation(sourceClass, targetClass);
+        Type implementationType = Type.getType(implementation);
+        ResolvableType sourceMap = sourceType.asMap(), targetMap = targetType.asMap();
+        Local targetLocal = emitter.make_local(implementationType),
+                iteratorLocal = emitter.make_local(ITERATOR),
+                entryLocal = emitter.make_local(MAP_ENTRY);
+
+        emitNewContainer(emitter, sourceLocal, sourceClass, implementation, SortedMap.class,
+                kindOf(sourceMap.getGeneric(0), targetMap.getGeneric(0)) == CopyKind.REFERENCE);
+        emitter.store_local(targetLocal);
+
+        emitter.load_local(sourceLocal);
+        invoke(emitter, sourceClass, MAP, ENTRY_SET);
+        emitter.invoke_interface(Type.getType(Set.class), ITERATOR_METHOD);
+        emitter.store_local(iteratorLocal);
+        Label loopCondition = emitter.make_label(),
+                loopEnd = emitter.make_label();
+        emitter.mark(loopCondition);
+        emitter.load_local(iteratorLocal);
+        emitter.invoke_interface(ITERATOR, HAS_NEXT);
+        emitter.if_jump(CodeEmitter.EQ, loopEnd);
+
+        emitter.load_local(iteratorLocal);
+        emitter.invoke_interface(ITERATOR, NEXT);
+        emitter.checkcast(MAP_ENTRY);
+        emitter.store_local(entryLocal);
+
+        emitter.load_local(targetLocal);
+        emitter.load_local(entryLocal);
+        emitter.invoke_interface(MAP_ENTRY, GET_KEY);
+        emitElementCopy(emitter, sourceMap.getGeneric(0), targetMap.getGeneric(0));
+        emitter.load_local(entryLocal);
+        emitter.invoke_interface(MAP_ENTRY, GET_VALUE);
+        emitElementCopy(emitter, sourceMap.getGeneric(1), targetMap.getGeneric(1));
+        emitter.invoke_virtual(implementationType, PUT);
+        emitter.pop();
+        emitter.goTo(loopCondition);
+
+        emitter.mark(loopEnd);
+        emitter.load_local(targetLocal);
+    }
+
+    /**
+     * push a new empty container, presized to the source when the implementation supports it.
+     * sorted containers keep the comparator of a sorted source when the sorted elements are shared,
+     * a copied element is another type which the comparator of source may not accept, so it is sorted by natural ordering.
+     */
+    private void emitNewContainer(CodeEmitter emitter, Local sourceLocal, Class sourceClass, Class implementation, Class sortedType,
+                                  boolean sharedElements) {
+        Type implementationType = Type.getType(implementation);
+        emitter.new_instance(implementationType);
+        emitter.dup();
+        if (SIZED_IMPLEMENTATIONS.contains(implementation)) {
+            emitter.load_local(sourceLocal);
+            invoke(emitter, sourceClass, Collection.class.isAssignableFrom(sourceClass) ? COLLECTION : MAP, SIZE);
+            if (HASH_IMPLEMENTATIONS.contains(implementation)) {
+                emitter.push(4);
+                emitter.math(CodeEmitter.MUL, Type.INT_TYPE);
+                emitter.push(3);
+                emitter.math(CodeEmitter.DIV, Type.INT_TYPE);
+                emitter.push(1);
+                emitter.math(CodeEmitter.ADD, Type.INT_TYPE);
+            }
+            emitter.invoke_constructor(implementationType, new Signature(Constants.CONSTRUCTOR_NAME, Type.VOID_TYPE, new Type[]{Type.INT_TYPE}));
+        } else if (sharedElements && sortedType.isAssignableFrom(sourceClass) && sortedType.isAssignableFrom(implementation)) {
+            emitter.load_local(sourceLocal);
+            invoke(emitter, sourceClass, Type.getType(sortedType), COMPARATOR_METHOD);
+            emitter.invoke_constructor(implementationType, new Signature(Constants.CONSTRUCTOR_NAME, Type.VOID_TYPE, new Type[]{COMPARATOR}));
+        } else {
+            emitter.invoke_constructor(implementationType);
+        }
+    }
+
+    private void emitBeanCopy(CodeEmitter emitter, Local sourceLocal, ResolvableType sourceType, ResolvableType targetType) {
+        Class targetClass = targetType.resolve();
+        String fieldName = nestedTransformerFields.get(new NestedPair(targetClass, sourceType.resolve()));
+        Label initialized = emitter.make_label();
+
+        emitter.load_this();
+        emitter.getfield(fieldName);
+        emitter.dup();
+        emitter.ifnonnull(initialized);
+        emitter.pop();
+        emitter.load_this();
+        emitter.visitLdcInsn(Type.getType(targetClass));
+        emitter.visitLdcInsn(Type.getType(sourceType.resolve()));
+        emitter.invoke_static(BEAN_TRANSFORM_UTIL, GET_INSTANCE);
+        emitter.dup_x1();
+        emitter.putfield(fieldName);
+        emitter.mark(initialized);
+
+        emitter.load_local(sourceLocal);
+        emitter.invoke_virtual(BEAN_TRANSFORMER, GET_TARGET_INSTANCE_FROM);
+        emitter.checkcast(Type.getType(targetClass));
+    }
+
+    private static void invoke(CodeEmitter emitter, Class owner, Type fallbackInterface, Signature signature) {
+        if (owner.isInterface()) {
+            emitter.invoke_interface(Type.getType(owner), signature);
+        } else if (Modifier.isPublic(owner.getModifiers())) {
+            emitter.invoke_virtual(Type.getType(owner), signature);
+        } else {
+            emitter.invoke_interface(fallbackInterface, signature);
+        }
+    }
+
+    /**
+     * choose the class to instantiate for the copy, the declared target type is used when it is concrete
+     */
+    static Class chooseImplementation(Class sourceClass, Class targetClass) {
+        int modifiers = targetClass.getModifiers();
+        if (!targetClass.isInterface() && !Modifier.isAbstract(modifiers)
+                && Modifier.isPublic(modifiers)) {
+            return targetClass;
+        }
+        Class implementation;
+        if (Map.class.isAssignableFrom(targetClass)) {
+            if (ConcurrentMap.class.isAssignableFrom(targetClass)) {
+                implementation = ConcurrentHashMap.class;
+            } else if (SortedMap.class.isAssignableFrom(targetClass)) {
+                implementation = TreeMap.class;
+            } else {
+                implementation = LinkedHashMap.class;
+            }
+        } else if (SortedSet.class.isAssignableFrom(targetClass)) {
+            implementation = TreeSet.class;
+        } else if (Set.class.isAssignableFrom(targetClass)) {
+            implementation = LinkedHashSet.class;
+        } else if (Queue.class.isAssignableFrom(targetClass)) {
+            implementation = ArrayDeque.class;
+        } else {
+            implementation = ArrayList.class;
+        }
+        if (!targetClass.isAssignableFrom(implementation)) {
+            throw new BeanMappingException("can not find an implementation of " + targetClass + " to deep copy " + sourceClass);
+        }
+        return implementation;
+    }
+
+    /**
+     * a (target class, source class) pair which is copied by a nested transformer
+     */
+    static class NestedPair {
+        private final Class targetClass;
+        private final Class sourceClass;
+
+        NestedPair(Class targetClass, Class sourceClass) {
+            this.targetClass = targetClass;
+            this.sourceClass = sourceClass;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            NestedPair that = (NestedPair) o;
+            return Objects.equals(targetClass, that.targetClass) &&
+                    Objects.equals(sourceClass, that.sourceClass);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(targetClass, sourceClass);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.PropertiesSourceObject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is used to create target instances from {@link Map} rows, such as the rows of a generic DAO,
+ * without turning every row into a bean first.
+ * <p>
+ * the rows are described by a {@link PropertiesSourceObject} class mapped to target class:
+ * each mapped property is read from the row by the name of its source property, a dotted path is a single key,
+ * and the value is cast to the type of source property, numbers are converted between their types.
+ * then it is written like {@link BeanTransformer} writes it, with the same converters.
+ * a missing key is read as null.
+ */
+public abstract class MapSourceTransformer<T> {
+
+    public MapSourceTransformer() {
+    }
+
+    /**
+     * create a target instance filled from the given row
+     *
+     * @param row values keyed by the source properties of row class
+     * @return a new target instance
+     */
+    public abstract T getTargetInstanceFrom(Map<String, ?> row);
+
+    /**
+     * copy the values of the given row into the given target
+     *
+     * @param target instance to be filled
+     * @param row    values keyed by the source properties of row class
+     * @return the given target instance
+     */
+    public abstract T mergeProperties(T target, Map<String, ?> row);
+
+    public abstract Class<T> getTargetClass();
+
+    /**
+     * create target instances from all given rows, the order of result is the iteration order of rows
+     *
+     * @param rows values keyed by the source properties of row class
+     * @return a presized {@link ArrayList} of new target instances
+     */
+    public List<T> getTargetInstancesFrom(Collection<? extends Map<String, ?>> rows) {
+        List<T> targets = new ArrayList<>(rows.size());
+        for (Map<String, ?> row : rows) {
+            targets.add(getTargetInstanceFrom(row));
+        }
+        return targets;
+    }
+
+    /**
+     * @param targetClass class of target instance
+     * @param rowClass    class mapped to target class which describes the keys and the types of the rows
+     * @param <T>         raw type of target class
+     * @return the transformer of target class from the rows of row class
+     * @throws com.lzh.beanmapping.common.exception.BeanMappingException when target class is not mapped from row class
+     */
+    public static <T> MapSourceTransformer<T> newInstance(Class<T> targetClass, Class<? extends PropertiesSourceObject> rowClass) {
+        return (MapSourceTransformer<T>) new RowTransformerGenerater(
+                RowTransformerGenerater.RowKind.MAP, targetClass, rowClass, null).create();
+    }
+}
@@ -1,19 +1,30 @@
 package com.lzh.beanmapping.common.util.beanmapping;
 
 import com.lzh.beanmapping.common.exception.BeanMappingException;
+import org.springframework.core.ResolvableType;
 
 import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
-import java.util.function.Function;
 
-public class MappingInfoItem {
-    private static final String CONVERTER_METHOD_NAME = "apply";
+import static java.util.stream.Collectors.toList;
 
+public class MappingInfoItem {
     private PropertyDescriptor sourceGetter;
+    private PropertyDescriptor[] sourcePath = new PropertyDescriptor[0];
     private PropertyDescriptor targetSetter;
+    private Field sourceField;
+    private Field targetField;
     private boolean needDeepCopy;
-    private Function converter;
+    private Object converter;
+    private ConverterContract converterContract;
+    private Method converterMethod;
+    private Class converterReturnType;
 
     public MappingInfoItem() {
     }
@@ -21,6 +32,14 @@ public class MappingInfoItem {
     public void verify() {
         verifyPropertyNameIsEqual();
         verifyCoverterCanBeUsed();
+        verifyTypeCanBeAdapted();
+        verifyDeepCopyCanBeUsed();
+    }
+
+    private void verifyDeepCopyCanBeUsed() {
+        if (needDeepCopy && converter != null) {
+            throw new BeanMappingException("deep copy can not be used together with converter");
+        }
     }
 
     private void verifyPropertyNameIsEqual() {
@@ -35,19 +54,50 @@ public class MappingInfoItem {
     private void verifyCoverterCanBeUsed() {
         if (converter != null) {
             Class sourcePropertyType = sourceGetter.getPropertyType();
-            Class coverterClass = converter.getClass();
-            try {
-                Method convertMethod = coverterClass.getMethod(CONVERTER_METHOD_NAME, new Class[]{sourcePropertyType});
-                if (convertMethod == null) {
-                    throw new BeanMappingException("covert method does not match source type");
-                }
-                Class convertMethodReturnType = convertMethod.getReturnType(), targetPropertyType = targetSetter.getPropertyType();
-                if (!targetPropertyType.equals(convertMethodReturnType)) {
-                    throw new BeanMappingException("return type of covert method does not match target property type");
-                }
-            } catch (NoSuchMethodException e) {
-                throw new BeanMappingException("covert method does not match source type", e);
+            Class targetPropertyType = targetSetter.getPropertyType();
+            if (!Modifier.isPublic(converter.getClass().getModifiers())) {
+                throw new BeanMappingException("converter class must be public to be called by the generated transformer");
+            }
+            converterContract = ConverterContract.of(converter.getClass());
+            List<Method> candidates = Arrays.stream(converter.getClass().getMethods())
+                    .filter(method -> method.getName().equals(converterContract.getMethodName())
+                            && method.getParameterCount() == 1
+                            && matchesErasure(method.getParameterTypes()[0], converterContract.getErasedParameterType())
+                            && matchesErasure(method.getReturnType(), converterContract.getErasedReturnType()))
+                    .filter(method -> TypeAdapter.canAdapt(sourcePropertyType, method.getParameterTypes()[0]))
+                    .sorted(Comparator.comparing(Method::isBridge))
+                    .collect(toList());
+            if (candidates.isEmpty()) {
+                throw new BeanMappingException("covert method does not match source type");
             }
+            converterMethod = candidates.stream()
+                    .filter(method -> TypeAdapter.canAdapt(resolveReturnType(method), targetPropertyType))
+                    .findFirst()
+                    .orElseThrow(() -> new BeanMappingException("return type of covert method does not match target property type"));
+            converterReturnType = resolveReturnType(converterMethod);
+        }
+    }
+
+    /**
+     * a converter extending a generic base class such as {@link com.lzh.beanmapping.common.converter.AbstractStringToEnumConverter}
+     * declares its method with an erased return type, the actual one is resolved from the type arguments of converter class
+     */
+    private Class resolveReturnType(Method method) {
+        return ResolvableType.forMethodReturnType(method, converter.getClass()).resolve(method.getReturnType());
+    }
+
+    private static boolean matchesErasure(Class actualType, Class erasedType) {
+        return erasedType.isPrimitive() ? actualType.equals(erasedType) : !actualType.isPrimitive();
+    }
+
+    /**
+     * without converter the value of source property is adapted to target property by boxing, unboxing and widening
+     */
+    private void verifyTypeCanBeAdapted() {
+        if (converter == null && !needDeepCopy
+                && !TypeAdapter.canAdapt(sourceGetter.getPropertyType(), targetSetter.getPropertyType())) {
+            throw new BeanMappingException("type of source property " + sourceGetter.getName()
+                    + " can not be assigned to target property " + targetSetter.getName());
         }
     }
 
@@ -58,20 +108,26 @@ public class MappingInfoItem {
         MappingInfoItem that = (MappingInfoItem) o;
         return needDeepCopy == that.needDeepCopy &&
                 Objects.equals(sourceGetter, that.sourceGetter) &&
+                Arrays.equals(sourcePath, that.sourcePath) &&
                 Objects.equals(targetSetter, that.targetSetter) &&
+                Objects.equals(sourceField, that.sourceField) &&
+                Objects.equals(targetField, that.targetField) &&
                 Objects.equals(converter, that.converter);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(sourceGetter, targetSetter, needDeepCopy, converter);
+        return Objects.hash(sourceGetter, Arrays.hashCode(sourcePath), targetSetter, sourceField, targetField, needDeepCopy, converter);
     }
 
     @Override
     public String toString() {
         return "MappingInfoItem{" +
                 "sourceGetter=" + sourceGetter +
+                ", sourcePath=" + Arrays.toString(sourcePath) +
                 ", targetSetter=" + targetSetter +
+                ", sourceField=" + sourceField +
+                ", targetField=" + targetField +
                 ", needDeepCopy=" + needDeepCopy +
                 ", converter=" + converter +
                 '}';
@@ -85,6 +141,19 @@ public class MappingInfoItem {
         this.sourceGetter = sourceGetter;
     }
 
+    /**
+     * @return getters of the steps before source property when it is a dotted path, the first one is called on the source,
+     * each next one on the value of the previous one and {@link #getSourceGetter()} on the value of the last one.
+     * empty when source property is a property of source class
+     */
+    public PropertyDescriptor[] getSourcePath() {
+        return sourcePath;
+    }
+
+    public void setSourcePath(PropertyDescriptor[] sourcePath) {
+        this.sourcePath = sourcePath;
+    }
+
     public PropertyDescriptor getTargetSetter() {
         return targetSetter;
     }
@@ -93,6 +162,28 @@ public class MappingInfoItem {
         this.targetSetter = targetSetter;
     }
 
+    /**
+     * @return field read instead of the getter of source property when it is accessible, null when field access is not used
+     */
+    public Field getSourceField() {
+        return sourceField;
+    }
+
+    public void setSourceField(Field sourceField) {
+        this.sourceField = sourceField;
+    }
+
+    /**
+     * @return field written instead of the setter of target property when it is accessible, null when field access is not used
+     */
+    public Field getTargetField() {
+        return targetField;
+    }
+
+    public void setTargetField(Field targetField) {
+        this.targetField = targetField;
+    }
+
     public boolean isNeedDeepCopy() {
         return needDeepCopy;
     }
@@ -101,11 +192,32 @@ public class MappingInfoItem {
         this.needDeepCopy = needDeepCopy;
     }
 
-    public Function getConverter() {
+    public Object getConverter() {
         return converter;
     }
 
-    public void setConverter(Function converter) {
+    public void setConverter(Object converter) {
         this.converter = converter;
     }
+
+    /**
+     * @return the functional interface implemented by converter, it is resolved by {@link #verify()}
+     */
+    public ConverterContract getConverterContract() {
+        return converterContract;
+    }
+
+    /**
+     * @return the most specific method of converter which accepts the source property, it is resolved by {@link #verify()}
+     */
+    public Method getConverterMethod() {
+        return converterMethod;
+    }
+
+    /**
+     * @return return type of converter method after resolving the type variables, it is resolved by {@link #verify()}
+     */
+    public Class getConverterReturnType() {
+        return converterReturnType;
+    }
 }
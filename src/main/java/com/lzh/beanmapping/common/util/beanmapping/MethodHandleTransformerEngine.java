@@ -0,0 +1,345 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.PropertiesSourceObject;
+import com.lzh.beanmapping.common.exception.BeanMappingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * This class is used to build transformers without defining a class for each pair.
+ * every mapping item is composed into one method handle of type (Object target, Object source)void:
+ * getter or field, then converter, then setter or field, with the adaptations and null guards of {@link TypeAdapter}.
+ * the handles of {@link BeanTransformer#mergeChangedProperties(Object, PropertiesSourceObject)} and
+ * {@link BeanTransformer#diff(Object, PropertiesSourceObject)} share the same chain, but end with a comparison
+ * against the current value of target property instead of the bare setter, so no class is generated for them either.
+ * <p>
+ * the lambda forms behind the handles are shared by all handles of the same shape, so the classes spun by the JVM
+ * grow with the distinct property types rather than with the pairs. LambdaMetafactory is not used,
+ * it would spin a class for every composed function, which is what this engine is meant to avoid.
+ * <p>
+ * the calls go through the non-constant handles, so a transformer of this engine is slower than a generated one,
+ * and the change tracking compares boxed values by {@link Objects#equals(Object, Object)}, so primitives are boxed there.
+ * deep copy is emitted as bytecode only, pairs which need it are delegated to {@link TransformerEngines#CGLIB}.
+ */
+final class MethodHandleTransformerEngine implements TransformerEngine {
+    private static Logger logger = LoggerFactory.getLogger(MethodHandleTransformerEngine.class);
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodHandle SKIP;
+    private static final MethodHandle OBJECTS_EQUALS;
+    private static final MethodHandle UNCHANGED = MethodHandles.constant(boolean.class, false);
+    private static final MethodHandle CHANGED = MethodHandles.constant(boolean.class, true);
+
+    static {
+        try {
+            SKIP = LOOKUP.findStatic(MethodHandleTransformerEngine.class, "skip", MethodType.methodType(void.class));
+            OBJECTS_EQUALS = LOOKUP.findStatic(Objects.class, "equals",
+                    MethodType.methodType(boolean.class, Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "methodhandle";
+    }
+
+    @Override
+    public <T, S extends PropertiesSourceObject> BeanTransformer<T, S> create(Class<T> targetClass, Class<S> sourceClass) {
+        Set<MappingInfoItem> infoItems = BeanMappingInfo.parser(targetClass).getMappingInfos().get(sourceClass);
+        if (infoItems == null) {
+            infoItems = Collections.emptySet();
+        }
+        if (infoItems.stream().anyMatch(MappingInfoItem::isNeedDeepCopy)) {
+            logger.info("deep copy from {} to {} is generated by cglib", sourceClass, targetClass);
+            return TransformerEngines.CGLIB.create(targetClass, sourceClass);
+        }
+        try {
+            MethodHandle[] writers = new MethodHandle[infoItems.size()];
+            int index = 0;
+            for (MappingInfoItem infoItem : infoItems) {
+                writers[index++] = chainOf(infoItem, setterOf(infoItem));
+            }
+            List<MappingInfoItem> orderedItems = PropertyStatementEmitter.changeMaskOrder(infoItems);
+            MethodHandle[] changeWriters = null, comparators = null;
+            if (orderedItems.size() <= BeanTransformer.MAX_CHANGE_TRACKED_PROPERTIES) {
+                changeWriters = new MethodHandle[orderedItems.size()];
+                comparators = new MethodHandle[orderedItems.size()];
+                for (int bit = 0; bit < orderedItems.size(); bit++) {
+                    MappingInfoItem infoItem = orderedItems.get(bit);
+                    changeWriters[bit] = chainOf(infoItem, changeWriterOf(infoItem));
+                    comparators[bit] = chainOf(infoItem, comparatorOf(infoItem));
+                }
+            }
+            return new MethodHandleTransformer<>(targetClass, sourceClass, constructorOf(targetClass),
+                    writers, changeWriters, comparators);
+        } catch (IllegalAccessException | NoSuchMethodException | NoSuchFieldException e) {
+            throw new BeanMappingException("fail to build method handles from " + sourceClass + " to " + targetClass, e);
+        }
+    }
+
+    /**
+     * @return handle of type ()Object which creates a target instance
+     */
+    private static MethodHandle constructorOf(Class targetClass) throws NoSuchMethodException, IllegalAccessException {
+        Constructor constructor = targetClass.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        return LOOKUP.unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+    }
+
+    /**
+     * @return handle of type (Object target, target property type value)void
+     */
+    private static MethodHandle setterOf(MappingInfoItem infoItem)
+            throws IllegalAccessException, NoSuchMethodException, NoSuchFieldException {
+        MethodHandle setter = isUsable(infoItem.getTargetField())
+                ? LOOKUP.unreflectSetter(accessibleCopyOf(infoItem.getTargetField()))
+                : LOOKUP.unreflect(accessibleCopyOf(infoItem.getTargetSetter().getWriteMethod()));
+        return setter.asType(MethodType.methodType(void.class, Object.class, infoItem.getTargetSetter().getPropertyType()));
+    }
+
+    /**
+     * @return handle of type (Object target)Object which reads the current value of target property,
+     * or null when target property can not be read
+     */
+    private static MethodHandle currentValueOf(MappingInfoItem infoItem)
+            throws IllegalAccessException, NoSuchMethodException, NoSuchFieldException {
+        MethodHandle getter;
+        if (isUsable(infoItem.getTargetField())) {
+            getter = LOOKUP.unreflectGetter(accessibleCopyOf(infoItem.getTargetField()));
+        } else if (infoItem.getTargetSetter().getReadMethod() != null) {
+            getter = LOOKUP.unreflect(accessibleCopyOf(infoItem.getTargetSetter().getReadMethod()));
+        } else {
+            return null;
+        }
+        return getter.asType(MethodType.methodType(Object.class, Object.class));
+    }
+
+    /**
+     * @return handle of type (Object target, target property type value)boolean which is true when the value
+     * differs from the current value of target property, a property which can not be read always differs
+     */
+    private static MethodHandle comparatorOf(MappingInfoItem infoItem)
+            throws IllegalAccessException, NoSuchMethodException, NoSuchFieldException {
+        Class targetPropertyType = infoItem.getTargetSetter().getPropertyType();
+        MethodHandle currentValue = currentValueOf(infoItem);
+        MethodHandle comparator = currentValue == null
+                ? MethodHandles.dropArguments(CHANGED, 0, Object.class, Object.class)
+                : MethodHandles.guardWithTest(MethodHandles.filterArguments(OBJECTS_EQUALS, 0, currentValue),
+                MethodHandles.dropArguments(UNCHANGED, 0, Object.class, Object.class),
+                MethodHandles.dropArguments(CHANGED, 0, Object.class, Object.class));
+        return comparator.asType(MethodType.methodType(boolean.class, Object.class, targetPropertyType));
+    }
+
+    /**
+     * @return handle of type (Object target, target property type value)boolean which only writes the value
+     * when {@link #comparatorOf(MappingInfoItem)} reports it as changed, and returns whether it was written
+     */
+    private static MethodHandle changeWriterOf(MappingInfoItem infoItem)
+            throws IllegalAccessException, NoSuchMethodException, NoSuchFieldException {
+        MethodHandle setter = setterOf(infoItem),
+                writeChanged = MethodHandles.filterReturnValue(setter, CHANGED),
+                unchanged = MethodHandles.dropArguments(UNCHANGED, 0, setter.type().parameterList());
+        return MethodHandles.guardWithTest(comparatorOf(infoItem), writeChanged, unchanged);
+    }
+
+    /**
+     * the handle is built from the terminal back to the getter, each step filters the value argument of the previous one.
+     * the steps skipped by a null return what the terminal returns for an unchanged property, nothing or false
+     *
+     * @param terminal handle of type (Object target, target property type value)void or boolean
+     * @return handle of type (Object target, Object source) with the return type of terminal, which transfers one property
+     */
+    private static MethodHandle chainOf(MappingInfoItem infoItem, MethodHandle terminal)
+            throws IllegalAccessException, NoSuchMethodException, NoSuchFieldException {
+        Class valueType = infoItem.getSourceGetter().getPropertyType(),
+                targetPropertyType = infoItem.getTargetSetter().getPropertyType();
+        MethodHandle writer = terminal;
+
+        if (infoItem.getConverter() != null) {
+            Method converterMethod = infoItem.getConverterMethod();
+            Class parameterType = converterMethod.getParameterTypes()[0];
+            MethodHandle converter = LOOKUP.unreflect(accessibleCopyOf(converterMethod))
+                    .bindTo(infoItem.getConverter())
+                    .asType(MethodType.methodType(infoItem.getConverterReturnType(), parameterType));
+            writer = adaptValue(writer, infoItem.getConverterReturnType(), targetPropertyType);
+            writer = MethodHandles.filterArguments(writer, 1, converter);
+            writer = adaptValue(writer, valueType, parameterType);
+        } else {
+            writer = adaptValue(writer, valueType, targetPropertyType);
+        }
+
+        MethodHandle getter = isUsable(infoItem.getSourceField())
+                ? LOOKUP.unreflectGetter(accessibleCopyOf(infoItem.getSourceField()))
+                : LOOKUP.unreflect(accessibleCopyOf(infoItem.getSourceGetter().getReadMethod()));
+        PropertyDescriptor[] sourcePath = infoItem.getSourcePath();
+        Class ownerType = sourcePath.length == 0 ? Object.class : sourcePath[sourcePath.length - 1].getPropertyType();
+        writer = MethodHandles.filterArguments(writer, 1, getter.asType(MethodType.methodType(valueType, ownerType)));
+        for (int i = sourcePath.length - 1; i >= 0; i--) {
+            writer = skipNull(writer, ownerType);
+            ownerType = i == 0 ? Object.class : sourcePath[i - 1].getPropertyType();
+            MethodHandle step = LOOKUP.unreflect(accessibleCopyOf(sourcePath[i].getReadMethod()));
+            writer = MethodHandles.filterArguments(writer, 1,
+                    step.asType(MethodType.methodType(sourcePath[i].getPropertyType(), ownerType)));
+        }
+        return writer;
+    }
+
+    /**
+     * @param writer handle of type (Object target, to value)void
+     * @return handle of type (Object target, from value)void, which skips the write when a null has to become a primitive
+     */
+    private static MethodHandle adaptValue(MethodHandle writer, Class from, Class to) {
+        MethodHandle adapted = MethodHandles.filterArguments(writer, 1, TypeAdapter.adaptHandle(from, to));
+        if (!TypeAdapter.needNullGuard(from, to)) {
+            return adapted;
+        }
+        return skipNull(adapted, from);
+    }
+
+    /**
+     * @param writer handle of type (Object target, type value)void or boolean
+     * @return handle of the same type which skips the write when the value is null
+     */
+    private static MethodHandle skipNull(MethodHandle writer, Class type) {
+        MethodHandle isNull = MethodHandles.dropArguments(
+                TypeAdapter.IS_NULL.asType(MethodType.methodType(boolean.class, type)), 0, Object.class);
+        MethodHandle skip = writer.type().returnType() == void.class ? SKIP : UNCHANGED;
+        return MethodHandles.guardWithTest(isNull, MethodHandles.dropArguments(skip, 0, Object.class, type), writer);
+    }
+
+    /**
+     * the same rule as the generated transformers, private fields are not accessed even though a handle could
+     */
+    private static boolean isUsable(Field field) {
+        return field != null && !Modifier.isPrivate(field.getModifiers());
+    }
+
+    /**
+     * the shared reflective objects of {@link com.lzh.beanmapping.common.util.BeanMetadata} are not made accessible,
+     * a copy is looked up instead
+     */
+    private static Method accessibleCopyOf(Method method) throws NoSuchMethodException {
+        Method copy = method.getDeclaringClass().getDeclaredMethod(method.getName(), method.getParameterTypes());
+        copy.setAccessible(true);
+        return copy;
+    }
+
+    private static Field accessibleCopyOf(Field field) throws NoSuchFieldException {
+        Field copy = field.getDeclaringClass().getDeclaredField(field.getName());
+        copy.setAccessible(true);
+        return copy;
+    }
+
+    private static void skip() {
+    }
+
+    /**
+     * transformer which calls the composed handles of its pair,
+     * the handles of change tracking are in the order of the change mask, and null when the pair has too many properties
+     */
+    static final class MethodHandleTransformer<T, S extends PropertiesSourceObject> extends BeanTransformer<T, S> {
+        private final Class<T> targetClass;
+        private final Class<S> sourceClass;
+        private final MethodHandle constructor;
+        private final MethodHandle[] writers;
+        private final MethodHandle[] changeWriters;
+        private final MethodHandle[] comparators;
+
+        MethodHandleTransformer(Class<T> targetClass, Class<S> sourceClass, MethodHandle constructor, MethodHandle[] writers,
+                                MethodHandle[] changeWriters, MethodHandle[] comparators) {
+            this.targetClass = targetClass;
+            this.sourceClass = sourceClass;
+            this.constructor = constructor;
+            this.writers = writers;
+            this.changeWriters = changeWriters;
+            this.comparators = comparators;
+        }
+
+        @Override
+        public T getTargetInstanceFrom(S source) {
+            Object target;
+            try {
+                target = constructor.invokeExact();
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+            return mergeProperties((T) target, source);
+        }
+
+        @Override
+        public T mergeProperties(T target, S source) {
+            Object targetObject = target, sourceObject = source;
+            try {
+                for (MethodHandle writer : writers) {
+                    writer.invokeExact(targetObject, sourceObject);
+                }
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+            return target;
+        }
+
+        @Override
+        public long mergeChangedProperties(T target, S source) {
+            return changeMask(changeWriters, target, source);
+        }
+
+        @Override
+        public long diff(T target, S source) {
+            return changeMask(comparators, target, source);
+        }
+
+        private long changeMask(MethodHandle[] handles, Object target, Object source) {
+            if (handles == null) {
+                throw new BeanMappingException("can not track the changes of " + writers.length + " properties from "
+                        + sourceClass + " to " + targetClass + ", the limit is " + MAX_CHANGE_TRACKED_PROPERTIES);
+            }
+            long mask = 0L;
+            try {
+                for (int bit = 0; bit < handles.length; bit++) {
+                    if ((boolean) handles[bit].invokeExact(target, source)) {
+                        mask |= 1L << bit;
+                    }
+                }
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+            return mask;
+        }
+
+        private static RuntimeException rethrow(Throwable e) {
+            if (e instanceof RuntimeException) {
+                return (RuntimeException) e;
+            }
+            if (e instanceof Error) {
+                throw (Error) e;
+            }
+            return new BeanMappingException("fail to transform bean", e);
+        }
+
+        @Override
+        public Class<T> getTargetClass() {
+            return targetClass;
+        }
+
+        @Override
+        public Class<S> getSourceClass() {
+            return sourceClass;
+        }
+    }
+}
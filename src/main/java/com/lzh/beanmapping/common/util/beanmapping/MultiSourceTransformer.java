@@ -0,0 +1,233 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.PropertiesSourceObject;
+import com.lzh.beanmapping.common.exception.BeanMappingException;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.Label;
+import org.springframework.asm.Type;
+import org.springframework.cglib.core.*;
+
+import java.util.*;
+
+/**
+ * This class is used to fill a target from several sources in one generated method,
+ * so a target assembled from several source classes needs neither one transformer nor one call for each of them.
+ * <p>
+ * the sources are given in the order of the source classes the transformer is created with.
+ * a null source is skipped, the properties mapped from it keep their values.
+ */
+public abstract class MultiSourceTransformer<T> {
+    private static final MultiSourceTransformer.MultiSourceTransformerKey KEY_FACTORY
+            = (MultiSourceTransformer.MultiSourceTransformerKey) KeyFactory.create(MultiSourceTransformer.MultiSourceTransformerKey.class);
+    private static final Type MULTI_SOURCE_TRANSFORMER = Type.getType(MultiSourceTransformer.class);
+    private static final Type SOURCE_ARRAY = Type.getType(PropertiesSourceObject[].class);
+    private static final Signature GET_TARGET_INSTANCE_FROM
+            = new Signature("getTargetInstanceFrom", Constants.TYPE_OBJECT, new Type[]{SOURCE_ARRAY});
+    private static final Signature MERGE_PROPERTIES
+            = new Signature("mergeProperties", Constants.TYPE_OBJECT, new Type[]{Constants.TYPE_OBJECT, SOURCE_ARRAY});
+    private static final Signature GET_TARGET_CLASS
+            = new Signature("getTargetClass", Constants.TYPE_CLASS, Constants.TYPES_EMPTY);
+
+    public MultiSourceTransformer() {
+    }
+
+    /**
+     * create a target instance filled from all given sources
+     *
+     * @param sources instances of the source classes, in the order the transformer is created with
+     * @return a new target instance
+     */
+    public abstract T getTargetInstanceFrom(PropertiesSourceObject... sources);
+
+    /**
+     * copy the mapped properties of all given sources into the given target
+     *
+     * @param target  instance to be filled
+     * @param sources instances of the source classes, in the order the transformer is created with
+     * @return the given target instance
+     * @throws BeanMappingException when fewer sources are given than the transformer is created with
+     */
+    public abstract T mergeProperties(T target, PropertiesSourceObject... sources);
+
+    public abstract Class<T> getTargetClass();
+
+    /**
+     * @param targetClass   class of target instance
+     * @param sourceClasses classes of the properties providers, each of them must be mapped to target class
+     * @param <T>           raw type of target class
+     * @return the transformer of target class and given source classes
+     * @throws BeanMappingException when a source class is not mapped to target class or is given twice
+     */
+    public static <T> MultiSourceTransformer<T> newInstance(Class<T> targetClass, Class<? extends PropertiesSourceObject>... sourceClasses) {
+        Generater<T> generater = new Generater<>();
+        generater.setTarget(targetClass);
+        generater.setSources(sourceClasses);
+        return generater.create();
+    }
+
+    public static class Generater<T> extends AbstractClassGenerator<MultiSourceTransformer<T>> {
+        private static final AbstractClassGenerator.Source SOURCE = new Source(MultiSourceTransformer.class.getName());
+        private Class<T> target;
+        private Class[] sources;
+        private BeanMappingInfo beanMappingInfo;
+        private PropertyStatementEmitter statementEmitter;
+
+        public Generater() {
+            super(SOURCE);
+        }
+
+        @Override
+        public void generateClass(ClassVisitor classVisitor) throws Exception {
+            ClassEmitter ce = new ClassEmitter(classVisitor);
+            ce.begin_class(Constants.V1_8,
+                    Constants.ACC_PUBLIC,
+                    getClassName(),
+                    MULTI_SOURCE_TRANSFORMER,
+                    new Type[]{},
+                    Constants.SOURCE_FILE);
+            List<MappingInfoItem> allItems = new ArrayList<>();
+            for (Class source : sources) {
+                allItems.addAll(beanMappingInfo.getMappingInfos().get(source));
+            }
+            statementEmitter = PropertyStatementEmitter.declare(ce, allItems, getClassName(), getClassLoader());
+
+            initDefaultConstruct(ce);
+            buildMethod_getTargetInstanceFrom(ce);
+            buildMethod_mergeProperties(ce);
+            buildMethod_getTargetClass(ce);
+
+            ce.end_class();
+        }
+
+        private void initDefaultConstruct(ClassEmitter ce) {
+            CodeEmitter codeEmitter = ce.begin_method(Constants.ACC_PUBLIC,
+                    new Signature(Constants.CONSTRUCTOR_NAME, Type.VOID_TYPE, Constants.TYPES_EMPTY),
+                    Constants.TYPES_EMPTY);
+            codeEmitter.load_this();
+            codeEmitter.super_invoke_constructor();
+            statementEmitter.emitFieldInitialization(codeEmitter);
+            codeEmitter.return_value();
+            codeEmitter.end_method();
+        }
+
+        private void buildMethod_getTargetInstanceFrom(ClassEmitter ce) {
+            CodeEmitter emitter = ce.begin_method(Constants.ACC_PUBLIC | Constants.ACC_VARARGS, GET_TARGET_INSTANCE_FROM, null);
+            Type targetType = Type.getType(target);
+            emitter.load_this();
+            emitter.new_instance(targetType);
+            emitter.dup();
+            emitter.invoke_constructor(targetType);
+            emitter.load_arg(0);
+            emitter.invoke_virtual_this(MERGE_PROPERTIES);
+            emitter.return_value();
+            emitter.end_method();
+        }
+
+        /**
+         * the length of the array is checked first, then every source is loaded from the array once and cast to its class,
+         * then the statements of all its items follow, they are skipped together when the source is null
+         */
+        private void buildMethod_mergeProperties(ClassEmitter ce) {
+            CodeEmitter emitter = ce.begin_method(Constants.ACC_PUBLIC | Constants.ACC_VARARGS, MERGE_PROPERTIES, null);
+            int target_arg = 0, sources_arg = 1;
+            Type targetType = Type.getType(target);
+            Local targetLocal = emitter.make_local(targetType);
+
+            Label tooFewSources = emitter.make_label(),
+                    lengthChecked = emitter.make_label();
+
+            emitter.load_arg(sources_arg);
+            emitter.arraylength();
+            emitter.push(sources.length);
+            emitter.if_icmp(CodeEmitter.LT, tooFewSources);
+            emitter.goTo(lengthChecked);
+            emitter.mark(tooFewSources);
+            emitter.throw_exception(Type.getType(BeanMappingException.class), "the transformer of " + target + " needs "
+                    + sources.length + " sources of " + Arrays.toString(sources));
+            emitter.mark(lengthChecked);
+
+            emitter.load_arg(target_arg);
+            emitter.checkcast(targetType);
+            emitter.store_local(targetLocal);
+            for (int i = 0; i < sources.length; i++) {
+                Type sourceType = Type.getType(sources[i]);
+                Local sourceLocal = emitter.make_local(sourceType);
+                Label skipSource = emitter.make_label();
+
+                emitter.load_arg(sources_arg);
+                emitter.push(i);
+                emitter.aaload();
+                emitter.checkcast(sourceType);
+                emitter.store_local(sourceLocal);
+                emitter.load_local(sourceLocal);
+                emitter.ifnull(skipSource);
+                statementEmitter.emitItems(emitter, beanMappingInfo.getMappingInfos().get(sources[i]), targetLocal, sourceLocal);
+                emitter.mark(skipSource);
+            }
+
+            emitter.load_arg(target_arg);
+            emitter.return_value();
+            emitter.end_method();
+        }
+
+        private void buildMethod_getTargetClass(ClassEmitter ce) {
+            CodeEmitter emitter = ce.begin_method(Constants.ACC_PUBLIC, GET_TARGET_CLASS, null);
+            emitter.visitLdcInsn(Type.getType(target));
+            emitter.return_value();
+            emitter.end_method();
+        }
+
+        /**
+         * create an instance of {@link MultiSourceTransformer}
+         *
+         * @return instance of {@link MultiSourceTransformer}
+         */
+        public MultiSourceTransformer<T> create() {
+            beanMappingInfo = BeanMappingInfo.parser(target);
+            Set<Class> distinctSources = new HashSet<>();
+            String[] sourceNames = new String[sources.length];
+            for (int i = 0; i < sources.length; i++) {
+                if (!beanMappingInfo.getMappingInfos().containsKey(sources[i])) {
+                    throw new BeanMappingException("no property of " + target + " is mapped from " + sources[i]);
+                }
+                if (!distinctSources.add(sources[i])) {
+                    throw new BeanMappingException("source class " + sources[i] + " is given more than once");
+                }
+                sourceNames[i] = sources[i].getName();
+            }
+            Object key = KEY_FACTORY.newInstance(target.getName(), sourceNames);
+            return (MultiSourceTransformer<T>) super.create(key);
+        }
+
+        /**
+         * the generated class is named after target class, so it is in the package of target class
+         */
+        public void setTarget(Class<T> target) {
+            this.setNamePrefix(target.getName());
+            this.target = target;
+        }
+
+        public void setSources(Class... sources) {
+            this.sources = sources.clone();
+        }
+
+        @Override
+        protected ClassLoader getDefaultClassLoader() {
+            return this.target.getClassLoader();
+        }
+
+        @Override
+        protected Object firstInstance(Class type) throws Exception {
+            return ReflectUtils.newInstance(type);
+        }
+
+        @Override
+        protected Object nextInstance(Object instance) throws Exception {
+            return instance;
+        }
+    }
+
+    interface MultiSourceTransformerKey {
+        Object newInstance(String targetClassName, String[] sourceClassNames);
+    }
+}
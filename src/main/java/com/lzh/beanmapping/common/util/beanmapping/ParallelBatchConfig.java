@@ -0,0 +1,62 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.exception.BeanMappingException;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class is used to control how {@link BeanTransformer} splits a batch into fork-join tasks
+ */
+public class ParallelBatchConfig {
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 8192;
+    public static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    public ParallelBatchConfig() {
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * @param pool the pool to run the tasks on, default is {@link ForkJoinPool#commonPool()}
+     */
+    public void setPool(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new BeanMappingException("pool can not be null");
+        }
+        this.pool = pool;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * @param parallelThreshold batches smaller than this size are transformed in the calling thread
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        if (parallelThreshold < 0) {
+            throw new BeanMappingException("parallelThreshold can not be negative");
+        }
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @param chunkSize a task is not split any further once it covers no more than this many elements
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new BeanMappingException("chunkSize must be positive");
+        }
+        this.chunkSize = chunkSize;
+    }
+}
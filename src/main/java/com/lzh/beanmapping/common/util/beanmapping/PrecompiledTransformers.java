@@ -0,0 +1,70 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.exception.BeanMappingException;
+
+/**
+ * This class is used to find the transformers generated at build time by
+ * {@link com.lzh.beanmapping.processor.BeanTransformerProcessor}.
+ * the processor and this class share {@link #classNameOf(String, String)}, so a precompiled transformer
+ * is found by name without any registry.
+ * <p>
+ * a precompiled transformer only implements the mapping methods, {@link BeanTransformer#diff(Object, com.lzh.beanmapping.common.PropertiesSourceObject)}
+ * and {@link BeanTransformer#mergeChangedProperties(Object, com.lzh.beanmapping.common.PropertiesSourceObject)}
+ * still generate the cglib transformer of the pair the first time one of them is called.
+ */
+public final class PrecompiledTransformers {
+    private static final String CLASS_NAME_INFIX = "_BeanTransformer_From_";
+
+    private PrecompiledTransformers() {
+    }
+
+    /**
+     * the precompiled transformer is put in the package of target class,
+     * its simple name is made of the simple binary name of target class and the binary name of source class.
+     * the names are escaped as JNI does, '_' becomes "_1", '$' becomes "_2" and '.' becomes '_',
+     * a part of a binary name never starts with a digit, so two pairs never share a name
+     *
+     * @param targetBinaryName binary name of target class, as returned by {@link Class#getName()}
+     * @param sourceBinaryName binary name of source class, as returned by {@link Class#getName()}
+     * @return binary name of the precompiled transformer
+     */
+    public static String classNameOf(String targetBinaryName, String sourceBinaryName) {
+        int packageEnd = targetBinaryName.lastIndexOf('.');
+        String targetPackage = packageEnd < 0 ? "" : targetBinaryName.substring(0, packageEnd + 1);
+        String targetSimpleName = targetBinaryName.substring(packageEnd + 1);
+        return targetPackage + toIdentifier(targetSimpleName) + CLASS_NAME_INFIX + toIdentifier(sourceBinaryName);
+    }
+
+    private static String toIdentifier(String binaryName) {
+        return binaryName.replace("_", "_1").replace("$", "_2").replace('.', '_');
+    }
+
+    /**
+     * @return a new instance of the precompiled transformer, or null when it is not on the classpath
+     * @throws BeanMappingException when the precompiled class is found but can not be instantiated,
+     *                              or when it transforms another pair
+     */
+    public static <T> BeanTransformer<T, ?> load(Class<T> targetClass, Class<?> sourceClass) {
+        String className = classNameOf(targetClass.getName(), sourceClass.getName());
+        Class<?> transformerClass;
+        try {
+            transformerClass = Class.forName(className, true, targetClass.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+        if (!BeanTransformer.class.isAssignableFrom(transformerClass)) {
+            throw new BeanMappingException("precompiled class " + className + " is not a BeanTransformer");
+        }
+        BeanTransformer<T, ?> transformer;
+        try {
+            transformer = (BeanTransformer<T, ?>) transformerClass.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new BeanMappingException("can not construct precompiled transformer " + className, e);
+        }
+        if (transformer.getTargetClass() != targetClass || transformer.getSourceClass() != sourceClass) {
+            throw new BeanMappingException("precompiled class " + className + " transforms " + transformer.getSourceClass()
+                    + " to " + transformer.getTargetClass() + " instead of " + sourceClass + " to " + targetClass);
+        }
+        return transformer;
+    }
+}
@@ -0,0 +1,442 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import org.springframework.asm.Label;
+import org.springframework.asm.Type;
+import org.springframework.cglib.core.*;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * This class is used to emit the statements which transfer the mapped properties into a target instance,
+ * it is shared by the generators of {@link BeanTransformer} and {@link MultiSourceTransformer}.
+ * <p>
+ * {@link #declare(ClassEmitter, Collection, String, ClassLoader)} declares the fields the statements depend on,
+ * the converters are kept in fields initialized by {@link #emitFieldInitialization(CodeEmitter)}
+ * and the nested transformers of deep copy in fields initialized at their first use.
+ */
+class PropertyStatementEmitter {
+    static final String CONVERTER_FIELD_PREFIX = "converterOf";
+
+    private static final Type BEAN_TRANSFORMER = Type.getType(BeanTransformer.class);
+    private static final Type CONVERTER_REGISTRY = Type.getType(ConverterRegistry.class);
+    private static final Signature GET_CONVERTER
+            = new Signature("getConverter", Constants.TYPE_OBJECT, new Type[]{Constants.TYPE_CLASS});
+    private static final Type OBJECTS = Type.getType(Objects.class);
+    private static final Signature OBJECTS_EQUALS
+            = new Signature("equals", Type.BOOLEAN_TYPE, new Type[]{Constants.TYPE_OBJECT, Constants.TYPE_OBJECT});
+    private static final Signature OBJECTS_DEEP_EQUALS
+            = new Signature("deepEquals", Type.BOOLEAN_TYPE, new Type[]{Constants.TYPE_OBJECT, Constants.TYPE_OBJECT});
+
+    private final String className;
+    private final ClassLoader classLoader;
+    private final Map<MappingInfoItem, String> converterFieldMap;
+    private final DeepCopyEmitter deepCopyEmitter;
+
+    private PropertyStatementEmitter(String className, ClassLoader classLoader,
+                                     Map<MappingInfoItem, String> converterFieldMap, DeepCopyEmitter deepCopyEmitter) {
+        this.className = className;
+        this.classLoader = classLoader;
+        this.converterFieldMap = converterFieldMap;
+        this.deepCopyEmitter = deepCopyEmitter;
+    }
+
+    /**
+     * declare the converter fields and the nested transformer fields of given items in the class being generated
+     *
+     * @param ce          emitter of the class, its header must have been begun
+     * @param infoItems   all items the class will emit
+     * @param className   name of the class being generated
+     * @param classLoader loader which defines the class being generated
+     * @return emitter of the statements of given items
+     */
+    static PropertyStatementEmitter declare(ClassEmitter ce, Collection<MappingInfoItem> infoItems,
+                                            String className, ClassLoader classLoader) {
+        Map<MappingInfoItem, String> converterFieldMap = new HashMap<>();
+        infoItems.stream()
+                .filter(infoItem -> infoItem.getConverter() != null)
+                .forEach(infoItem -> {
+                    String converterFieldName = converterFieldNameOf(infoItem);
+                    ce.declare_field(
+                            Constants.ACC_PRIVATE,
+                            converterFieldName,
+                            Type.getType(infoItem.getConverter().getClass()),
+                            null
+                    );
+                    converterFieldMap.put(infoItem, converterFieldName);
+                });
+
+        Set<DeepCopyEmitter.NestedPair> nestedPairs = new LinkedHashSet<>();
+        infoItems.stream()
+                .filter(MappingInfoItem::isNeedDeepCopy)
+                .forEach(infoItem -> DeepCopyEmitter.collectNestedPairs(
+                        DeepCopyEmitter.sourceTypeOf(infoItem), DeepCopyEmitter.targetTypeOf(infoItem), nestedPairs));
+        Map<DeepCopyEmitter.NestedPair, String> nestedTransformerFields = new HashMap<>();
+        for (DeepCopyEmitter.NestedPair nestedPair : nestedPairs) {
+            String fieldName = DeepCopyEmitter.NESTED_TRANSFORMER_FIELD_PREFIX + nestedTransformerFields.size();
+            ce.declare_field(Constants.ACC_PRIVATE, fieldName, BEAN_TRANSFORMER, null);
+            nestedTransformerFields.put(nestedPair, fieldName);
+        }
+        return new PropertyStatementEmitter(className, classLoader, converterFieldMap, new DeepCopyEmitter(nestedTransformerFields));
+    }
+
+    /**
+     * the name is made of both property names, so a source property used by several converters gets several fields
+     */
+    static String converterFieldNameOf(MappingInfoItem infoItem) {
+        return CONVERTER_FIELD_PREFIX + "_From_" + infoItem.getSourceGetter().getName() + "_To_" + infoItem.getTargetSetter().getName();
+    }
+
+    /**
+     * emit the initialization of converter fields, it belongs to the constructor after the super constructor is called
+     */
+    void emitFieldInitialization(CodeEmitter codeEmitter) {
+        converterFieldMap.forEach((infoItem, converterFieldName) -> {
+            codeEmitter.load_this();
+            codeEmitter.visitLdcInsn(Type.getType(infoItem.getConverter().getClass()));
+            codeEmitter.invoke_static(CONVERTER_REGISTRY, GET_CONVERTER);
+            codeEmitter.checkcast(Type.getType(infoItem.getConverter().getClass()));
+            codeEmitter.putfield(converterFieldName);
+        });
+    }
+
+    /**
+     * emit the transfer of given items from the source in sourceLocal to the target in targetLocal
+     */
+    void emitItems(CodeEmitter emitter, Collection<MappingInfoItem> infoItems, Local targetLocal, Local sourceLocal) {
+        for (MappingInfoItem infoItem : infoItems) {
+            emitItem(emitter, infoItem, targetLocal, sourceLocal);
+        }
+    }
+
+    /**
+     * emit the transfer of one property. the value is read into a local, converted or deep copied,
+     * then adapted to the setter type by unboxing, widening or boxing.
+     * when a null wrapper has to be written into a primitive, the write is skipped.
+     */
+    void emitItem(CodeEmitter emitter, MappingInfoItem infoItem, Local targetLocal, Local sourceLocal) {
+        Label skipLabel = emitter.make_label();
+        emitter.load_local(sourceLocal);
+        Class valueType = emitRead(emitter, infoItem, sourceLocal.getType(), skipLabel);
+        emitTransfer(emitter, infoItem, valueType, targetLocal, skipLabel);
+        emitter.mark(skipLabel);
+    }
+
+    /**
+     * the source instance is on the top of stack, replace it by the value of source property.
+     * when source property is a path the getters of its steps are called in a chain,
+     * a null step jumps to skipLabel with an empty stack
+     *
+     * @return the type of the value
+     */
+    Class emitRead(CodeEmitter emitter, MappingInfoItem infoItem, Type sourceType, Label skipLabel) {
+        Type ownerType = sourceType;
+        for (PropertyDescriptor step : infoItem.getSourcePath()) {
+            Label notNull = emitter.make_label();
+            emitter.invoke(ReflectUtils.getMethodInfo(step.getReadMethod()));
+            emitter.dup();
+            emitter.ifnonnull(notNull);
+            emitter.pop();
+            emitter.goTo(skipLabel);
+            emitter.mark(notNull);
+            ownerType = Type.getType(step.getPropertyType());
+        }
+        Class valueType = infoItem.getSourceGetter().getPropertyType();
+        if (canAccess(infoItem.getSourceField())) {
+            emitter.getfield(ownerType, infoItem.getSourceField().getName(), Type.getType(valueType));
+        } else {
+            emitter.invoke(ReflectUtils.getMethodInfo(infoItem.getSourceGetter().getReadMethod()));
+        }
+        return valueType;
+    }
+
+    /**
+     * the value of source property is on the top of stack, convert or copy it and write it into the target,
+     * the stack is empty afterwards. a write which has to be skipped jumps to skipLabel with an empty stack.
+     */
+    void emitTransfer(CodeEmitter emitter, MappingInfoItem infoItem, Class valueType, Local targetLocal, Label skipLabel) {
+        valueType = emitConvertOrCopy(emitter, infoItem, valueType, skipLabel);
+        Local valueLocal = emitStoreValue(emitter, infoItem, valueType, skipLabel);
+        emitWrite(emitter, infoItem, targetLocal, valueLocal, valueType);
+    }
+
+    /**
+     * emit the transfer of given items like {@link #emitItems(CodeEmitter, Collection, Local, Local)},
+     * but a property is only written when the new value differs from the current value of target property,
+     * then the bit of its index in orderedItems is set in the long in maskLocal.
+     * references are compared by {@link Objects#equals(Object, Object)}, float and double by their compare methods.
+     */
+    void emitChangedItems(CodeEmitter emitter, List<MappingInfoItem> orderedItems, Local targetLocal, Local sourceLocal, Local maskLocal) {
+        for (int bit = 0; bit < orderedItems.size(); bit++) {
+            MappingInfoItem infoItem = orderedItems.get(bit);
+            Label skipLabel = emitter.make_label();
+            emitter.load_local(sourceLocal);
+            Class valueType = emitRead(emitter, infoItem, sourceLocal.getType(), skipLabel);
+            valueType = emitConvertOrCopy(emitter, infoItem, valueType, skipLabel);
+            Local valueLocal = emitStoreValue(emitter, infoItem, valueType, skipLabel);
+            Class targetPropertyType = infoItem.getTargetSetter().getPropertyType();
+            Local adaptedLocal = emitter.make_local(Type.getType(targetPropertyType));
+            emitter.load_local(valueLocal);
+            TypeAdapter.emitAdapt(emitter, valueType, targetPropertyType);
+            emitter.store_local(adaptedLocal);
+
+            if (emitReadCurrent(emitter, infoItem, targetLocal)) {
+                emitter.load_local(adaptedLocal);
+                emitSkipIfEqual(emitter, targetPropertyType, skipLabel);
+            }
+            emitter.load_local(maskLocal);
+            emitter.push(1L << bit);
+            emitter.math(CodeEmitter.OR, Type.LONG_TYPE);
+            emitter.store_local(maskLocal);
+            emitWrite(emitter, infoItem, targetLocal, adaptedLocal, targetPropertyType);
+            emitter.mark(skipLabel);
+        }
+    }
+
+    /**
+     * emit the comparison of given items without writing the target, the bit of its index in orderedItems is set
+     * in the long in maskLocal for every property whose converted source value differs from the target value.
+     * values are compared like {@link #emitChangedItems(CodeEmitter, List, Local, Local, Local)} does,
+     * but wrappers are unboxed rather than boxed, so the comparison itself does not allocate.
+     * deep copied properties are compared with {@link Objects#deepEquals(Object, Object)} without copying them.
+     */
+    void emitDiffItems(CodeEmitter emitter, List<MappingInfoItem> orderedItems, Local targetLocal, Local sourceLocal, Local maskLocal) {
+        for (int bit = 0; bit < orderedItems.size(); bit++) {
+            MappingInfoItem infoItem = orderedItems.get(bit);
+            Label unchanged = emitter.make_label(),
+                    changed = emitter.make_label();
+            emitter.load_local(sourceLocal);
+            Class valueType = emitRead(emitter, infoItem, sourceLocal.getType(), unchanged);
+            if (!infoItem.isNeedDeepCopy() && infoItem.getConverter() != null) {
+                valueType = emitConvert(emitter, infoItem, valueType, unchanged);
+            }
+            Local valueLocal = emitter.make_local(Type.getType(valueType));
+            emitter.store_local(valueLocal);
+
+            if (emitReadCurrent(emitter, infoItem, targetLocal)) {
+                Class targetPropertyType = infoItem.getTargetSetter().getPropertyType();
+                Local currentLocal = emitter.make_local(Type.getType(targetPropertyType));
+                emitter.store_local(currentLocal);
+                if (infoItem.isNeedDeepCopy()) {
+                    emitter.load_local(currentLocal);
+                    emitter.load_local(valueLocal);
+                    emitter.invoke_static(OBJECTS, OBJECTS_DEEP_EQUALS);
+                    emitter.if_jump(CodeEmitter.NE, unchanged);
+                } else {
+                    emitCompare(emitter, valueLocal, valueType, currentLocal, targetPropertyType, unchanged, changed);
+                }
+            }
+            emitter.mark(changed);
+            emitter.load_local(maskLocal);
+            emitter.push(1L << bit);
+            emitter.math(CodeEmitter.OR, Type.LONG_TYPE);
+            emitter.store_local(maskLocal);
+            emitter.mark(unchanged);
+        }
+    }
+
+    /**
+     * jump to unchanged when the value of valueType equals the current value of target property, to changed when they
+     * differ by a null, otherwise fall through when they differ.
+     * when a primitive is involved both values are compared as the primitive of target property,
+     * a null value which would be skipped by the write into a primitive is unchanged.
+     */
+    private static void emitCompare(CodeEmitter emitter, Local valueLocal, Class valueType,
+                                    Local currentLocal, Class targetPropertyType, Label unchanged, Label changed) {
+        boolean bothReferences = !valueType.isPrimitive() && !targetPropertyType.isPrimitive();
+        if (bothReferences && !(TypeAdapter.isWrapper(valueType) && TypeAdapter.isWrapper(targetPropertyType)
+                && !valueType.equals(targetPropertyType))) {
+            emitter.load_local(currentLocal);
+            emitter.load_local(valueLocal);
+            emitter.invoke_static(OBJECTS, OBJECTS_EQUALS);
+            emitter.if_jump(CodeEmitter.NE, unchanged);
+            return;
+        }
+        Class comparedType = targetPropertyType.isPrimitive() ? targetPropertyType
+                : TypeAdapter.isWrapper(targetPropertyType) ? TypeAdapter.unwrap(targetPropertyType) : valueType;
+        Class currentWrapper = TypeAdapter.wrap(comparedType);
+
+        if (!valueType.isPrimitive()) {
+            emitter.load_local(valueLocal);
+            if (targetPropertyType.isPrimitive()) {
+                emitter.ifnull(unchanged);
+            } else {
+                Label valueNotNull = emitter.make_label();
+                emitter.ifnonnull(valueNotNull);
+                emitter.load_local(currentLocal);
+                emitter.ifnull(unchanged);
+                emitter.goTo(changed);
+                emitter.mark(valueNotNull);
+            }
+        }
+        if (!targetPropertyType.isPrimitive()) {
+            emitter.load_local(currentLocal);
+            emitter.ifnull(changed);
+            if (!TypeAdapter.isWrapper(targetPropertyType)) {
+                emitter.load_local(currentLocal);
+                emitter.instance_of(Type.getType(currentWrapper));
+                emitter.if_jump(CodeEmitter.EQ, changed);
+            }
+        }
+
+        emitter.load_local(valueLocal);
+        TypeAdapter.emitAdapt(emitter, valueType, comparedType);
+        emitter.load_local(currentLocal);
+        if (targetPropertyType.isPrimitive()) {
+            TypeAdapter.emitAdapt(emitter, targetPropertyType, comparedType);
+        } else {
+            emitter.checkcast(Type.getType(currentWrapper));
+            TypeAdapter.emitUnbox(emitter, currentWrapper);
+        }
+        emitSkipIfEqual(emitter, comparedType, unchanged);
+    }
+
+    /**
+     * the bit of a property in the change mask is its index in this order, the items sorted by target property name
+     */
+    static List<MappingInfoItem> changeMaskOrder(Collection<MappingInfoItem> infoItems) {
+        List<MappingInfoItem> orderedItems = new ArrayList<>(infoItems);
+        orderedItems.sort(Comparator.comparing(infoItem -> infoItem.getTargetSetter().getName()));
+        return orderedItems;
+    }
+
+    /**
+     * the value of source property is on the top of stack, replace it by its converted or copied value
+     *
+     * @return the type of the value
+     */
+    private Class emitConvertOrCopy(CodeEmitter emitter, MappingInfoItem infoItem, Class valueType, Label skipLabel) {
+        if (infoItem.isNeedDeepCopy()) {
+            return deepCopyEmitter.emitCopy(emitter, DeepCopyEmitter.sourceTypeOf(infoItem), DeepCopyEmitter.targetTypeOf(infoItem));
+        } else if (infoItem.getConverter() != null) {
+            return emitConvert(emitter, infoItem, valueType, skipLabel);
+        }
+        return valueType;
+    }
+
+    /**
+     * store the value on the top of stack into a new local,
+     * jump to skipLabel when it is a null which has to be written into a primitive
+     */
+    private static Local emitStoreValue(CodeEmitter emitter, MappingInfoItem infoItem, Class valueType, Label skipLabel) {
+        Local valueLocal = emitter.make_local(Type.getType(valueType));
+        emitter.store_local(valueLocal);
+        if (TypeAdapter.needNullGuard(valueType, infoItem.getTargetSetter().getPropertyType())) {
+            emitter.load_local(valueLocal);
+            emitter.ifnull(skipLabel);
+        }
+        return valueLocal;
+    }
+
+    /**
+     * write the value in valueLocal into the target property, adapted to the type of target property
+     */
+    private void emitWrite(CodeEmitter emitter, MappingInfoItem infoItem, Local targetLocal, Local valueLocal, Class valueType) {
+        Class targetPropertyType = infoItem.getTargetSetter().getPropertyType();
+        emitter.load_local(targetLocal);
+        emitter.load_local(valueLocal);
+        TypeAdapter.emitAdapt(emitter, valueType, targetPropertyType);
+        if (canAccess(infoItem.getTargetField())) {
+            emitter.putfield(targetLocal.getType(), infoItem.getTargetField().getName(), Type.getType(targetPropertyType));
+        } else {
+            MethodInfo write = ReflectUtils.getMethodInfo(infoItem.getTargetSetter().getWriteMethod());
+            emitter.invoke(write);
+            discardReturnValue(emitter, write);
+        }
+    }
+
+    /**
+     * push the current value of target property, by its field or its getter
+     *
+     * @return false when target property can not be read, nothing is pushed then
+     */
+    private boolean emitReadCurrent(CodeEmitter emitter, MappingInfoItem infoItem, Local targetLocal) {
+        PropertyDescriptor targetProperty = infoItem.getTargetSetter();
+        if (canAccess(infoItem.getTargetField())) {
+            emitter.load_local(targetLocal);
+            emitter.getfield(targetLocal.getType(), infoItem.getTargetField().getName(), Type.getType(targetProperty.getPropertyType()));
+            return true;
+        }
+        if (targetProperty.getReadMethod() == null) {
+            return false;
+        }
+        emitter.load_local(targetLocal);
+        emitter.invoke(ReflectUtils.getMethodInfo(targetProperty.getReadMethod()));
+        return true;
+    }
+
+    /**
+     * two values of given type are on the top of stack, jump to equalLabel when they are equal
+     */
+    private static void emitSkipIfEqual(CodeEmitter emitter, Class type, Label equalLabel) {
+        Type asmType = Type.getType(type);
+        if (type == float.class || type == double.class) {
+            Type wrapperType = Type.getType(TypeAdapter.wrap(type));
+            emitter.invoke_static(wrapperType, new Signature("compare", Type.INT_TYPE, new Type[]{asmType, asmType}));
+            emitter.if_jump(CodeEmitter.EQ, equalLabel);
+        } else if (type.isPrimitive()) {
+            emitter.if_cmp(asmType, CodeEmitter.EQ, equalLabel);
+        } else {
+            emitter.invoke_static(OBJECTS, OBJECTS_EQUALS);
+            emitter.if_jump(CodeEmitter.NE, equalLabel);
+        }
+    }
+
+    /**
+     * the value of valueType is on the top of stack, replace it by the result of converter
+     *
+     * @return the type of the converted value
+     */
+    private Class emitConvert(CodeEmitter emitter, MappingInfoItem infoItem, Class valueType, Label skipLabel) {
+        Method converterMethod = infoItem.getConverterMethod();
+        Class parameterType = converterMethod.getParameterTypes()[0],
+                returnType = infoItem.getConverterReturnType();
+        Local valueLocal = emitter.make_local(Type.getType(valueType));
+
+        emitter.store_local(valueLocal);
+        if (TypeAdapter.needNullGuard(valueType, parameterType)) {
+            emitter.load_local(valueLocal);
+            emitter.ifnull(skipLabel);
+        }
+        emitter.load_this();
+        emitter.getfield(converterFieldMap.get(infoItem));
+        emitter.load_local(valueLocal);
+        TypeAdapter.emitAdapt(emitter, valueType, parameterType);
+        emitter.invoke_virtual(Type.getType(infoItem.getConverter().getClass()),
+                ReflectUtils.getSignature(converterMethod));
+        if (!returnType.equals(converterMethod.getReturnType())) {
+            emitter.checkcast(Type.getType(returnType));
+        }
+        return returnType;
+    }
+
+    private static void discardReturnValue(CodeEmitter emitter, MethodInfo method) {
+        int returnSize = method.getSignature().getReturnType().getSize();
+        if (returnSize == 1) {
+            emitter.pop();
+        } else if (returnSize == 2) {
+            emitter.pop2();
+        }
+    }
+
+    /**
+     * a field can be accessed by the generated class when it is public,
+     * or when it is not private and declared in the same runtime package, the same package name and class loader
+     */
+    private boolean canAccess(Field field) {
+        if (field == null) {
+            return false;
+        }
+        int modifiers = field.getModifiers();
+        if (Modifier.isPublic(modifiers)) {
+            return true;
+        }
+        Class declaringClass = field.getDeclaringClass();
+        return !Modifier.isPrivate(modifiers)
+                && declaringClass.getClassLoader() == classLoader
+                && TypeUtils.getPackageName(declaringClass.getName()).equals(TypeUtils.getPackageName(className));
+    }
+}
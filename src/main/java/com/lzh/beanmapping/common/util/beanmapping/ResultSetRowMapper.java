@@ -0,0 +1,83 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.PropertiesSourceObject;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class is used to create target instances from the rows of a JDBC {@link ResultSet}
+ * without reading every row into a bean first.
+ * <p>
+ * the rows are described by a {@link PropertiesSourceObject} class mapped to target class: each mapped property
+ * is read from the column whose label is its source property, ignoring case and underscores, and transferred with
+ * the converters of {@link BeanTransformer}. the column indexes are resolved once against the {@link ResultSetMetaData}
+ * when the mapper is generated, a property without column is not written.
+ * <p>
+ * a primitive or wrapper property is read by the primitive getter such as {@link ResultSet#getInt(int)} and
+ * {@link ResultSet#wasNull()}, so no value is boxed for a primitive target property.
+ * a SQL NULL leaves a primitive property unchanged.
+ */
+public abstract class ResultSetRowMapper<T> {
+
+    public ResultSetRowMapper() {
+    }
+
+    /**
+     * create a target instance filled from the current row of given result set
+     *
+     * @param resultSet result set positioned on a row
+     * @return a new target instance
+     * @throws SQLException when a column can not be read
+     */
+    public abstract T getTargetInstanceFrom(ResultSet resultSet) throws SQLException;
+
+    /**
+     * copy the columns of the current row of given result set into the given target
+     *
+     * @param target    instance to be filled
+     * @param resultSet result set positioned on a row
+     * @return the given target instance
+     * @throws SQLException when a column can not be read
+     */
+    public abstract T mergeProperties(T target, ResultSet resultSet) throws SQLException;
+
+    public abstract Class<T> getTargetClass();
+
+    /**
+     * create target instances from all remaining rows of given result set, the result set is not closed
+     *
+     * @param resultSet result set positioned before the first row to be read
+     * @return target instances in the order of the rows
+     * @throws SQLException when the result set can not be read
+     */
+    public List<T> getTargetInstancesFrom(ResultSet resultSet) throws SQLException {
+        List<T> targets = new ArrayList<>();
+        while (resultSet.next()) {
+            targets.add(getTargetInstanceFrom(resultSet));
+        }
+        return targets;
+    }
+
+    /**
+     * @param targetClass class of target instance
+     * @param rowClass    class mapped to target class which describes the types of the columns
+     * @param metaData    meta data of the result sets to be read
+     * @param <T>         raw type of target class
+     * @return the mapper of target class from the result sets of given meta data
+     * @throws SQLException when the column labels can not be read
+     * @throws com.lzh.beanmapping.common.exception.BeanMappingException when target class is not mapped from row class
+     */
+    public static <T> ResultSetRowMapper<T> newInstance(Class<T> targetClass, Class<? extends PropertiesSourceObject> rowClass,
+                                                        ResultSetMetaData metaData) throws SQLException {
+        String[] columns = new String[metaData.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = metaData.getColumnLabel(i + 1);
+        }
+        return (ResultSetRowMapper<T>) new RowTransformerGenerater(
+                RowTransformerGenerater.RowKind.RESULT_SET, targetClass, rowClass, columns).create();
+    }
+}
@@ -0,0 +1,219 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.PropertiesSourceObject;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.Type;
+import org.springframework.cglib.core.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class is used to write a target instance back into its properties provider,
+ * it is generated from the same {@link com.lzh.beanmapping.common.annotation.DataMapping} as {@link BeanTransformer}
+ * and reads the target properties, converts them with
+ * {@link com.lzh.beanmapping.common.annotation.DataMapping#inverseConverter()} and writes the source properties.
+ * <p>
+ * the properties which can not be written back are left out, see {@link BeanMappingInfo#getReverseMappingInfos(Class)}.
+ */
+public abstract class ReverseTransformer<T, S extends PropertiesSourceObject> {
+    private static final ReverseTransformer.ReverseTransformerKey KEY_FACTORY
+            = (ReverseTransformer.ReverseTransformerKey) KeyFactory.create(ReverseTransformer.ReverseTransformerKey.class);
+    private static final Type REVERSE_TRANSFORMER = Type.getType(ReverseTransformer.class);
+    private static final Signature GET_SOURCE_INSTANCE_FROM
+            = new Signature("getSourceInstanceFrom", Type.getType(PropertiesSourceObject.class), new Type[]{Constants.TYPE_OBJECT});
+    private static final Signature MERGE_PROPERTIES
+            = new Signature("mergeProperties", Type.getType(PropertiesSourceObject.class)
+            , new Type[]{Type.getType(PropertiesSourceObject.class), Constants.TYPE_OBJECT});
+    private static final Signature GET_TARGET_CLASS
+            = new Signature("getTargetClass", Constants.TYPE_CLASS, Constants.TYPES_EMPTY);
+    private static final Signature GET_SOURCE_CLASS
+            = new Signature("getSourceClass", Constants.TYPE_CLASS, Constants.TYPES_EMPTY);
+
+    public ReverseTransformer() {
+    }
+
+    /**
+     * create a source instance from the properties of given target
+     *
+     * @param target instance to be written back
+     * @return a new source instance
+     */
+    public abstract S getSourceInstanceFrom(T target);
+
+    /**
+     * copy the properties of given target back into the given source
+     *
+     * @param source instance to be filled
+     * @param target instance to be written back
+     * @return the given source instance
+     */
+    public abstract S mergeProperties(S source, T target);
+
+    public abstract Class<T> getTargetClass();
+
+    public abstract Class<S> getSourceClass();
+
+    /**
+     * create source instances from all given targets, the order of result is the iteration order of targets
+     *
+     * @param targets instances to be written back
+     * @return a presized {@link ArrayList} of new source instances
+     */
+    public List<S> getSourceInstancesFrom(Collection<? extends T> targets) {
+        List<S> sources = new ArrayList<>(targets.size());
+        for (T target : targets) {
+            sources.add(getSourceInstanceFrom(target));
+        }
+        return sources;
+    }
+
+    /**
+     * @param targetClass class annotated with {@link com.lzh.beanmapping.common.annotation.DataMapping}
+     * @param sourceClass class of the properties provider to be written
+     * @param <T>         raw type of target class
+     * @param <S>         raw type of source class
+     * @return the reverse transformer of given pair
+     */
+    public static <T, S extends PropertiesSourceObject> ReverseTransformer<T, S> newInstance(Class<T> targetClass, Class<S> sourceClass) {
+        Generater<T, S> generater = new Generater<>();
+        generater.setTarget(targetClass);
+        generater.setSource(sourceClass);
+        return generater.create();
+    }
+
+    public static class Generater<T, S extends PropertiesSourceObject> extends AbstractClassGenerator<ReverseTransformer<T, S>> {
+        private static final AbstractClassGenerator.Source SOURCE = new Source(ReverseTransformer.class.getName());
+        private Class<T> target;
+        private Class<S> source;
+        private Set<MappingInfoItem> infoItems;
+        private PropertyStatementEmitter statementEmitter;
+
+        public Generater() {
+            super(SOURCE);
+        }
+
+        @Override
+        public void generateClass(ClassVisitor classVisitor) throws Exception {
+            ClassEmitter ce = new ClassEmitter(classVisitor);
+            ce.begin_class(Constants.V1_8,
+                    Constants.ACC_PUBLIC,
+                    getClassName(),
+                    REVERSE_TRANSFORMER,
+                    new Type[]{},
+                    Constants.SOURCE_FILE);
+            statementEmitter = PropertyStatementEmitter.declare(ce, infoItems, getClassName(), getClassLoader());
+
+            initDefaultConstruct(ce);
+            buildMethod_getSourceInstanceFrom(ce);
+            buildMethod_mergeProperties(ce);
+            buildMethod_getClass(ce, GET_TARGET_CLASS, target);
+            buildMethod_getClass(ce, GET_SOURCE_CLASS, source);
+
+            ce.end_class();
+        }
+
+        private void initDefaultConstruct(ClassEmitter ce) {
+            CodeEmitter codeEmitter = ce.begin_method(Constants.ACC_PUBLIC,
+                    new Signature(Constants.CONSTRUCTOR_NAME, Type.VOID_TYPE, Constants.TYPES_EMPTY),
+                    Constants.TYPES_EMPTY);
+            codeEmitter.load_this();
+            codeEmitter.super_invoke_constructor();
+            statementEmitter.emitFieldInitialization(codeEmitter);
+            codeEmitter.return_value();
+            codeEmitter.end_method();
+        }
+
+        private void buildMethod_getSourceInstanceFrom(ClassEmitter ce) {
+            CodeEmitter emitter = ce.begin_method(Constants.ACC_PUBLIC, GET_SOURCE_INSTANCE_FROM, null);
+            Type sourceType = Type.getType(source);
+            emitter.load_this();
+            emitter.new_instance(sourceType);
+            emitter.dup();
+            emitter.invoke_constructor(sourceType);
+            emitter.load_arg(0);
+            emitter.invoke_virtual_this(MERGE_PROPERTIES);
+            emitter.return_value();
+            emitter.end_method();
+        }
+
+        /**
+         * the statements are the ones of {@link BeanTransformer} with the roles swapped,
+         * the target instance is read and the source instance is written
+         */
+        private void buildMethod_mergeProperties(ClassEmitter ce) {
+            CodeEmitter emitter = ce.begin_method(Constants.ACC_PUBLIC, MERGE_PROPERTIES, null);
+            int source_arg = 0, target_arg = 1;
+            if (!infoItems.isEmpty()) {
+                Type targetType = Type.getType(target),
+                        sourceType = Type.getType(source);
+                Local sourceLocal = emitter.make_local(sourceType),
+                        targetLocal = emitter.make_local(targetType);
+
+                emitter.load_arg(source_arg);
+                emitter.checkcast(sourceType);
+                emitter.store_local(sourceLocal);
+
+                emitter.load_arg(target_arg);
+                emitter.checkcast(targetType);
+                emitter.store_local(targetLocal);
+
+                statementEmitter.emitItems(emitter, infoItems, sourceLocal, targetLocal);
+            }
+            emitter.load_arg(source_arg);
+            emitter.return_value();
+            emitter.end_method();
+        }
+
+        private void buildMethod_getClass(ClassEmitter ce, Signature signature, Class clazz) {
+            CodeEmitter emitter = ce.begin_method(Constants.ACC_PUBLIC, signature, null);
+            emitter.visitLdcInsn(Type.getType(clazz));
+            emitter.return_value();
+            emitter.end_method();
+        }
+
+        /**
+         * create an instance of {@link ReverseTransformer}
+         *
+         * @return instance of {@link ReverseTransformer}
+         */
+        public ReverseTransformer<T, S> create() {
+            infoItems = BeanMappingInfo.parser(target).getReverseMappingInfos(source);
+            Object key = KEY_FACTORY.newInstance(target.getName(), source.getName());
+            return (ReverseTransformer<T, S>) super.create(key);
+        }
+
+        public void setTarget(Class<T> target) {
+            this.target = target;
+        }
+
+        /**
+         * the generated class is named after source class, so it is in the package of the class it writes
+         */
+        public void setSource(Class<S> source) {
+            this.setNamePrefix(source.getName());
+            this.source = source;
+        }
+
+        @Override
+        protected ClassLoader getDefaultClassLoader() {
+            return this.source.getClassLoader();
+        }
+
+        @Override
+        protected Object firstInstance(Class type) throws Exception {
+            return ReflectUtils.newInstance(type);
+        }
+
+        @Override
+        protected Object nextInstance(Object instance) throws Exception {
+            return instance;
+        }
+    }
+
+    interface ReverseTransformerKey {
+        Object newInstance(String targetClassName, String sourceClassName);
+    }
+}
@@ -0,0 +1,362 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.PropertiesSourceObject;
+import com.lzh.beanmapping.common.exception.BeanMappingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.Label;
+import org.springframework.asm.Type;
+import org.springframework.cglib.core.*;
+
+import java.beans.PropertyDescriptor;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * This class is used to generate {@link MapSourceTransformer}, {@link TupleSourceTransformer} and {@link ResultSetRowMapper}.
+ * the rows are described by a mapped {@link PropertiesSourceObject} class: the key of a property is its source property,
+ * the value is cast or converted to the type of the source property and then transferred as a generated
+ * {@link BeanTransformer} transfers it, with the same converters.
+ * <p>
+ * the keys and the indexes are resolved while the class is generated, the emitted code loads
+ * a constant key from the map, a constant index from the tuple, or calls the getter of the column type
+ * with a constant column index on the result set.
+ */
+class RowTransformerGenerater extends AbstractClassGenerator<Object> {
+    private static Logger logger = LoggerFactory.getLogger(RowTransformerGenerater.class);
+
+    private static final AbstractClassGenerator.Source SOURCE = new Source(RowTransformerGenerater.class.getName());
+    private static final RowTransformerKey KEY_FACTORY = (RowTransformerKey) KeyFactory.create(RowTransformerKey.class);
+    private static final Type MAP = Type.getType(Map.class);
+    private static final Type NUMBER = Type.getType(Number.class);
+    private static final Signature MAP_GET = new Signature("get", Constants.TYPE_OBJECT, new Type[]{Constants.TYPE_OBJECT});
+    private static final Type RESULT_SET = Type.getType(ResultSet.class);
+    private static final Signature WAS_NULL = new Signature("wasNull", Type.BOOLEAN_TYPE, Constants.TYPES_EMPTY);
+    private static final Signature GET_OBJECT_OF_TYPE
+            = new Signature("getObject", Constants.TYPE_OBJECT, new Type[]{Type.INT_TYPE, Constants.TYPE_CLASS});
+    private static final Map<Class, String> RESULT_SET_GETTERS = new HashMap<>();
+    private static final Signature GET_TARGET_CLASS = new Signature("getTargetClass", Constants.TYPE_CLASS, Constants.TYPES_EMPTY);
+
+    static {
+        RESULT_SET_GETTERS.put(boolean.class, "getBoolean");
+        RESULT_SET_GETTERS.put(byte.class, "getByte");
+        RESULT_SET_GETTERS.put(short.class, "getShort");
+        RESULT_SET_GETTERS.put(int.class, "getInt");
+        RESULT_SET_GETTERS.put(long.class, "getLong");
+        RESULT_SET_GETTERS.put(float.class, "getFloat");
+        RESULT_SET_GETTERS.put(double.class, "getDouble");
+        RESULT_SET_GETTERS.put(String.class, "getString");
+        RESULT_SET_GETTERS.put(BigDecimal.class, "getBigDecimal");
+        RESULT_SET_GETTERS.put(byte[].class, "getBytes");
+        RESULT_SET_GETTERS.put(java.sql.Date.class, "getDate");
+        RESULT_SET_GETTERS.put(java.sql.Time.class, "getTime");
+        RESULT_SET_GETTERS.put(java.sql.Timestamp.class, "getTimestamp");
+        RESULT_SET_GETTERS.put(java.util.Date.class, "getTimestamp");
+        RESULT_SET_GETTERS.put(Object.class, "getObject");
+    }
+
+    enum RowKind {
+        MAP(MapSourceTransformer.class, Map.class),
+        TUPLE(TupleSourceTransformer.class, Object[].class),
+        RESULT_SET(ResultSetRowMapper.class, ResultSet.class);
+
+        private final Type superType;
+        private final Type rowType;
+
+        RowKind(Class superClass, Class rowClass) {
+            this.superType = Type.getType(superClass);
+            this.rowType = Type.getType(rowClass);
+        }
+    }
+
+    private final RowKind rowKind;
+    private final Class target;
+    private final Class<? extends PropertiesSourceObject> rowClass;
+    private final String[] columns;
+    private Map<MappingInfoItem, Integer> itemIndexes;
+    private PropertyStatementEmitter statementEmitter;
+
+    /**
+     * @param columns names of the tuple elements or labels of the result set columns, null for a map
+     */
+    RowTransformerGenerater(RowKind rowKind, Class target, Class<? extends PropertiesSourceObject> rowClass, String[] columns) {
+        super(SOURCE);
+        this.rowKind = rowKind;
+        this.target = target;
+        this.rowClass = rowClass;
+        this.columns = columns == null ? null : columns.clone();
+        setNamePrefix(target.getName());
+    }
+
+    /**
+     * @return the key of item in a row, it is the source property declared by {@link com.lzh.beanmapping.common.annotation.DataMapping}
+     */
+    static String keyOf(MappingInfoItem infoItem) {
+        StringBuilder key = new StringBuilder();
+        for (PropertyDescriptor step : infoItem.getSourcePath()) {
+            key.append(step.getName()).append('.');
+        }
+        return key.append(infoItem.getSourceGetter().getName()).toString();
+    }
+
+    Object create() {
+        Set<MappingInfoItem> infoItems = BeanMappingInfo.parser(target).getMappingInfos().get(rowClass);
+        if (infoItems == null) {
+            throw new BeanMappingException("no property of " + target + " is mapped from " + rowClass);
+        }
+        itemIndexes = new LinkedHashMap<>();
+        List<String> columnList = columns == null ? null : Arrays.asList(columns);
+        for (MappingInfoItem infoItem : infoItems) {
+            int index = columnList == null ? -1 : columnIndexOf(columnList, keyOf(infoItem));
+            if (columnList != null && index < 0) {
+                logger.info("property {} of {} is not mapped, there is no column {}",
+                        infoItem.getTargetSetter().getName(), target, keyOf(infoItem));
+                continue;
+            }
+            itemIndexes.put(infoItem, index);
+        }
+        return super.create(KEY_FACTORY.newInstance(rowKind.name(), target.getName(), rowClass.getName(),
+                columns == null ? new String[0] : columns));
+    }
+
+    /**
+     * a tuple column has the name of the key, a result set column is matched ignoring case and underscores,
+     * so the label "ORDER_NAME" is the column of "orderName"
+     */
+    private int columnIndexOf(List<String> columnList, String key) {
+        if (rowKind != RowKind.RESULT_SET) {
+            return columnList.indexOf(key);
+        }
+        String normalizedKey = normalize(key);
+        for (int i = 0; i < columnList.size(); i++) {
+            if (normalize(columnList.get(i)).equals(normalizedKey)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String normalize(String column) {
+        return column.replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void generateClass(ClassVisitor classVisitor) throws Exception {
+        ClassEmitter ce = new ClassEmitter(classVisitor);
+        ce.begin_class(Constants.V1_8,
+                Constants.ACC_PUBLIC,
+                getClassName(),
+                rowKind.superType,
+                new Type[]{},
+                Constants.SOURCE_FILE);
+        statementEmitter = PropertyStatementEmitter.declare(ce, itemIndexes.keySet(), getClassName(), getClassLoader());
+
+        initDefaultConstruct(ce);
+        buildMethod_getTargetInstanceFrom(ce);
+        buildMethod_mergeProperties(ce);
+        buildMethod_getTargetClass(ce);
+
+        ce.end_class();
+    }
+
+    private void initDefaultConstruct(ClassEmitter ce) {
+        CodeEmitter codeEmitter = ce.begin_method(Constants.ACC_PUBLIC,
+                new Signature(Constants.CONSTRUCTOR_NAME, Type.VOID_TYPE, Constants.TYPES_EMPTY),
+                Constants.TYPES_EMPTY);
+        codeEmitter.load_this();
+        codeEmitter.super_invoke_constructor();
+        statementEmitter.emitFieldInitialization(codeEmitter);
+        codeEmitter.return_value();
+        codeEmitter.end_method();
+    }
+
+    private Signature mergeProperties() {
+        return new Signature("mergeProperties", Constants.TYPE_OBJECT, new Type[]{Constants.TYPE_OBJECT, rowKind.rowType});
+    }
+
+    private Type[] exceptions() {
+        return rowKind == RowKind.RESULT_SET ? new Type[]{Type.getType(SQLException.class)} : null;
+    }
+
+    private void buildMethod_getTargetInstanceFrom(ClassEmitter ce) {
+        CodeEmitter emitter = ce.begin_method(Constants.ACC_PUBLIC,
+                new Signature("getTargetInstanceFrom", Constants.TYPE_OBJECT, new Type[]{rowKind.rowType}), exceptions());
+        Type targetType = Type.getType(target);
+        emitter.load_this();
+        emitter.new_instance(targetType);
+        emitter.dup();
+        emitter.invoke_constructor(targetType);
+        emitter.load_arg(0);
+        emitter.invoke_virtual_this(mergeProperties());
+        emitter.return_value();
+        emitter.end_method();
+    }
+
+    /**
+     * every property loads its value by a constant key or index, casts or converts it to the type of source property,
+     * then the statements of {@link PropertyStatementEmitter} write it
+     */
+    private void buildMethod_mergeProperties(ClassEmitter ce) {
+        CodeEmitter emitter = ce.begin_method(Constants.ACC_PUBLIC, mergeProperties(), exceptions());
+        int target_arg = 0, row_arg = 1;
+        Type targetType = Type.getType(target);
+        Local targetLocal = emitter.make_local(targetType);
+
+        emitter.load_arg(target_arg);
+        emitter.checkcast(targetType);
+        emitter.store_local(targetLocal);
+        itemIndexes.forEach((infoItem, index) -> {
+            Label skipLabel = emitter.make_label();
+            emitter.load_arg(row_arg);
+            Class valueType;
+            if (rowKind == RowKind.RESULT_SET) {
+                valueType = emitResultSetRead(emitter, infoItem.getSourceGetter().getPropertyType(), index + 1, skipLabel);
+            } else if (rowKind == RowKind.MAP) {
+                emitter.push(keyOf(infoItem));
+                emitter.invoke_interface(MAP, MAP_GET);
+                valueType = emitCast(emitter, infoItem.getSourceGetter().getPropertyType(), skipLabel);
+            } else {
+                emitter.push(index);
+                emitter.aaload();
+                valueType = emitCast(emitter, infoItem.getSourceGetter().getPropertyType(), skipLabel);
+            }
+            statementEmitter.emitTransfer(emitter, infoItem, valueType, targetLocal, skipLabel);
+            emitter.mark(skipLabel);
+        });
+
+        emitter.load_arg(target_arg);
+        emitter.return_value();
+        emitter.end_method();
+    }
+
+    /**
+     * the object of a row is on the top of stack, replace it by a value of propertyType.
+     * a number of another type is converted by {@link Number}, so a row may hold an Integer for a long property.
+     * a null which has to become a primitive jumps to skipLabel with an empty stack
+     *
+     * @return the type of the value, the wrapper of propertyType when it is a primitive which can be null
+     */
+    private static Class emitCast(CodeEmitter emitter, Class propertyType, Label skipLabel) {
+        Class primitive = propertyType.isPrimitive() ? propertyType
+                : TypeAdapter.isWrapper(propertyType) ? TypeAdapter.unwrap(propertyType) : null;
+        boolean numeric = primitive != null && primitive != boolean.class && primitive != char.class;
+        if (!numeric) {
+            Class valueType = propertyType.isPrimitive() ? TypeAdapter.wrap(propertyType) : propertyType;
+            emitter.checkcast(Type.getType(valueType));
+            return valueType;
+        }
+        Type wrapperType = Type.getType(TypeAdapter.wrap(primitive));
+        Signature numberValue = new Signature(primitive.getName() + "Value", Type.getType(primitive), Constants.TYPES_EMPTY);
+        Local objectLocal = emitter.make_local(Constants.TYPE_OBJECT);
+        emitter.store_local(objectLocal);
+        if (propertyType.isPrimitive()) {
+            emitter.load_local(objectLocal);
+            emitter.ifnull(skipLabel);
+            emitter.load_local(objectLocal);
+            emitter.checkcast(NUMBER);
+            emitter.invoke_virtual(NUMBER, numberValue);
+            return propertyType;
+        }
+        Label cast = emitter.make_label(),
+                done = emitter.make_label();
+        emitter.load_local(objectLocal);
+        emitter.instance_of(wrapperType);
+        emitter.if_jump(CodeEmitter.NE, cast);
+        emitter.load_local(objectLocal);
+        emitter.instance_of(NUMBER);
+        emitter.if_jump(CodeEmitter.EQ, cast);
+        emitter.load_local(objectLocal);
+        emitter.checkcast(NUMBER);
+        emitter.invoke_virtual(NUMBER, numberValue);
+        TypeAdapter.emitBox(emitter, primitive);
+        emitter.goTo(done);
+        emitter.mark(cast);
+        emitter.load_local(objectLocal);
+        emitter.checkcast(wrapperType);
+        emitter.mark(done);
+        return propertyType;
+    }
+
+    /**
+     * the result set is on the top of stack, replace it by the value of the column at columnIndex.
+     * primitives and wrappers are read by the primitive getter and {@link ResultSet#wasNull()} instead of boxing getObject,
+     * a null which has to become a primitive jumps to skipLabel with an empty stack.
+     * a type without getter is read by {@link ResultSet#getObject(int, Class)}
+     *
+     * @return the type of the value
+     */
+    private static Class emitResultSetRead(CodeEmitter emitter, Class propertyType, int columnIndex, Label skipLabel) {
+        Class primitive = propertyType.isPrimitive() ? propertyType
+                : TypeAdapter.isWrapper(propertyType) ? TypeAdapter.unwrap(propertyType) : null;
+        String getter = RESULT_SET_GETTERS.get(primitive != null ? primitive : propertyType);
+        if (getter == null) {
+            Class valueType = primitive != null ? TypeAdapter.wrap(primitive) : propertyType;
+            emitter.push(columnIndex);
+            emitter.visitLdcInsn(Type.getType(valueType));
+            emitter.invoke_interface(RESULT_SET, GET_OBJECT_OF_TYPE);
+            emitter.checkcast(Type.getType(valueType));
+            return valueType;
+        }
+        Class returnType = primitive != null ? primitive : propertyType == java.util.Date.class ? java.sql.Timestamp.class : propertyType;
+        Signature getterSignature = new Signature(getter, Type.getType(returnType), new Type[]{Type.INT_TYPE});
+        if (primitive == null) {
+            emitter.push(columnIndex);
+            emitter.invoke_interface(RESULT_SET, getterSignature);
+            return propertyType;
+        }
+        Local resultSetLocal = emitter.make_local(RESULT_SET);
+        emitter.dup();
+        emitter.store_local(resultSetLocal);
+        emitter.push(columnIndex);
+        emitter.invoke_interface(RESULT_SET, getterSignature);
+        Local valueLocal = emitter.make_local(Type.getType(primitive));
+        emitter.store_local(valueLocal);
+        emitter.load_local(resultSetLocal);
+        emitter.invoke_interface(RESULT_SET, WAS_NULL);
+        if (propertyType.isPrimitive()) {
+            emitter.if_jump(CodeEmitter.NE, skipLabel);
+            emitter.load_local(valueLocal);
+            return primitive;
+        }
+        Label notNull = emitter.make_label(),
+                done = emitter.make_label();
+        emitter.if_jump(CodeEmitter.EQ, notNull);
+        emitter.aconst_null();
+        emitter.checkcast(Type.getType(propertyType));
+        emitter.goTo(done);
+        emitter.mark(notNull);
+        emitter.load_local(valueLocal);
+        TypeAdapter.emitBox(emitter, primitive);
+        emitter.mark(done);
+        return propertyType;
+    }
+
+    private void buildMethod_getTargetClass(ClassEmitter ce) {
+        CodeEmitter emitter = ce.begin_method(Constants.ACC_PUBLIC, GET_TARGET_CLASS, null);
+        emitter.visitLdcInsn(Type.getType(target));
+        emitter.return_value();
+        emitter.end_method();
+    }
+
+    @Override
+    protected ClassLoader getDefaultClassLoader() {
+        return target.getClassLoader();
+    }
+
+    @Override
+    protected Object firstInstance(Class type) throws Exception {
+        return ReflectUtils.newInstance(type);
+    }
+
+    @Override
+    protected Object nextInstance(Object instance) throws Exception {
+        return instance;
+    }
+
+    interface RowTransformerKey {
+        Object newInstance(String rowKind, String targetClassName, String rowClassName, String[] columns);
+    }
+}
@@ -0,0 +1,47 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.exception.BeanMappingException;
+
+import java.util.concurrent.Executor;
+
+/**
+ * This class is used to control when {@link TieredTransformerEngine} replaces the interpreted transformer of a pair
+ * by the generated one
+ */
+public class TieredConfig {
+    public static final int DEFAULT_COMPILE_THRESHOLD = 1_000;
+
+    private int compileThreshold = DEFAULT_COMPILE_THRESHOLD;
+    private Executor executor = TieredTransformerEngine.defaultExecutor();
+
+    public TieredConfig() {
+    }
+
+    public int getCompileThreshold() {
+        return compileThreshold;
+    }
+
+    /**
+     * @param compileThreshold transformed beans of a pair before its class is generated, 0 generates it at the first call
+     */
+    public void setCompileThreshold(int compileThreshold) {
+        if (compileThreshold < 0) {
+            throw new BeanMappingException("compileThreshold can not be negative");
+        }
+        this.compileThreshold = compileThreshold;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * @param executor runs the class generation, default is a single daemon thread shared by all tiered transformers
+     */
+    public void setExecutor(Executor executor) {
+        if (executor == null) {
+            throw new BeanMappingException("executor can not be null");
+        }
+        this.executor = executor;
+    }
+}
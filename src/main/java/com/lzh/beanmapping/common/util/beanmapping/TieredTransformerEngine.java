@@ -0,0 +1,153 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.PropertiesSourceObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class is used to pay for class generation only for the pairs which are used often.
+ * a pair starts with the transformer of {@link TransformerEngines#METHOD_HANDLE}, which defines no class,
+ * and counts the transformed beans. when the count reaches {@link TieredConfig#getCompileThreshold()}
+ * the class of pair is generated by {@link TransformerEngines#CGLIB} on {@link TieredConfig#getExecutor()},
+ * then it replaces the interpreted transformer through a volatile field. the calls keep being served
+ * by the interpreted transformer until then, and for ever when the generation fails.
+ * the interpreted transformer also tracks changes by itself, so a cold pair never generates a class on the caller thread.
+ * when the executor rejects the generation, the pair is counted again from zero and requests it again at the threshold.
+ */
+final class TieredTransformerEngine implements TransformerEngine {
+    private static Logger logger = LoggerFactory.getLogger(TieredTransformerEngine.class);
+
+    private final TieredConfig config;
+
+    TieredTransformerEngine(TieredConfig config) {
+        this.config = config;
+    }
+
+    @Override
+    public String getName() {
+        return "tiered";
+    }
+
+    @Override
+    public <T, S extends PropertiesSourceObject> BeanTransformer<T, S> create(Class<T> targetClass, Class<S> sourceClass) {
+        BeanTransformer<T, S> interpreter = TransformerEngines.METHOD_HANDLE.create(targetClass, sourceClass);
+        if (!(interpreter instanceof MethodHandleTransformerEngine.MethodHandleTransformer)) {
+            return interpreter;
+        }
+        return new TieredTransformer<>(interpreter, config);
+    }
+
+    static Executor defaultExecutor() {
+        return DefaultExecutorHolder.EXECUTOR;
+    }
+
+    private static class DefaultExecutorHolder {
+        private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "beanmapping-tiered-compiler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * the count is a plain int, lost increments of racing threads only delay the generation a little,
+     * and it is not updated any more once the generated transformer is in place
+     */
+    static final class TieredTransformer<T, S extends PropertiesSourceObject> extends BeanTransformer<T, S> {
+        private final BeanTransformer<T, S> interpreter;
+        private final TieredConfig config;
+        private final AtomicBoolean compileRequested = new AtomicBoolean();
+        private volatile BeanTransformer<T, S> delegate;
+        private int count;
+
+        TieredTransformer(BeanTransformer<T, S> interpreter, TieredConfig config) {
+            this.interpreter = interpreter;
+            this.config = config;
+            this.delegate = interpreter;
+        }
+
+        @Override
+        public T getTargetInstanceFrom(S source) {
+            return delegate(1).getTargetInstanceFrom(source);
+        }
+
+        @Override
+        public T mergeProperties(T target, S source) {
+            return delegate(1).mergeProperties(target, source);
+        }
+
+        @Override
+        public long mergeChangedProperties(T target, S source) {
+            return delegate(1).mergeChangedProperties(target, source);
+        }
+
+        @Override
+        public long diff(T target, S source) {
+            return delegate(1).diff(target, source);
+        }
+
+        @Override
+        protected void fillTargetInstances(Object[] sources, Object[] targets, int from, int to) {
+            delegate(to - from).fillTargetInstances(sources, targets, from, to);
+        }
+
+        @Override
+        protected void mergeTargetInstances(Object[] sources, Object[] targets, int from, int to) {
+            delegate(to - from).mergeTargetInstances(sources, targets, from, to);
+        }
+
+        @Override
+        public Class<T> getTargetClass() {
+            return interpreter.getTargetClass();
+        }
+
+        @Override
+        public Class<S> getSourceClass() {
+            return interpreter.getSourceClass();
+        }
+
+        /**
+         * @return true when the generated transformer serves the calls
+         */
+        boolean isCompiled() {
+            return delegate != interpreter;
+        }
+
+        private BeanTransformer<T, S> delegate(int beans) {
+            BeanTransformer<T, S> current = delegate;
+            if (current == interpreter) {
+                count += beans;
+                if (count >= config.getCompileThreshold() && compileRequested.compareAndSet(false, true)) {
+                    requestCompile();
+                }
+            }
+            return current;
+        }
+
+        private void requestCompile() {
+            try {
+                config.getExecutor().execute(this::compile);
+            } catch (RejectedExecutionException e) {
+                logger.info("generation of transformer from {} to {} is rejected, it keeps being interpreted",
+                        getSourceClass(), getTargetClass(), e);
+                count = 0;
+                compileRequested.set(false);
+            }
+        }
+
+        private void compile() {
+            try {
+                delegate = TransformerEngines.CGLIB.create(getTargetClass(), getSourceClass());
+            } catch (RuntimeException | LinkageError e) {
+                logger.info("fail to generate transformer from {} to {}, it keeps being interpreted",
+                        getSourceClass(), getTargetClass(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.PropertiesSourceObject;
+
+/**
+ * This interface is used to produce the transformer of a mapping pair, so the backend which builds transformers can be replaced.
+ * <p>
+ * the built-in engines are {@link TransformerEngines#CGLIB}, {@link TransformerEngines#METHOD_HANDLE} and {@link TransformerEngines#TIERED},
+ * other engines are registered in META-INF/services/com.lzh.beanmapping.common.util.beanmapping.TransformerEngine
+ * and selected by their name, see {@link TransformerEngines#configured()}.
+ */
+public interface TransformerEngine {
+
+    /**
+     * @return name to select this engine with the system property {@value TransformerEngines#ENGINE_PROPERTY}
+     */
+    String getName();
+
+    /**
+     * create a transformer of given pair, the caller is responsible to cache it
+     *
+     * @param targetClass class of target instance
+     * @param sourceClass class of the properties provider
+     * @param <T>         raw type of target class
+     * @param <S>         raw type of source class
+     * @return a new instance of {@link BeanTransformer}
+     * @throws com.lzh.beanmapping.common.exception.BeanMappingException when the mapping info of pair is invalid
+     */
+    <T, S extends PropertiesSourceObject> BeanTransformer<T, S> create(Class<T> targetClass, Class<S> sourceClass);
+}
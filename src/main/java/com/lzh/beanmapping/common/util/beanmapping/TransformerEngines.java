@@ -0,0 +1,73 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.exception.BeanMappingException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * This class is used to select the {@link TransformerEngine} of {@link BeanTransformUtil}.
+ * the engine is named by the system property {@value #ENGINE_PROPERTY}, it is {@link #CGLIB} when the property is not set.
+ */
+public final class TransformerEngines {
+    public static final String ENGINE_PROPERTY = "beanmapping.engine";
+
+    /**
+     * defines one class for each pair with {@link BeanTransformer.Generater}
+     */
+    public static final TransformerEngine CGLIB = new CglibTransformerEngine();
+
+    /**
+     * composes method handles of accessors and converters, no class is defined for a pair
+     */
+    public static final TransformerEngine METHOD_HANDLE = new MethodHandleTransformerEngine();
+
+    /**
+     * starts a pair with {@link #METHOD_HANDLE} and generates its class by {@link #CGLIB} once it is called often,
+     * with the default {@link TieredConfig}
+     */
+    public static final TransformerEngine TIERED = tiered(new TieredConfig());
+
+    private static final TransformerEngine CONFIGURED = forName(System.getProperty(ENGINE_PROPERTY, CGLIB.getName()));
+
+    private TransformerEngines() {
+    }
+
+    /**
+     * @return the engine named by {@value #ENGINE_PROPERTY}, it is read once
+     */
+    public static TransformerEngine configured() {
+        return CONFIGURED;
+    }
+
+    /**
+     * @param config threshold and executor of the class generation
+     * @return a tiered engine with given config, see {@link #TIERED}
+     */
+    public static TransformerEngine tiered(TieredConfig config) {
+        return new TieredTransformerEngine(config);
+    }
+
+    /**
+     * find a built-in engine or an engine registered as a service of {@link TransformerEngine}
+     *
+     * @param name name of engine
+     * @return the engine with given name
+     * @throws BeanMappingException when there is no engine with given name
+     */
+    public static TransformerEngine forName(String name) {
+        Map<String, TransformerEngine> engines = new LinkedHashMap<>();
+        engines.put(CGLIB.getName(), CGLIB);
+        engines.put(METHOD_HANDLE.getName(), METHOD_HANDLE);
+        engines.put(TIERED.getName(), TIERED);
+        for (TransformerEngine engine : ServiceLoader.load(TransformerEngine.class)) {
+            engines.putIfAbsent(engine.getName(), engine);
+        }
+        TransformerEngine engine = engines.get(name);
+        if (engine == null) {
+            throw new BeanMappingException("unknown transformer engine " + name + ", available engines are " + engines.keySet());
+        }
+        return engine;
+    }
+}
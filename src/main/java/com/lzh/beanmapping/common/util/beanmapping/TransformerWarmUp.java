@@ -0,0 +1,185 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.PropertiesSourceObject;
+import com.lzh.beanmapping.common.annotation.DataMapping;
+import com.lzh.beanmapping.common.exception.BeanMappingException;
+import com.lzh.beanmapping.common.util.ReflectUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.type.ClassMetadata;
+import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class is used to prepare the transformers before the first request needs them.
+ * it scans the given packages for classes with {@link DataMapping} fields, finds every pair of target class
+ * and source class with {@link BeanMappingInfo#parser(Class)}, and gets the shared transformer of each pair
+ * from {@link BeanTransformUtil} on a bounded executor, so later lookups find it in the cache.
+ * the transformers of the source classes which have samples in {@link WarmUpConfig} are then called in a short loop
+ * over the samples, so the JIT has compiled them with the profile of real sources before the traffic arrives.
+ * <p>
+ * a pair which can not be prepared is logged and skipped, its error is thrown again when the pair is used.
+ */
+public final class TransformerWarmUp {
+    private static Logger logger = LoggerFactory.getLogger(TransformerWarmUp.class);
+
+    private static final String CLASS_RESOURCE_PATTERN = "/**/*.class";
+
+    private TransformerWarmUp() {
+    }
+
+    /**
+     * warm up the transformers found in given packages with default {@link WarmUpConfig}
+     *
+     * @see #warmUp(WarmUpConfig, String...)
+     */
+    public static List<BeanTransformer> warmUp(String... basePackages) {
+        return warmUp(new WarmUpConfig(), basePackages);
+    }
+
+    /**
+     * @param config       the executor and JIT loop settings
+     * @param basePackages packages to be scanned with their sub packages
+     * @return the prepared transformers, they are the instances cached by {@link BeanTransformUtil}
+     * @throws BeanMappingException when the packages can not be scanned or the warm-up is interrupted
+     */
+    public static List<BeanTransformer> warmUp(WarmUpConfig config, String... basePackages) {
+        Set<Class> targetClasses = scanTargetClasses(config.getClassLoader(), basePackages);
+        ThreadPoolExecutor executor = newExecutor(config);
+        try {
+            List<Future<BeanTransformer>> futures = new ArrayList<>();
+            for (Class targetClass : targetClasses) {
+                Set<Class<? extends PropertiesSourceObject>> sourceClasses;
+                try {
+                    sourceClasses = BeanMappingInfo.parser(targetClass).getMappingInfos().keySet();
+                } catch (RuntimeException e) {
+                    logger.warn("skip warming up invalid mapping of target class {}", targetClass, e);
+                    continue;
+                }
+                for (Class<? extends PropertiesSourceObject> sourceClass : sourceClasses) {
+                    futures.add(executor.submit(() -> prepare(targetClass, sourceClass, config)));
+                }
+            }
+            List<BeanTransformer> transformers = new ArrayList<>(futures.size());
+            for (Future<BeanTransformer> future : futures) {
+                BeanTransformer transformer = future.get();
+                if (transformer != null) {
+                    transformers.add(transformer);
+                }
+            }
+            return transformers;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BeanMappingException("warm up is interrupted", e);
+        } catch (ExecutionException e) {
+            throw new BeanMappingException("warm up failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ThreadPoolExecutor newExecutor(WarmUpConfig config) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "bean-transformer-warm-up-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(config.getParallelism(), config.getParallelism(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                threadFactory,
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * @return the transformer of the pair, or null when it can not be generated
+     */
+    private static BeanTransformer prepare(Class targetClass, Class<? extends PropertiesSourceObject> sourceClass, WarmUpConfig config) {
+        BeanTransformer transformer;
+        try {
+            transformer = BeanTransformUtil.getInstance(targetClass, sourceClass);
+        } catch (RuntimeException e) {
+            logger.warn("skip warming up transformer from {} to {}", sourceClass, targetClass, e);
+            return null;
+        }
+        runJitLoop(transformer, sourceClass, config.getSamples(sourceClass), config.getJitIterations());
+        return transformer;
+    }
+
+    /**
+     * call the transformer with the samples in turn, a pair without samples is not called,
+     * a source made up here would train the JIT with branches the real sources do not take.
+     * the loop stops when a sample is rejected, the class generation, which is the main cost, has been done anyway
+     */
+    private static void runJitLoop(BeanTransformer transformer, Class<? extends PropertiesSourceObject> sourceClass,
+                                   List<PropertiesSourceObject> samples, int jitIterations) {
+        if (jitIterations == 0 || samples.isEmpty()) {
+            return;
+        }
+        try {
+            for (int i = 0; i < jitIterations; i++) {
+                transformer.getTargetInstanceFrom(samples.get(i % samples.size()));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("stop JIT warm up of transformer from {} to {}", sourceClass, transformer.getTargetClass(), e);
+        }
+    }
+
+    private static Set<Class> scanTargetClasses(ClassLoader classLoader, String... basePackages) {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(classLoader);
+        MetadataReaderFactory metadataReaderFactory = new CachingMetadataReaderFactory(resolver);
+        Set<Class> targetClasses = new LinkedHashSet<>();
+        for (String basePackage : basePackages) {
+            String pattern = PathMatchingResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX
+                    + ClassUtils.convertClassNameToResourcePath(basePackage) + CLASS_RESOURCE_PATTERN;
+            try {
+                for (Resource resource : resolver.getResources(pattern)) {
+                    ClassMetadata metadata = metadataReaderFactory.getMetadataReader(resource).getClassMetadata();
+                    if (metadata.isConcrete() && !metadata.isAnnotation()) {
+                        Class clazz = loadClass(metadata.getClassName(), classLoader);
+                        if (clazz != null && isTargetClass(clazz)) {
+                            targetClasses.add(clazz);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new BeanMappingException("can not scan package " + basePackage, e);
+            }
+        }
+        return targetClasses;
+    }
+
+    private static Class loadClass(String className, ClassLoader classLoader) {
+        try {
+            return Class.forName(className, false, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            logger.debug("skip class {} which can not be loaded", className, e);
+            return null;
+        }
+    }
+
+    private static boolean isTargetClass(Class clazz) {
+        if (Modifier.isAbstract(clazz.getModifiers())) {
+            return false;
+        }
+        try {
+            return ReflectUtils.getAllFields(clazz, field -> field.getDeclaredAnnotation(DataMapping.class) != null).length > 0;
+        } catch (LinkageError e) {
+            logger.debug("skip class {} whose fields can not be resolved", clazz, e);
+            return false;
+        }
+    }
+}
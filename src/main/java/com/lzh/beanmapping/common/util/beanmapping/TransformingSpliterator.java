@@ -0,0 +1,69 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.PropertiesSourceObject;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * This class is used to map the elements of a source spliterator lazily with a {@link BeanTransformer}.
+ * it keeps SIZED, SUBSIZED, ORDERED and NONNULL of the source, and drops DISTINCT and SORTED
+ * because they do not hold for the new target instances.
+ */
+class TransformingSpliterator<T, S extends PropertiesSourceObject> implements Spliterator<T>, Consumer<S> {
+    private static final int DROPPED_CHARACTERISTICS = DISTINCT | SORTED;
+
+    private final BeanTransformer<T, S> transformer;
+    private final Spliterator<? extends S> source;
+    private Consumer<? super T> action;
+
+    TransformingSpliterator(BeanTransformer<T, S> transformer, Spliterator<? extends S> source) {
+        this.transformer = transformer;
+        this.source = source;
+    }
+
+    /**
+     * receive an element from the source spliterator, the spliterator itself is the consumer
+     * so no lambda is allocated for each advance
+     */
+    @Override
+    public void accept(S sourceElement) {
+        action.accept(transformer.getTargetInstanceFrom(sourceElement));
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        this.action = action;
+        try {
+            return source.tryAdvance(this);
+        } finally {
+            this.action = null;
+        }
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        this.action = action;
+        try {
+            source.forEachRemaining(this);
+        } finally {
+            this.action = null;
+        }
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        Spliterator<? extends S> prefix = source.trySplit();
+        return prefix == null ? null : new TransformingSpliterator<>(transformer, prefix);
+    }
+
+    @Override
+    public long estimateSize() {
+        return source.estimateSize();
+    }
+
+    @Override
+    public int characteristics() {
+        return source.characteristics() & ~DROPPED_CHARACTERISTICS;
+    }
+}
@@ -0,0 +1,69 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.PropertiesSourceObject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This class is used to create target instances from {@code Object[]} tuples, such as the rows of a JPA projection,
+ * without turning every tuple into a bean first.
+ * <p>
+ * the tuples are described by a {@link PropertiesSourceObject} class mapped to target class and by the names of
+ * their columns: each mapped property is read from the column named after its source property,
+ * and converted as {@link MapSourceTransformer} converts it. the index of every column is resolved
+ * when the transformer is generated, a property without column is not written.
+ */
+public abstract class TupleSourceTransformer<T> {
+
+    public TupleSourceTransformer() {
+    }
+
+    /**
+     * create a target instance filled from the given tuple
+     *
+     * @param tuple values in the order of the columns
+     * @return a new target instance
+     */
+    public abstract T getTargetInstanceFrom(Object[] tuple);
+
+    /**
+     * copy the values of the given tuple into the given target
+     *
+     * @param target instance to be filled
+     * @param tuple  values in the order of the columns
+     * @return the given target instance
+     */
+    public abstract T mergeProperties(T target, Object[] tuple);
+
+    public abstract Class<T> getTargetClass();
+
+    /**
+     * create target instances from all given tuples, the order of result is the iteration order of tuples
+     *
+     * @param tuples values in the order of the columns
+     * @return a presized {@link ArrayList} of new target instances
+     */
+    public List<T> getTargetInstancesFrom(Collection<Object[]> tuples) {
+        List<T> targets = new ArrayList<>(tuples.size());
+        for (Object[] tuple : tuples) {
+            targets.add(getTargetInstanceFrom(tuple));
+        }
+        return targets;
+    }
+
+    /**
+     * @param targetClass class of target instance
+     * @param rowClass    class mapped to target class which describes the types of the columns
+     * @param columns     source properties of row class in the order of the tuple elements
+     * @param <T>         raw type of target class
+     * @return the transformer of target class from the tuples of given columns
+     * @throws com.lzh.beanmapping.common.exception.BeanMappingException when target class is not mapped from row class
+     */
+    public static <T> TupleSourceTransformer<T> newInstance(Class<T> targetClass, Class<? extends PropertiesSourceObject> rowClass,
+                                                           String... columns) {
+        return (TupleSourceTransformer<T>) new RowTransformerGenerater(
+                RowTransformerGenerater.RowKind.TUPLE, targetClass, rowClass, columns).create();
+    }
+}
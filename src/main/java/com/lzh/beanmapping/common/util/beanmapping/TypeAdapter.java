@@ -0,0 +1,179 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import org.springframework.asm.Label;
+import org.springframework.asm.Type;
+import org.springframework.cglib.core.CodeEmitter;
+import org.springframework.cglib.core.Constants;
+import org.springframework.cglib.core.Signature;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.*;
+
+/**
+ * This class is used to emit the conversion between a primitive, its wrapper and their widened types.
+ * boxing is done with valueOf and unboxing with xxxValue, so the emitted code never calls the wrapper constructors.
+ * {@link #adaptHandle(Class, Class)} is the same conversion for the method handles of {@link MethodHandleTransformerEngine}.
+ */
+final class TypeAdapter {
+    private static final Map<Class, Class> WRAPPERS = new HashMap<>();
+    private static final Map<Class, Class> PRIMITIVES = new HashMap<>();
+    private static final Map<Class, Set<Class>> WIDENINGS = new HashMap<>();
+
+    static final MethodHandle IS_NULL;
+
+    static {
+        try {
+            IS_NULL = MethodHandles.lookup().findStatic(Objects.class, "isNull",
+                    MethodType.methodType(boolean.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        register(boolean.class, Boolean.class);
+        register(byte.class, Byte.class, short.class, int.class, long.class, float.class, double.class);
+        register(short.class, Short.class, int.class, long.class, float.class, double.class);
+        register(char.class, Character.class, int.class, long.class, float.class, double.class);
+        register(int.class, Integer.class, long.class, float.class, double.class);
+        register(long.class, Long.class, float.class, double.class);
+        register(float.class, Float.class, double.class);
+        register(double.class, Double.class);
+    }
+
+    private TypeAdapter() {
+    }
+
+    private static void register(Class primitive, Class wrapper, Class... widenings) {
+        WRAPPERS.put(primitive, wrapper);
+        PRIMITIVES.put(wrapper, primitive);
+        Set<Class> targets = new HashSet<>(Arrays.asList(widenings));
+        targets.add(primitive);
+        WIDENINGS.put(primitive, targets);
+    }
+
+    static boolean isWrapper(Class clazz) {
+        return PRIMITIVES.containsKey(clazz);
+    }
+
+    static Class wrap(Class primitive) {
+        return WRAPPERS.get(primitive);
+    }
+
+    static Class unwrap(Class wrapper) {
+        return PRIMITIVES.get(wrapper);
+    }
+
+    private static boolean canWiden(Class fromPrimitive, Class toPrimitive) {
+        Set<Class> targets = WIDENINGS.get(fromPrimitive);
+        return targets != null && targets.contains(toPrimitive);
+    }
+
+    /**
+     * @return true when a value of from can be converted to to without a converter
+     */
+    static boolean canAdapt(Class from, Class to) {
+        if (from.equals(to)) {
+            return true;
+        }
+        if (from.isPrimitive()) {
+            if (to.isPrimitive()) {
+                return canWiden(from, to);
+            }
+            if (isWrapper(to)) {
+                return canWiden(from, unwrap(to));
+            }
+            return to.isAssignableFrom(wrap(from));
+        }
+        if (to.isPrimitive()) {
+            return isWrapper(from) && canWiden(unwrap(from), to);
+        }
+        if (to.isAssignableFrom(from)) {
+            return true;
+        }
+        return isWrapper(from) && isWrapper(to) && canWiden(unwrap(from), unwrap(to));
+    }
+
+    /**
+     * a null wrapper can not be adapted to a primitive, the caller must skip the write for it
+     */
+    static boolean needNullGuard(Class from, Class to) {
+        return !from.isPrimitive() && to.isPrimitive();
+    }
+
+    /**
+     * the value of from is on the top of stack, replace it by the value of to.
+     * when {@link #needNullGuard(Class, Class)} is true the value must have been checked as not null.
+     */
+    static void emitAdapt(CodeEmitter emitter, Class from, Class to) {
+        if (from.equals(to)) {
+            return;
+        }
+        if (from.isPrimitive()) {
+            if (to.isPrimitive()) {
+                emitter.cast_numeric(Type.getType(from), Type.getType(to));
+            } else if (isWrapper(to)) {
+                emitter.cast_numeric(Type.getType(from), Type.getType(unwrap(to)));
+                emitBox(emitter, unwrap(to));
+            } else {
+                emitBox(emitter, from);
+            }
+        } else if (to.isPrimitive()) {
+            emitUnbox(emitter, from);
+            emitter.cast_numeric(Type.getType(unwrap(from)), Type.getType(to));
+        } else if (!to.isAssignableFrom(from)) {
+            Label convert = emitter.make_label(),
+                    end = emitter.make_label();
+            emitter.dup();
+            emitter.ifnonnull(convert);
+            emitter.checkcast(Type.getType(to));
+            emitter.goTo(end);
+            emitter.mark(convert);
+            emitUnbox(emitter, from);
+            emitter.cast_numeric(Type.getType(unwrap(from)), Type.getType(unwrap(to)));
+            emitBox(emitter, unwrap(to));
+            emitter.mark(end);
+        }
+    }
+
+    static void emitBox(CodeEmitter emitter, Class primitive) {
+        Type wrapperType = Type.getType(wrap(primitive));
+        emitter.invoke_static(wrapperType, new Signature("valueOf", wrapperType, new Type[]{Type.getType(primitive)}));
+    }
+
+    static void emitUnbox(CodeEmitter emitter, Class wrapper) {
+        Class primitive = unwrap(wrapper);
+        emitter.invoke_virtual(Type.getType(wrapper),
+                new Signature(primitive.getName() + "Value", Type.getType(primitive), Constants.TYPES_EMPTY));
+    }
+
+    /**
+     * the method handle counterpart of {@link #emitAdapt(CodeEmitter, Class, Class)}
+     *
+     * @return handle of type (from)to, when {@link #needNullGuard(Class, Class)} is true it must not be called with null
+     */
+    static MethodHandle adaptHandle(Class from, Class to) {
+        MethodHandle identity = MethodHandles.identity(from);
+        if (from.isPrimitive() || to.isPrimitive() || to.isAssignableFrom(from)) {
+            return numericHandle(identity, from, to);
+        }
+        MethodHandle isNull = IS_NULL.asType(MethodType.methodType(boolean.class, from));
+        return MethodHandles.guardWithTest(isNull,
+                identity.asType(MethodType.methodType(to, from)),
+                numericHandle(identity, from, to));
+    }
+
+    /**
+     * asType unboxes, widens and boxes only to the wrapper of the same primitive,
+     * so the value is widened as a primitive first, for example Integer to int, int to long and long to Long
+     */
+    private static MethodHandle numericHandle(MethodHandle identity, Class from, Class to) {
+        Class fromPrimitive = from.isPrimitive() ? from : unwrap(from),
+                toPrimitive = to.isPrimitive() ? to : unwrap(to);
+        MethodHandle handle = identity;
+        if (fromPrimitive != null && toPrimitive != null && !fromPrimitive.equals(toPrimitive)) {
+            handle = handle.asType(MethodType.methodType(fromPrimitive, from))
+                    .asType(MethodType.methodType(toPrimitive, from));
+        }
+        return handle.asType(MethodType.methodType(to, from));
+    }
+}
@@ -0,0 +1,112 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.PropertiesSourceObject;
+import com.lzh.beanmapping.common.exception.BeanMappingException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is used to control how {@link TransformerWarmUp} prepares the transformers
+ */
+public class WarmUpConfig {
+    public static final int DEFAULT_QUEUE_CAPACITY = 256;
+    public static final int DEFAULT_JIT_ITERATIONS = 0;
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    private int jitIterations = DEFAULT_JIT_ITERATIONS;
+    private ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    private final Map<Class, List<PropertiesSourceObject>> samples = new HashMap<>();
+
+    public WarmUpConfig() {
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @param parallelism number of threads generating transformers, default is the number of available processors
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new BeanMappingException("parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * @param queueCapacity pending pairs kept by the executor, the scanning thread runs a pair itself when it is full
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity <= 0) {
+            throw new BeanMappingException("queueCapacity must be positive");
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getJitIterations() {
+        return jitIterations;
+    }
+
+    /**
+     * the loop only calls the transformers of the source classes given to {@link #addSamples(Class, PropertiesSourceObject[])},
+     * the JIT compiles the branches taken by the samples and traps the other ones, so a sample whose properties are null
+     * would make the first real source deoptimize the compiled code. the default 0 only generates the transformers.
+     *
+     * @param jitIterations calls made on each transformer after it is generated, 0 disables the JIT warm-up loop
+     */
+    public void setJitIterations(int jitIterations) {
+        if (jitIterations < 0) {
+            throw new BeanMappingException("jitIterations can not be negative");
+        }
+        this.jitIterations = jitIterations;
+    }
+
+    /**
+     * @return the samples of given source class, empty when there is none
+     */
+    public List<PropertiesSourceObject> getSamples(Class sourceClass) {
+        return samples.getOrDefault(sourceClass, Collections.emptyList());
+    }
+
+    /**
+     * @param sourceClass source class of the mapping, as declared by {@link com.lzh.beanmapping.common.annotation.DataMapping#sourceClass()}
+     * @param samples     sources with the values of real traffic, the JIT warm-up loop transforms them in turn
+     */
+    @SafeVarargs
+    public final <S extends PropertiesSourceObject> void addSamples(Class<S> sourceClass, S... samples) {
+        if (samples.length == 0) {
+            throw new BeanMappingException("samples of " + sourceClass + " can not be empty");
+        }
+        for (S sample : samples) {
+            if (!sourceClass.isInstance(sample)) {
+                throw new BeanMappingException("sample " + sample + " is not an instance of " + sourceClass);
+            }
+        }
+        this.samples.computeIfAbsent(sourceClass, key -> new ArrayList<>()).addAll(Arrays.asList(samples));
+    }
+
+    public ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    /**
+     * @param classLoader loader used to scan and load the classes, default is the context class loader of the caller
+     */
+    public void setClassLoader(ClassLoader classLoader) {
+        if (classLoader == null) {
+            throw new BeanMappingException("classLoader can not be null");
+        }
+        this.classLoader = classLoader;
+    }
+}
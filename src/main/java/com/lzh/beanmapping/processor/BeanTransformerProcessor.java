@@ -0,0 +1,561 @@
+package com.lzh.beanmapping.processor;
+
+import com.lzh.beanmapping.common.annotation.DataMapping;
+import com.lzh.beanmapping.common.util.beanmapping.BeanTransformer;
+import com.lzh.beanmapping.common.util.beanmapping.ConverterContract;
+import com.lzh.beanmapping.common.util.beanmapping.ConverterRegistry;
+import com.lzh.beanmapping.common.util.beanmapping.PrecompiledTransformers;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.beans.Introspector;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * This processor reads {@link DataMapping} at build time and writes a plain java subclass of {@link BeanTransformer}
+ * for each pair of target class and source class, equivalent to the one generated at runtime by
+ * {@link BeanTransformer.Generater}. {@link com.lzh.beanmapping.common.util.beanmapping.BeanTransformUtil}
+ * loads it by the name given by {@link PrecompiledTransformers#classNameOf(String, String)}.
+ * <p>
+ * a pair is left to the runtime generation, with a note, when it uses deep copy,
+ * when one of its classes is not public, or when a property can not be resolved or adapted,
+ * so the errors of an invalid mapping are still reported by {@link com.lzh.beanmapping.common.util.beanmapping.BeanMappingInfo}.
+ * a setter which is ambiguous at runtime is reported as a compile error.
+ */
+@SupportedAnnotationTypes("com.lzh.beanmapping.common.annotation.DataMapping")
+public class BeanTransformerProcessor extends AbstractProcessor {
+    private static final String DEFAULT_CONVERTER_NAME = DataMapping.DEFAULT_CONVERTER_CLASS.getName();
+
+    private Elements elements;
+    private Types types;
+    private Messager messager;
+    private Filer filer;
+    private final Set<String> generatedClassNames = new HashSet<>();
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        elements = processingEnv.getElementUtils();
+        types = processingEnv.getTypeUtils();
+        messager = processingEnv.getMessager();
+        filer = processingEnv.getFiler();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> targetClasses = new LinkedHashSet<>();
+        for (Element field : roundEnv.getElementsAnnotatedWith(DataMapping.class)) {
+            targetClasses.add((TypeElement) field.getEnclosingElement());
+        }
+        for (TypeElement targetClass : targetClasses) {
+            for (Map.Entry<TypeElement, List<VariableElement>> entry : mappedFieldsBySource(targetClass).entrySet()) {
+                generate(targetClass, entry.getKey(), entry.getValue());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * collect the annotated fields of target class and its superclasses, grouped by source class
+     */
+    private Map<TypeElement, List<VariableElement>> mappedFieldsBySource(TypeElement targetClass) {
+        Map<TypeElement, List<VariableElement>> fieldsBySource = new LinkedHashMap<>();
+        TypeElement current = targetClass;
+        while (current != null) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                AnnotationMirror dataMapping = findDataMapping(field);
+                if (dataMapping != null) {
+                    TypeElement sourceClass = asTypeElement(annotationValue(dataMapping, "sourceClass"));
+                    fieldsBySource.computeIfAbsent(sourceClass, key -> new ArrayList<>()).add(field);
+                }
+            }
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) types.asElement(superclass) : null;
+        }
+        return fieldsBySource;
+    }
+
+    private void generate(TypeElement targetClass, TypeElement sourceClass, List<VariableElement> fields) {
+        String className = PrecompiledTransformers.classNameOf(
+                elements.getBinaryName(targetClass).toString(), elements.getBinaryName(sourceClass).toString());
+        if (!generatedClassNames.add(className)) {
+            return;
+        }
+        try {
+            String source = new TransformerSource(targetClass, sourceClass, fields, className).write();
+            JavaFileObject file = filer.createSourceFile(className, targetClass);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source);
+            }
+        } catch (SkipException e) {
+            messager.printMessage(Diagnostic.Kind.NOTE, "transformer from " + sourceClass + " is left to runtime generation: "
+                    + e.getMessage(), targetClass);
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "can not write transformer " + className + ": " + e, targetClass);
+        }
+    }
+
+    private AnnotationMirror findDataMapping(Element element) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(DataMapping.class.getName())) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private Object annotationValue(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : elements.getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    private TypeElement asTypeElement(Object classValue) {
+        return (TypeElement) types.asElement((TypeMirror) classValue);
+    }
+
+    /**
+     * @return true when the class is public, and is top level or nested in public classes with static
+     */
+    private static boolean isAccessible(TypeElement typeElement) {
+        Element current = typeElement;
+        while (current instanceof TypeElement) {
+            NestingKind nestingKind = ((TypeElement) current).getNestingKind();
+            if (!current.getModifiers().contains(Modifier.PUBLIC)
+                    || nestingKind == NestingKind.LOCAL
+                    || nestingKind == NestingKind.ANONYMOUS
+                    || (nestingKind == NestingKind.MEMBER && !current.getModifiers().contains(Modifier.STATIC))) {
+                return false;
+            }
+            current = current.getEnclosingElement();
+        }
+        return true;
+    }
+
+    /**
+     * thrown when a pair can not be precompiled, the message tells why
+     */
+    private static class SkipException extends RuntimeException {
+        SkipException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * java source of one precompiled transformer
+     */
+    private class TransformerSource {
+        private final TypeElement targetClass;
+        private final TypeElement sourceClass;
+        private final List<VariableElement> fields;
+        private final String packageName;
+        private final String simpleName;
+        private final Map<String, ExecutableElement> sourceGetters;
+        private final Map<String, ExecutableElement> targetGetters;
+        private final Map<String, List<ExecutableElement>> targetSetters;
+        private final StringBuilder converterFields = new StringBuilder();
+        private final StringBuilder statements = new StringBuilder();
+        private int valueCount;
+
+        TransformerSource(TypeElement targetClass, TypeElement sourceClass, List<VariableElement> fields, String className) {
+            this.targetClass = targetClass;
+            this.sourceClass = sourceClass;
+            this.fields = fields;
+            int packageEnd = className.lastIndexOf('.');
+            this.packageName = packageEnd < 0 ? "" : className.substring(0, packageEnd);
+            this.simpleName = className.substring(packageEnd + 1);
+            this.sourceGetters = collectGetters(sourceClass);
+            this.targetGetters = collectGetters(targetClass);
+            this.targetSetters = collectSetters(targetClass);
+        }
+
+        String write() {
+            verifyClasses();
+            for (VariableElement field : fields) {
+                writeItem(field);
+            }
+            String target = targetClass.getQualifiedName().toString(),
+                    source = sourceClass.getQualifiedName().toString();
+            String loopStatements = statements.toString().replaceAll("(?m)^(?=.)", "    ");
+            StringBuilder out = new StringBuilder();
+            if (!packageName.isEmpty()) {
+                out.append("package ").append(packageName).append(";\n\n");
+            }
+            out.append("@javax.annotation.Generated(\"").append(BeanTransformerProcessor.class.getName()).append("\")\n")
+                    .append("public final class ").append(simpleName)
+                    .append(" extends ").append(BeanTransformer.class.getName())
+                    .append("<").append(target).append(", ").append(source).append("> {\n")
+                    .append(converterFields)
+                    .append("\n    @Override\n")
+                    .append("    public ").append(target).append(" getTargetInstanceFrom(").append(source).append(" source) {\n")
+                    .append("        return mergeProperties(new ").append(target).append("(), source);\n")
+                    .append("    }\n\n")
+                    .append("    @Override\n")
+                    .append("    public ").append(target).append(" mergeProperties(")
+                    .append(target).append(" target, ").append(source).append(" source) {\n")
+                    .append(statements)
+                    .append("        return target;\n")
+                    .append("    }\n\n")
+                    .append("    @Override\n")
+                    .append("    protected void fillTargetInstances(Object[] sources, Object[] targets, int from, int to) {\n")
+                    .append("        for (int i = from; i < to; i++) {\n")
+                    .append("            ").append(source).append(" source = (").append(source).append(") sources[i];\n")
+                    .append("            ").append(target).append(" target = new ").append(target).append("();\n")
+                    .append(loopStatements)
+                    .append("            targets[i] = target;\n")
+                    .append("        }\n")
+                    .append("    }\n\n")
+                    .append("    @Override\n")
+                    .append("    protected void mergeTargetInstances(Object[] sources, Object[] targets, int from, int to) {\n")
+                    .append("        for (int i = from; i < to; i++) {\n")
+                    .append("            ").append(source).append(" source = (").append(source).append(") sources[i];\n")
+                    .append("            ").append(target).append(" target = (").append(target).append(") targets[i];\n")
+                    .append("            if (target == null) {\n")
+                    .append("                target = new ").append(target).append("();\n")
+                    .append("                targets[i] = target;\n")
+                    .append("            }\n")
+                    .append(loopStatements)
+                    .append("        }\n")
+                    .append("    }\n\n")
+                    .append("    @Override\n")
+                    .append("    public Class<").append(target).append("> getTargetClass() {\n")
+                    .append("        return ").append(target).append(".class;\n")
+                    .append("    }\n\n")
+                    .append("    @Override\n")
+                    .append("    public Class<").append(source).append("> getSourceClass() {\n")
+                    .append("        return ").append(source).append(".class;\n")
+                    .append("    }\n")
+                    .append("}\n");
+            return out.toString();
+        }
+
+        private void verifyClasses() {
+            if (!isAccessible(targetClass) || !isAccessible(sourceClass)) {
+                throw new SkipException("target class and source class must be public");
+            }
+            if (!targetClass.getTypeParameters().isEmpty() || !sourceClass.getTypeParameters().isEmpty()) {
+                throw new SkipException("generic classes are not supported");
+            }
+            if (targetClass.getModifiers().contains(Modifier.ABSTRACT)) {
+                throw new SkipException("target class is abstract");
+            }
+            boolean hasDefaultConstructor = ElementFilter.constructorsIn(targetClass.getEnclosedElements()).stream()
+                    .anyMatch(constructor -> constructor.getParameters().isEmpty()
+                            && constructor.getModifiers().contains(Modifier.PUBLIC));
+            if (!hasDefaultConstructor) {
+                throw new SkipException("target class does not have a public no-arg constructor");
+            }
+        }
+
+        private void writeItem(VariableElement field) {
+            AnnotationMirror dataMapping = findDataMapping(field);
+            if (Boolean.TRUE.equals(annotationValue(dataMapping, "needDeepCopy"))) {
+                throw new SkipException("deep copy of " + field.getSimpleName() + " is only generated at runtime");
+            }
+            String sourcePropertyName = (String) annotationValue(dataMapping, "sourceProperty"),
+                    targetPropertyName = field.getSimpleName().toString();
+            if (sourcePropertyName.indexOf('.') >= 0) {
+                throw new SkipException("source path " + sourcePropertyName + " is only generated at runtime");
+            }
+            ExecutableElement getter = sourceGetters.get(sourcePropertyName),
+                    setter = findSetter(field, targetPropertyName);
+            if (getter == null || setter == null) {
+                throw new SkipException("can not find accessors of " + targetPropertyName);
+            }
+            TypeMirror valueType = ((ExecutableType) types.asMemberOf((DeclaredType) sourceClass.asType(), getter)).getReturnType(),
+                    setterType = ((ExecutableType) types.asMemberOf((DeclaredType) targetClass.asType(), setter)).getParameterTypes().get(0);
+            boolean fieldAccess = Boolean.TRUE.equals(annotationValue(dataMapping, "fieldAccess"));
+            String read = getter.getSimpleName() + "()",
+                    value = "value" + valueCount++;
+            if (fieldAccess && canAccess(findField(sourceClass, sourcePropertyName), sourceClass, valueType, false)) {
+                read = sourcePropertyName;
+            }
+
+            statements.append("        {\n");
+            String indent = "            ";
+            statements.append(indent).append(valueType).append(" ").append(value)
+                    .append(" = source.").append(read).append(";\n");
+            int openedGuards = 0;
+
+            TypeElement converterClass = asTypeElement(annotationValue(dataMapping, "converter"));
+            if (!converterClass.getQualifiedName().contentEquals(DEFAULT_CONVERTER_NAME)) {
+                ExecutableType converterMethod = resolveConverterMethod(converterClass, valueType, setterType, targetPropertyName);
+                TypeMirror parameterType = converterMethod.getParameterTypes().get(0);
+                String converterField = BeanTransformer.Generater.CONVERTER_FIELD_PREFIX
+                        + "_From_" + sourcePropertyName + "_To_" + targetPropertyName,
+                        converterType = converterClass.getQualifiedName().toString();
+                converterFields.append("    private final ").append(converterType).append(" ").append(converterField)
+                        .append("\n            = (").append(converterType).append(") ")
+                        .append(ConverterRegistry.class.getName()).append(".getConverter(")
+                        .append(converterType).append(".class);\n");
+                if (needNullGuard(valueType, parameterType)) {
+                    statements.append(indent).append("if (").append(value).append(" != null) {\n");
+                    indent += "    ";
+                    openedGuards++;
+                }
+                String converted = "value" + valueCount++;
+                statements.append(indent).append(converterMethod.getReturnType()).append(" ").append(converted)
+                        .append(" = this.").append(converterField).append(".").append(methodNameOf(converterClass))
+                        .append("(").append(adapt(value, valueType, parameterType)).append(");\n");
+                value = converted;
+                valueType = converterMethod.getReturnType();
+            } else if (!canAdapt(valueType, setterType)) {
+                throw new SkipException("type of " + targetPropertyName + " can not be adapted from source property");
+            }
+
+            if (needNullGuard(valueType, setterType)) {
+                statements.append(indent).append("if (").append(value).append(" != null) {\n");
+                indent += "    ";
+                openedGuards++;
+            }
+            if (fieldAccess && canAccess(field, targetClass, setterType, true)) {
+                statements.append(indent).append("target.").append(targetPropertyName)
+                        .append(" = ").append(adapt(value, valueType, setterType)).append(";\n");
+            } else {
+                statements.append(indent).append("target.").append(setter.getSimpleName())
+                        .append("(").append(adapt(value, valueType, setterType)).append(");\n");
+            }
+            for (; openedGuards > 0; openedGuards--) {
+                indent = indent.substring(4);
+                statements.append(indent).append("}\n");
+            }
+            statements.append("        }\n");
+        }
+
+        private VariableElement findField(TypeElement typeElement, String fieldName) {
+            return ElementFilter.fieldsIn(elements.getAllMembers(typeElement)).stream()
+                    .filter(field -> field.getSimpleName().contentEquals(fieldName))
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        /**
+         * the rules of {@link DataMapping#fieldAccess()}, the generated class is in the package of target class
+         */
+        private boolean canAccess(VariableElement field, TypeElement owner, TypeMirror propertyType, boolean written) {
+            if (field == null) {
+                return false;
+            }
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.STATIC) || (written && modifiers.contains(Modifier.FINAL))
+                    || !types.isSameType(types.asMemberOf((DeclaredType) owner.asType(), field), propertyType)) {
+                return false;
+            }
+            return modifiers.contains(Modifier.PUBLIC) || (!modifiers.contains(Modifier.PRIVATE)
+                    && elements.getPackageOf(field).getQualifiedName().contentEquals(packageName));
+        }
+
+        private String methodNameOf(TypeElement converterClass) {
+            return contractOf(converterClass).getMethodName();
+        }
+
+        private ConverterContract contractOf(TypeElement converterClass) {
+            TypeMirror erasedConverter = types.erasure(converterClass.asType());
+            for (ConverterContract contract : ConverterContract.values()) {
+                TypeElement contractInterface = elements.getTypeElement(contract.getInterfaceClass().getName());
+                if (types.isAssignable(erasedConverter, types.erasure(contractInterface.asType()))) {
+                    return contract;
+                }
+            }
+            throw new SkipException("converter " + converterClass + " does not implement any supported functional interface");
+        }
+
+        /**
+         * choose the converter method like {@link com.lzh.beanmapping.common.util.beanmapping.MappingInfoItem} does,
+         * with the types seen from the converter class so type arguments of generic base converters are resolved
+         */
+        private ExecutableType resolveConverterMethod(TypeElement converterClass, TypeMirror valueType, TypeMirror setterType,
+                                                      String targetPropertyName) {
+            if (!isAccessible(converterClass)) {
+                throw new SkipException("converter " + converterClass + " is not public");
+            }
+            String methodName = methodNameOf(converterClass);
+            DeclaredType converterType = (DeclaredType) types.erasure(converterClass.asType());
+            List<ExecutableType> candidates = new ArrayList<>();
+            for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(converterClass))) {
+                if (method.getSimpleName().contentEquals(methodName)
+                        && method.getParameters().size() == 1
+                        && method.getModifiers().contains(Modifier.PUBLIC)
+                        && !method.getModifiers().contains(Modifier.STATIC)) {
+                    ExecutableType methodType = (ExecutableType) types.asMemberOf(converterType, method);
+                    if (canAdapt(valueType, methodType.getParameterTypes().get(0))) {
+                        candidates.add(methodType);
+                    }
+                }
+            }
+            return candidates.stream()
+                    .filter(methodType -> canAdapt(methodType.getReturnType(), setterType))
+                    .findFirst()
+                    .orElseThrow(() -> new SkipException("converter of " + targetPropertyName + " does not match the property types"));
+        }
+
+        /**
+         * find getters (get or is) of public instance methods, keyed by property name, is is preferred
+         */
+        private Map<String, ExecutableElement> collectGetters(TypeElement typeElement) {
+            Map<String, ExecutableElement> getters = new HashMap<>();
+            for (ExecutableElement method : publicInstanceMethodsOf(typeElement)) {
+                String name = method.getSimpleName().toString();
+                if (method.getParameters().isEmpty() && method.getReturnType().getKind() != TypeKind.VOID) {
+                    if (name.startsWith("is") && name.length() > 2 && method.getReturnType().getKind() == TypeKind.BOOLEAN) {
+                        getters.put(Introspector.decapitalize(name.substring(2)), method);
+                    } else if (name.startsWith("get") && name.length() > 3) {
+                        getters.putIfAbsent(Introspector.decapitalize(name.substring(3)), method);
+                    }
+                }
+            }
+            return getters;
+        }
+
+        /**
+         * find the setter candidates of public instance methods, keyed by property name.
+         * setters follow {@link com.lzh.beanmapping.common.util.BeanMetadata#getProperty(String)}: set with any return type,
+         * with and fluent returning void or the bean itself
+         */
+        private Map<String, List<ExecutableElement>> collectSetters(TypeElement typeElement) {
+            Map<String, List<ExecutableElement>> setters = new HashMap<>();
+            for (ExecutableElement method : publicInstanceMethodsOf(typeElement)) {
+                if (method.getParameters().size() != 1) {
+                    continue;
+                }
+                String name = method.getSimpleName().toString();
+                if (name.startsWith("set") && name.length() > 3) {
+                    setters.computeIfAbsent(Introspector.decapitalize(name.substring(3)), key -> new ArrayList<>()).add(method);
+                }
+                TypeMirror returnType = method.getReturnType();
+                if (returnType.getKind() == TypeKind.VOID || types.isAssignable(typeElement.asType(), returnType)) {
+                    if (name.startsWith("with") && name.length() > 4) {
+                        setters.computeIfAbsent(Introspector.decapitalize(name.substring(4)), key -> new ArrayList<>()).add(method);
+                    }
+                    setters.computeIfAbsent(name, key -> new ArrayList<>()).add(method);
+                }
+            }
+            return setters;
+        }
+
+        private List<ExecutableElement> publicInstanceMethodsOf(TypeElement typeElement) {
+            List<ExecutableElement> methods = new ArrayList<>();
+            for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(typeElement))) {
+                if (method.getModifiers().contains(Modifier.PUBLIC) && !method.getModifiers().contains(Modifier.STATIC)) {
+                    methods.add(method);
+                }
+            }
+            return methods;
+        }
+
+        /**
+         * choose the setter like {@code PropertyScanner} does: when the target property has a getter only the setters
+         * accepting its erased type are candidates, then set is preferred to with and with to fluent.
+         * an ambiguous setter is an error, as it is for the runtime generation
+         */
+        private ExecutableElement findSetter(VariableElement field, String propertyName) {
+            List<ExecutableElement> candidates = targetSetters.get(propertyName);
+            if (candidates == null) {
+                return null;
+            }
+            ExecutableElement getter = targetGetters.get(propertyName);
+            TypeMirror propertyType = getter == null ? null : types.erasure(getter.getReturnType());
+            ExecutableElement found = null;
+            int foundRank = Integer.MAX_VALUE;
+            boolean ambiguous = false;
+            for (ExecutableElement candidate : candidates) {
+                if (propertyType != null && !types.isSameType(types.erasure(candidate.getParameters().get(0).asType()), propertyType)) {
+                    continue;
+                }
+                String name = candidate.getSimpleName().toString();
+                int rank = name.equals(propertyName) ? 2 : name.startsWith("set") ? 0 : 1;
+                if (rank < foundRank) {
+                    found = candidate;
+                    foundRank = rank;
+                    ambiguous = false;
+                } else if (rank == foundRank) {
+                    ambiguous = true;
+                }
+            }
+            if (ambiguous) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "setter of property " + propertyName + " of class "
+                        + targetClass + " is ambiguous", field);
+                throw new SkipException("setter of " + propertyName + " is ambiguous");
+            }
+            return found;
+        }
+    }
+
+    /**
+     * the rules of {@link com.lzh.beanmapping.common.util.beanmapping.TypeAdapter} on {@link TypeMirror}
+     */
+    private boolean canAdapt(TypeMirror from, TypeMirror to) {
+        if (types.isSameType(from, to)) {
+            return true;
+        }
+        if (from.getKind().isPrimitive()) {
+            if (to.getKind().isPrimitive()) {
+                return types.isAssignable(from, to);
+            }
+            TypeMirror unboxedTo = unboxedOrNull(to);
+            if (unboxedTo != null) {
+                return types.isAssignable(from, unboxedTo);
+            }
+            return types.isAssignable(types.boxedClass((PrimitiveType) from).asType(), to);
+        }
+        TypeMirror unboxedFrom = unboxedOrNull(from);
+        if (to.getKind().isPrimitive()) {
+            return unboxedFrom != null && types.isAssignable(unboxedFrom, to);
+        }
+        if (types.isAssignable(from, to)) {
+            return true;
+        }
+        TypeMirror unboxedTo = unboxedOrNull(to);
+        return unboxedFrom != null && unboxedTo != null && types.isAssignable(unboxedFrom, unboxedTo);
+    }
+
+    private boolean needNullGuard(TypeMirror from, TypeMirror to) {
+        return !from.getKind().isPrimitive() && to.getKind().isPrimitive();
+    }
+
+    /**
+     * java converts primitives and wrappers by itself in method invocation, except from a primitive or a wrapper
+     * to another wrapper, which is done with valueOf of the wrapper like the runtime generated code does
+     */
+    private String adapt(String value, TypeMirror from, TypeMirror to) {
+        if (types.isSameType(from, to) || unboxedOrNull(to) == null
+                || (!from.getKind().isPrimitive() && unboxedOrNull(from) == null)) {
+            return value;
+        }
+        String boxed = to + ".valueOf(" + value + ")";
+        return from.getKind().isPrimitive() ? boxed : value + " == null ? null : " + boxed;
+    }
+
+    private TypeMirror unboxedOrNull(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        try {
+            return types.unboxedType(type);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.lzh.beanmapping.common.converter;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * compare the built-in converters with the parsing they replace.
+ * it is not run by the unit tests, run {@link #main(String[])} from the test classpath instead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConverterBenchmark {
+    private final StringToDateConverter stringToDateConverter = new StringToDateConverter();
+    private final StringToLocalDateConverter stringToLocalDateConverter = new StringToLocalDateConverter();
+    private final StringToIntConverter stringToIntConverter = new StringToIntConverter();
+
+    private String usDate = "01/01/2018";
+    private String isoDate = "2018-01-01";
+    private String number = "-1234567";
+
+    @Benchmark
+    public Date legacyDateConstructor() {
+        return new Date(usDate);
+    }
+
+    @Benchmark
+    public Date stringToDate() {
+        return stringToDateConverter.apply(usDate);
+    }
+
+    @Benchmark
+    public LocalDate stringToLocalDate() {
+        return stringToLocalDateConverter.apply(isoDate);
+    }
+
+    @Benchmark
+    public Integer boxedParseInt() {
+        return Integer.valueOf(number);
+    }
+
+    @Benchmark
+    public int stringToInt() {
+        return stringToIntConverter.applyAsInt(number);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ConverterBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
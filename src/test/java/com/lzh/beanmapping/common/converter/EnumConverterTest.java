@@ -0,0 +1,94 @@
+package com.lzh.beanmapping.common.converter;
+
+import com.lzh.beanmapping.common.PropertiesSourceObject;
+import com.lzh.beanmapping.common.annotation.DataMapping;
+import com.lzh.beanmapping.common.util.beanmapping.BeanTransformer;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+public class EnumConverterTest {
+
+    @Test
+    public void canConvertBetweenEnumAndNameOrOrdinal() {
+        assertThat(new ColorNameConverter().apply("GREEN")).isEqualTo(Color.GREEN);
+        assertThat(new ColorNameConverter().apply(null)).isNull();
+        assertThat(new ColorOrdinalConverter().apply(2)).isEqualTo(Color.BLUE);
+        assertThat(new EnumToStringConverter().apply(Color.RED)).isEqualTo("RED");
+        assertThat(new EnumToOrdinalConverter().applyAsInt(Color.BLUE)).isEqualTo(2);
+        assertThatThrownBy(() -> new ColorNameConverter().apply("PINK")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ColorOrdinalConverter().apply(3)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void canMapEnumPropertiesWithGenericConverters() {
+        //given
+        ColorSource source = new ColorSource();
+        source.setName("GREEN");
+        source.setOrdinal(2);
+
+        //when
+        ColorTarget target = BeanTransformer.newInstance(ColorTarget.class, ColorSource.class)
+                .getTargetInstanceFrom(source);
+
+        //then
+        assertThat(target.getByName()).isEqualTo(Color.GREEN);
+        assertThat(target.getByOrdinal()).isEqualTo(Color.BLUE);
+    }
+
+    public enum Color {
+        RED, GREEN, BLUE
+    }
+
+    public static class ColorNameConverter extends AbstractStringToEnumConverter<Color> {
+    }
+
+    public static class ColorOrdinalConverter extends AbstractOrdinalToEnumConverter<Color> {
+    }
+
+    public static class ColorSource implements PropertiesSourceObject {
+        private String name;
+        private int ordinal;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getOrdinal() {
+            return ordinal;
+        }
+
+        public void setOrdinal(int ordinal) {
+            this.ordinal = ordinal;
+        }
+    }
+
+    public static class ColorTarget {
+        @DataMapping(sourceClass = ColorSource.class, sourceProperty = "name", converter = ColorNameConverter.class)
+        private Color byName;
+        @DataMapping(sourceClass = ColorSource.class, sourceProperty = "ordinal", converter = ColorOrdinalConverter.class)
+        private Color byOrdinal;
+
+        public Color getByName() {
+            return byName;
+        }
+
+        public void setByName(Color byName) {
+            this.byName = byName;
+        }
+
+        public Color getByOrdinal() {
+            return byOrdinal;
+        }
+
+        public void setByOrdinal(Color byOrdinal) {
+            this.byOrdinal = byOrdinal;
+        }
+    }
+}
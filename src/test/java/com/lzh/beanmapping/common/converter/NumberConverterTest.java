@@ -0,0 +1,41 @@
+package com.lzh.beanmapping.common.converter;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+public class NumberConverterTest {
+
+    @Test
+    public void canParseIntAndLong() {
+        assertThat(new StringToIntConverter().applyAsInt("123")).isEqualTo(123);
+        assertThat(new StringToIntConverter().applyAsInt("+7")).isEqualTo(7);
+        assertThat(new StringToIntConverter().applyAsInt(String.valueOf(Integer.MIN_VALUE))).isEqualTo(Integer.MIN_VALUE);
+        assertThat(new StringToIntConverter().applyAsInt(String.valueOf(Integer.MAX_VALUE))).isEqualTo(Integer.MAX_VALUE);
+        assertThat(new StringToLongConverter().applyAsLong(String.valueOf(Long.MIN_VALUE))).isEqualTo(Long.MIN_VALUE);
+        assertThat(new StringToLongConverter().applyAsLong(String.valueOf(Long.MAX_VALUE))).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void shouldRejectIllegalNumbers() {
+        StringToIntConverter SUT = new StringToIntConverter();
+        for (String illegal : new String[]{null, "", "-", "1a", "2147483648", "-2147483649", " 1"}) {
+            assertThatThrownBy(() -> SUT.applyAsInt(illegal)).isInstanceOf(NumberFormatException.class);
+        }
+        assertThatThrownBy(() -> new StringToLongConverter().applyAsLong("9223372036854775808"))
+                .isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    public void canFormatNumbers() {
+        assertThat(new IntToStringConverter().apply(-42)).isEqualTo("-42");
+        assertThat(new LongToStringConverter().apply(Long.MAX_VALUE)).isEqualTo("9223372036854775807");
+        assertThat(new BigDecimalToStringConverter().apply(new BigDecimal("1E+3"))).isEqualTo("1000");
+        assertThat(new StringToBigDecimalConverter().apply("12.50")).isEqualTo(new BigDecimal("12.50"));
+        assertThat(new StringToBigDecimalConverter().apply(null)).isNull();
+    }
+}
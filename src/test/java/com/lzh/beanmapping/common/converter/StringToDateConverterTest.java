@@ -3,6 +3,7 @@ package com.lzh.beanmapping.common.converter;
 import org.junit.Test;
 
 import java.util.Date;
+import java.util.TimeZone;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -25,4 +26,43 @@ public class StringToDateConverterTest {
         assertThat(result.getMonth() + 1).isEqualTo(1);
         assertThat(result.getYear() + 1900).isEqualTo(2018);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void canConvertStringWithTimeToDate() {
+        //when
+        Date result = SUT.apply("01/02/2018 03:04:05");
+
+        //then
+        assertThat(result).isEqualTo(new Date(2018 - 1900, 0, 2, 3, 4, 5));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionWhenFormatDoesNotMatch() {
+        SUT.apply("2018-01-01");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionWhenDayIsOutOfRange() {
+        SUT.apply("02/30/2018");
+    }
+
+    @Test
+    public void shouldFollowChangeOfDefaultTimeZone() {
+        //given
+        TimeZone defaultZone = TimeZone.getDefault();
+        Date utc, tokyo;
+
+        //when
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+            utc = SUT.apply("01/01/2018");
+            TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+            tokyo = SUT.apply("01/01/2018");
+        } finally {
+            TimeZone.setDefault(defaultZone);
+        }
+
+        //then
+        assertThat(utc.getTime() - tokyo.getTime()).isEqualTo(9 * 60 * 60 * 1000L);
+    }
+}
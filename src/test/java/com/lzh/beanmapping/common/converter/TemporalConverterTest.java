@@ -0,0 +1,49 @@
+package com.lzh.beanmapping.common.converter;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class TemporalConverterTest {
+
+    @Test
+    public void canConvertBetweenStringAndTemporal() {
+        assertThat(new StringToLocalDateConverter().apply("2018-01-02")).isEqualTo(LocalDate.of(2018, 1, 2));
+        assertThat(new LocalDateToStringConverter().apply(LocalDate.of(2018, 1, 2))).isEqualTo("2018-01-02");
+        assertThat(new StringToLocalDateTimeConverter().apply("2018-01-02T03:04:05"))
+                .isEqualTo(LocalDateTime.of(2018, 1, 2, 3, 4, 5));
+        assertThat(new LocalDateTimeToStringConverter().apply(LocalDateTime.of(2018, 1, 2, 3, 4, 5)))
+                .isEqualTo("2018-01-02T03:04:05");
+        assertThat(new StringToLocalTimeConverter().apply("03:04")).isEqualTo(LocalTime.of(3, 4));
+        assertThat(new LocalTimeToStringConverter().apply(LocalTime.of(3, 4))).isEqualTo("03:04:00");
+        assertThat(new StringToInstantConverter().apply("1970-01-01T00:00:01Z")).isEqualTo(Instant.ofEpochSecond(1));
+        assertThat(new InstantToStringConverter().apply(Instant.ofEpochSecond(1))).isEqualTo("1970-01-01T00:00:01Z");
+        assertThat(new StringToLocalDateConverter().apply(null)).isNull();
+        assertThat(new LocalDateToStringConverter().apply(null)).isNull();
+    }
+
+    @Test
+    public void canUseCustomFormatter() {
+        assertThat(new DayFirstDateConverter().apply("02/01/2018")).isEqualTo(LocalDate.of(2018, 1, 2));
+    }
+
+    @Test
+    public void canConvertBetweenEpochAndDate() {
+        assertThat(new EpochMillisToDateConverter().apply(1000L)).isEqualTo(new Date(1000L));
+        assertThat(new DateToEpochMillisConverter().applyAsLong(new Date(1000L))).isEqualTo(1000L);
+    }
+
+    public static class DayFirstDateConverter extends StringToLocalDateConverter {
+        public DayFirstDateConverter() {
+            super(DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.lzh.beanmapping.common.util;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * compare the discovery of a few mapped properties of a large bean by {@link Introspector} and by {@link PropertyScanner}.
+ * the caches of both are bypassed, so it measures the first generation of a transformer.
+ * it is not run by the unit tests, run {@link #main(String[])} from the test classpath instead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PropertyDiscoveryBenchmark {
+    private static final String[] MAPPED_PROPERTIES = {"p00", "p05", "p10", "p15"};
+
+    @Benchmark
+    public PropertyDescriptor introspector() throws IntrospectionException {
+        Introspector.flushFromCaches(LargeBean.class);
+        PropertyDescriptor[] descriptors = Introspector.getBeanInfo(LargeBean.class).getPropertyDescriptors();
+        PropertyDescriptor found = null;
+        for (String propertyName : MAPPED_PROPERTIES) {
+            for (PropertyDescriptor descriptor : descriptors) {
+                if (descriptor.getName().equals(propertyName)) {
+                    found = descriptor;
+                }
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public PropertyDescriptor propertyScanner() {
+        PropertyScanner scanner = new PropertyScanner(LargeBean.class);
+        PropertyDescriptor found = null;
+        for (String propertyName : MAPPED_PROPERTIES) {
+            found = scanner.find(propertyName);
+        }
+        return found;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PropertyDiscoveryBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+    public static class LargeBean {
+        private String p00;
+        private String p01;
+        private String p02;
+        private String p03;
+        private String p04;
+        private String p05;
+        private String p06;
+        private String p07;
+        private String p08;
+        private String p09;
+        private String p10;
+        private String p11;
+        private String p12;
+        private String p13;
+        private String p14;
+        private String p15;
+        private String p16;
+        private String p17;
+        private String p18;
+        private String p19;
+
+        public String getP00() {
+            return p00;
+        }
+
+        public void setP00(String p00) {
+            this.p00 = p00;
+        }
+
+        public String getP01() {
+            return p01;
+        }
+
+        public void setP01(String p01) {
+            this.p01 = p01;
+        }
+
+        public String getP02() {
+            return p02;
+        }
+
+        public void setP02(String p02) {
+            this.p02 = p02;
+        }
+
+        public String getP03() {
+            return p03;
+        }
+
+        public void setP03(String p03) {
+            this.p03 = p03;
+        }
+
+        public String getP04() {
+            return p04;
+        }
+
+        public void setP04(String p04) {
+            this.p04 = p04;
+        }
+
+        public String getP05() {
+            return p05;
+        }
+
+        public void setP05(String p05) {
+            this.p05 = p05;
+        }
+
+        public String getP06() {
+            return p06;
+        }
+
+        public void setP06(String p06) {
+            this.p06 = p06;
+        }
+
+        public String getP07() {
+            return p07;
+        }
+
+        public void setP07(String p07) {
+            this.p07 = p07;
+        }
+
+        public String getP08() {
+            return p08;
+        }
+
+        public void setP08(String p08) {
+            this.p08 = p08;
+        }
+
+        public String getP09() {
+            return p09;
+        }
+
+        public void setP09(String p09) {
+            this.p09 = p09;
+        }
+
+        public String getP10() {
+            return p10;
+        }
+
+        public void setP10(String p10) {
+            this.p10 = p10;
+        }
+
+        public String getP11() {
+            return p11;
+        }
+
+        public void setP11(String p11) {
+            this.p11 = p11;
+        }
+
+        public String getP12() {
+            return p12;
+        }
+
+        public void setP12(String p12) {
+            this.p12 = p12;
+        }
+
+        public String getP13() {
+            return p13;
+        }
+
+        public void setP13(String p13) {
+            this.p13 = p13;
+        }
+
+        public String getP14() {
+            return p14;
+        }
+
+        public void setP14(String p14) {
+            this.p14 = p14;
+        }
+
+        public String getP15() {
+            return p15;
+        }
+
+        public void setP15(String p15) {
+            this.p15 = p15;
+        }
+
+        public String getP16() {
+            return p16;
+        }
+
+        public void setP16(String p16) {
+            this.p16 = p16;
+        }
+
+        public String getP17() {
+            return p17;
+        }
+
+        public void setP17(String p17) {
+            this.p17 = p17;
+        }
+
+        public String getP18() {
+            return p18;
+        }
+
+        public void setP18(String p18) {
+            this.p18 = p18;
+        }
+
+        public String getP19() {
+            return p19;
+        }
+
+        public void setP19(String p19) {
+            this.p19 = p19;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.lzh.beanmapping.common.util;
+
+import com.lzh.beanmapping.common.exception.BeanMappingException;
+import org.junit.Test;
+
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestBeanMetadata {
+
+    @Test
+    public void shouldShareMetadataOfSameClass() {
+        //when
+        BeanMetadata first = BeanMetadata.of(TestClassExtendOtherClass.class);
+        BeanMetadata second = BeanMetadata.of(TestClassExtendOtherClass.class);
+
+        //then
+        assertThat(second).isSameAs(first);
+        assertThat(second.getProperty("date")).isSameAs(first.getProperty("date"));
+    }
+
+    @Test
+    public void shouldDescribePropertyAsIntrospector() throws Exception {
+        //given
+        PropertyDescriptor[] expected = Introspector.getBeanInfo(TestClassExtendOtherClass.class).getPropertyDescriptors();
+
+        //when
+        BeanMetadata metadata = BeanMetadata.of(TestClassExtendOtherClass.class);
+
+        //then
+        for (PropertyDescriptor descriptor : expected) {
+            if (!descriptor.getName().equals("class")) {
+                assertThat(metadata.getProperty(descriptor.getName())).isEqualTo(descriptor);
+            }
+        }
+        assertThat(metadata.getProperty("class")).isNull();
+        assertThat(metadata.getProperty("missing")).isNull();
+    }
+
+    @Test
+    public void canFindBooleanGettersAndFluentSetters() throws Exception {
+        //given
+        BeanMetadata metadata = BeanMetadata.of(FluentBean.class);
+
+        //when
+        PropertyDescriptor active = metadata.getProperty("active"),
+                name = metadata.getProperty("name"),
+                count = metadata.getProperty("count"),
+                URL = metadata.getProperty("URL");
+
+        //then
+        assertThat(active.getReadMethod()).isEqualTo(FluentBean.class.getMethod("isActive"));
+        assertThat(active.getWriteMethod()).isEqualTo(FluentBean.class.getMethod("withActive", boolean.class));
+        assertThat(name.getReadMethod()).isNull();
+        assertThat(name.getWriteMethod()).isEqualTo(FluentBean.class.getMethod("name", String.class));
+        assertThat(count.getWriteMethod()).isEqualTo(FluentBean.class.getMethod("setCount", int.class));
+        assertThat(URL.getReadMethod()).isEqualTo(FluentBean.class.getMethod("getURL"));
+        assertThat(metadata.getProperty("equals")).isNull();
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenSetterIsAmbiguous() {
+        assertThatThrownBy(() -> BeanMetadata.of(FluentBean.class).getProperty("value"))
+                .isInstanceOf(BeanMappingException.class);
+    }
+
+    @Test
+    public void shouldNotExposeCachedFields() {
+        //given
+        BeanMetadata metadata = BeanMetadata.of(TestClassExtendOtherClass.class);
+
+        //when
+        Field[] fields = metadata.getDeclaredFields();
+        fields[0] = null;
+
+        //then
+        assertThat(metadata.getDeclaredFields()).doesNotContainNull()
+                .containsExactlyInAnyOrder(TestClassExtendOtherClass.class.getDeclaredFields());
+    }
+
+    public static class FluentBean {
+        private boolean active;
+        private String name;
+        private int count;
+        private String url;
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public FluentBean withActive(boolean active) {
+            this.active = active;
+            return this;
+        }
+
+        public FluentBean name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public FluentBean count(int count) {
+            return this;
+        }
+
+        public FluentBean setCount(int count) {
+            this.count = count;
+            return this;
+        }
+
+        public String getURL() {
+            return url;
+        }
+
+        public void setValue(String value) {
+        }
+
+        public void setValue(Integer value) {
+        }
+    }
+}
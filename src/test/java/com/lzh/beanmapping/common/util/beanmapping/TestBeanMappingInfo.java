@@ -3,6 +3,7 @@ package com.lzh.beanmapping.common.util.beanmapping;
 import com.lzh.beanmapping.common.PropertiesSourceObject;
 import com.lzh.beanmapping.common.annotation.DataMapping;
 import com.lzh.beanmapping.common.converter.StringToDateConverter;
+import com.lzh.beanmapping.common.exception.BeanMappingException;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -16,6 +17,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class TestBeanMappingInfo {
 
@@ -55,6 +57,40 @@ public class TestBeanMappingInfo {
 
     }
 
+    @Test
+    public void shouldParseEachTargetClassOnce() {
+        //when
+        BeanMappingInfo first = BeanMappingInfo.parser(TestTargetClass.class);
+        BeanMappingInfo second = BeanMappingInfo.parser(TestTargetClass.class);
+
+        //then
+        assertThat(second).isSameAs(first);
+        assertThat(second.getMappingInfos().get(TestSourceClass.class))
+                .isSameAs(first.getMappingInfos().get(TestSourceClass.class));
+    }
+
+    @Test
+    public void shouldResolveEachStepOfSourcePath() {
+        //when
+        Set<MappingInfoItem> mappingInfoItems = BeanMappingInfo.parser(TestBeanTransformer.PathTarget.class)
+                .getMappingInfos().get(TestBeanTransformer.PathSource.class);
+
+        //then
+        assertThat(mappingInfoItems).hasSize(2);
+        assertThat(mappingInfoItems).allSatisfy(infoItem -> assertThat(infoItem.getSourcePath())
+                .extracting(PropertyDescriptor::getName)
+                .containsExactly("customer", "address"));
+        assertThat(mappingInfoItems).extracting(infoItem -> infoItem.getSourceGetter().getName())
+                .containsExactlyInAnyOrder("city", "zip");
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenStepOfSourcePathIsUnknown() {
+        assertThatThrownBy(() -> BeanMappingInfo.parser(UnknownPathTarget.class))
+                .isInstanceOf(BeanMappingException.class)
+                .hasMessageContaining("customer.phone.number");
+    }
+
     private Map<String, PropertyDescriptor> getPrpertyDescriptor(Class clazz) throws Exception {
         PropertyDescriptor[] propertyDescriptors = Introspector.getBeanInfo(clazz).getPropertyDescriptors();
         return Arrays.stream(propertyDescriptors)
@@ -109,3 +145,16 @@ class TestTargetClass {
         this.date = date;
     }
 }
+
+class UnknownPathTarget {
+    @DataMapping(sourceClass = TestBeanTransformer.PathSource.class, sourceProperty = "customer.phone.number")
+    private String number;
+
+    public String getNumber() {
+        return number;
+    }
+
+    public void setNumber(String number) {
+        this.number = number;
+    }
+}
@@ -0,0 +1,105 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.util.beanmapping.TestBeanTransformer.TestSourceClass;
+import com.lzh.beanmapping.common.util.beanmapping.TestBeanTransformer.TestTargetClass;
+import com.lzh.beanmapping.common.util.beanmapping.TestMultiSourceTransformer.AssembledTarget;
+import com.lzh.beanmapping.common.util.beanmapping.TestMultiSourceTransformer.OrderSource;
+import com.lzh.beanmapping.common.util.beanmapping.TestMultiSourceTransformer.UserSource;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestBeanTransformUtil {
+
+    @Test
+    public void shouldReturnSameInstanceForSamePair() {
+        //when
+        BeanTransformer<TestTargetClass, TestSourceClass> first
+                = BeanTransformUtil.getInstance(TestTargetClass.class, TestSourceClass.class);
+        BeanTransformer<TestTargetClass, TestSourceClass> second
+                = BeanTransformUtil.getInstance(TestTargetClass.class, TestSourceClass.class);
+
+        //then
+        assertThat(first).isNotNull();
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    public void cachedInstanceCanTransformBean() {
+        //given
+        TestSourceClass source = new TestSourceClass();
+        source.setSourceName("Test");
+        source.setSourceDate("01/01/2018");
+
+        //when
+        TestTargetClass result = BeanTransformUtil.getInstance(TestTargetClass.class, TestSourceClass.class)
+                .getTargetInstanceFrom(source);
+
+        //then
+        assertThat(result.getName()).isEqualTo("Test");
+    }
+
+    @Test
+    public void canCreateNewInstanceFromSource() throws Exception {
+        //given
+        TestSourceClass source = new TestSourceClass();
+        source.setSourceName("Test");
+        source.setSourceDate("01/01/2018");
+
+        //when
+        TestTargetClass result = BeanTransformUtil.newInstanceFrom(TestTargetClass.class, source);
+
+        //then
+        assertThat(result).isNotNull();
+        assertThat(result.getName()).isEqualTo("Test");
+        assertThat(result.getDate()).isEqualTo(new Date("01/01/2018"));
+    }
+
+    @Test
+    public void canMergePropertiesIntoExistingTarget() {
+        //given
+        TestSourceClass source = new TestSourceClass();
+        source.setSourceName("Test");
+        source.setSourceDate("01/01/2018");
+        TestTargetClass target = new TestTargetClass();
+
+        //when
+        TestTargetClass result = BeanTransformUtil.mergeProperties(target, source);
+
+        //then
+        assertThat(result).isSameAs(target);
+        assertThat(target.getName()).isEqualTo("Test");
+    }
+
+    @Test
+    public void shouldReturnNullWhenSourceIsNull() throws Exception {
+        //when
+        TestTargetClass result = BeanTransformUtil.newInstanceFrom(TestTargetClass.class, null);
+
+        //then
+        assertThat(result).isNull();
+    }
+
+    @Test
+    public void shouldNotAllocateWhenSourceClassAlternates() {
+        //given
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        BeanTransformUtil.getInstance(AssembledTarget.class, UserSource.class);
+        BeanTransformUtil.getInstance(AssembledTarget.class, OrderSource.class);
+        long threadId = Thread.currentThread().getId();
+
+        //when
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 10_000; i++) {
+            BeanTransformUtil.getInstance(AssembledTarget.class, UserSource.class);
+            BeanTransformUtil.getInstance(AssembledTarget.class, OrderSource.class);
+        }
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        //then
+        assertThat(allocated).isLessThan(10_000L);
+    }
+}
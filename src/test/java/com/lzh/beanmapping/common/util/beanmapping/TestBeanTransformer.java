@@ -3,13 +3,25 @@ package com.lzh.beanmapping.common.util.beanmapping;
 import com.lzh.beanmapping.common.PropertiesSourceObject;
 import com.lzh.beanmapping.common.annotation.DataMapping;
 import com.lzh.beanmapping.common.converter.StringToDateConverter;
+import com.lzh.beanmapping.common.exception.BeanMappingException;
+import com.lzh.beanmapping.common.util.BeanMetadata;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.cglib.core.DebuggingClassWriter;
 
+import java.beans.PropertyDescriptor;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class TestBeanTransformer {
 
@@ -37,16 +49,341 @@ public class TestBeanTransformer {
         assertThat(resultToVerify.getName()).isEqualTo(sourceName);
     }
 
+    @Test
+    public void testCanTransformCollectionOfBeans() {
+        //given
+        List<TestSourceClass> sources = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            TestSourceClass source = new TestSourceClass();
+            source.setSourceName("Test" + i);
+            source.setSourceDate("01/0" + (i + 1) + "/2018");
+            sources.add(source);
+        }
+
+        //when
+        BeanTransformer<TestTargetClass, TestSourceClass> transformer
+                = BeanTransformer.newInstance(TestTargetClass.class, TestSourceClass.class);
+        List<TestTargetClass> results = transformer.getTargetInstancesFrom(sources);
+
+        //then
+        assertThat(results).hasSize(3);
+        for (int i = 0; i < 3; i++) {
+            assertThat(results.get(i).getName()).isEqualTo("Test" + i);
+            assertThat(results.get(i).getDate()).isEqualTo(new Date("01/0" + (i + 1) + "/2018"));
+        }
+    }
+
+    @Test
+    public void testCanTransformArrayOfBeans() {
+        //given
+        TestSourceClass[] sources = new TestSourceClass[2];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = new TestSourceClass();
+            sources[i].setSourceName("Test" + i);
+            sources[i].setSourceDate("01/01/2018");
+        }
+
+        //when
+        BeanTransformer<TestTargetClass, TestSourceClass> transformer
+                = BeanTransformer.newInstance(TestTargetClass.class, TestSourceClass.class);
+        TestTargetClass[] results = transformer.getTargetInstancesFrom(sources);
+
+        //then
+        assertThat(results).hasSize(2);
+        assertThat(results.getClass().getComponentType()).isEqualTo(TestTargetClass.class);
+        assertThat(results[0].getName()).isEqualTo("Test0");
+        assertThat(results[1].getName()).isEqualTo("Test1");
+    }
+
+    @Test
+    public void testCanTransformInParallelAndKeepOrder() {
+        //given
+        List<TestSourceClass> sources = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            TestSourceClass source = new TestSourceClass();
+            source.setSourceName("Test" + i);
+            source.setSourceDate("01/01/2018");
+            sources.add(source);
+        }
+        ParallelBatchConfig config = new ParallelBatchConfig();
+        config.setPool(new ForkJoinPool(4));
+        config.setParallelThreshold(100);
+        config.setChunkSize(16);
+
+        //when
+        BeanTransformer<TestTargetClass, TestSourceClass> transformer
+                = BeanTransformer.newInstance(TestTargetClass.class, TestSourceClass.class);
+        List<TestTargetClass> results = transformer.getTargetInstancesInParallel(sources, config);
+
+        //then
+        assertThat(results).hasSize(1000);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(results.get(i).getName()).isEqualTo("Test" + i);
+        }
+    }
+
+    @Test
+    public void testCanMapStreamLazilyAndKeepSize() {
+        //given
+        List<TestSourceClass> sources = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            TestSourceClass source = new TestSourceClass();
+            source.setSourceName("Test" + i);
+            source.setSourceDate("01/01/2018");
+            sources.add(source);
+        }
+        BeanTransformer<TestTargetClass, TestSourceClass> transformer
+                = BeanTransformer.newInstance(TestTargetClass.class, TestSourceClass.class);
+
+        //when
+        Spliterator<TestTargetClass> spliterator = transformer.wrap(sources.spliterator());
+        Object[] results = transformer.map(sources.parallelStream()).toArray();
+
+        //then
+        assertThat(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED)).isTrue();
+        assertThat(spliterator.getExactSizeIfKnown()).isEqualTo(100);
+        assertThat(results).hasSize(100);
+        for (int i = 0; i < 100; i++) {
+            assertThat(((TestTargetClass) results[i]).getName()).isEqualTo("Test" + i);
+        }
+    }
+
+    @Test
+    public void testCanTransformWithFluentSettersAndBooleanGetters() {
+        //given
+        FluentSourceClass source = new FluentSourceClass();
+        source.setSourceName("Test");
+        source.setActive(true);
+        source.setCount(3);
+
+        //when
+        FluentTargetClass target = BeanTransformer.newInstance(FluentTargetClass.class, FluentSourceClass.class)
+                .getTargetInstanceFrom(source);
+
+        //then
+        assertThat(target.name).isEqualTo("Test");
+        assertThat(target.active).isTrue();
+        assertThat(target.count).isEqualTo(3);
+    }
+
+    @Test
+    public void testCanGenerateAfterReferencesOfAccessorsAreCleared() throws Exception {
+        //given
+        FluentSourceClass source = new FluentSourceClass();
+        source.setSourceName("Test");
+        source.setActive(true);
+        source.setCount(3);
+        for (String propertyName : Arrays.asList("name", "active", "count")) {
+            clearMethodReferences(BeanMetadata.of(FluentTargetClass.class).getProperty(propertyName));
+        }
+        BeanTransformer.Generater<FluentTargetClass, FluentSourceClass> generater = new BeanTransformer.Generater<>();
+        generater.setTarget(FluentTargetClass.class);
+        generater.setSource(FluentSourceClass.class);
+        generater.setUseCache(false);
+
+        //when
+        FluentTargetClass target = generater.create().getTargetInstanceFrom(source);
+
+        //then
+        assertThat(target.name).isEqualTo("Test");
+        assertThat(target.active).isTrue();
+        assertThat(target.count).isEqualTo(3);
+    }
+
+    /**
+     * drop the accessors kept by {@link PropertyDescriptor} as a collection of its references would,
+     * the descriptor of JDK then looks the setter up again by name and only accepts a void one
+     */
+    private static void clearMethodReferences(PropertyDescriptor descriptor) throws ReflectiveOperationException {
+        for (String refName : Arrays.asList("readMethodRef", "writeMethodRef")) {
+            Field refField = PropertyDescriptor.class.getDeclaredField(refName);
+            refField.setAccessible(true);
+            Object methodRef = refField.get(descriptor);
+            for (String referenceName : Arrays.asList("methodRef", "typeRef")) {
+                Field referenceField = methodRef.getClass().getDeclaredField(referenceName);
+                referenceField.setAccessible(true);
+                Reference reference = (Reference) referenceField.get(methodRef);
+                if (reference != null) {
+                    reference.clear();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCanAccessFieldsDirectly() {
+        //given
+        FieldAccessSource source = new FieldAccessSource();
+        source.sourceName = "Test";
+        source.setSecret("Secret");
+
+        //when
+        FieldAccessTarget target = BeanTransformer.newInstance(FieldAccessTarget.class, FieldAccessSource.class)
+                .getTargetInstanceFrom(source);
+
+        //then
+        assertThat(target.getName()).isEqualTo("Test");
+        assertThat(target.getSecret()).isEqualTo("setter:getter:Secret");
+    }
+
+    @Test
+    public void testCanMergeOnlyChangedProperties() {
+        //given
+        ChangeTrackedSource source = new ChangeTrackedSource();
+        source.setSourceName("Test");
+        source.setSourceCount(3);
+        source.setSourceRatio(0.5d);
+        ChangeTrackedTarget target = new ChangeTrackedTarget();
+        target.setName("Test");
+        target.setCount(1L);
+        target.setRatio(0.5d);
+        target.writes = 0;
+        BeanTransformer<ChangeTrackedTarget, ChangeTrackedSource> transformer
+                = BeanTransformer.newInstance(ChangeTrackedTarget.class, ChangeTrackedSource.class);
+
+        //when
+        long changeMask = transformer.mergeChangedProperties(target, source);
+        long secondMask = transformer.mergeChangedProperties(target, source);
+
+        //then
+        assertThat(transformer.getChangeTrackedProperties()).containsExactly("count", "name", "ratio");
+        assertThat(transformer.getChangedProperties(changeMask)).containsExactly("count");
+        assertThat(changeMask).isEqualTo(1L);
+        assertThat(secondMask).isZero();
+        assertThat(target.getCount()).isEqualTo(3L);
+        assertThat(target.writes).isEqualTo(1);
+    }
+
+    @Test
+    public void testCanMergeChangedPropertiesOfNonGeneratedTransformer() {
+        //given
+        ChangeTrackedSource source = new ChangeTrackedSource();
+        source.setSourceName("Changed");
+        source.setSourceRatio(0.5d);
+        ChangeTrackedTarget target = new ChangeTrackedTarget();
+        target.setRatio(0.5d);
+        target.writes = 0;
+        BeanTransformer<ChangeTrackedTarget, ChangeTrackedSource> transformer
+                = TransformerEngines.METHOD_HANDLE.create(ChangeTrackedTarget.class, ChangeTrackedSource.class);
+
+        //when
+        long changeMask = transformer.mergeChangedProperties(target, source);
 
+        //then
+        assertThat(transformer.getChangedProperties(changeMask)).containsExactly("name");
+        assertThat(target.getName()).isEqualTo("Changed");
+        assertThat(target.writes).isEqualTo(1);
+    }
 
+    @Test
+    public void testCanDiffWithoutWriting() {
+        //given
+        ChangeTrackedSource source = new ChangeTrackedSource();
+        source.setSourceName("Test");
+        source.setSourceCount(3);
+        source.setSourceRatio(0.5d);
+        ChangeTrackedTarget target = new ChangeTrackedTarget();
+        target.setName("Test");
+        target.setCount(1L);
+        target.setRatio(0.5d);
+        target.writes = 0;
+        BeanTransformer<ChangeTrackedTarget, ChangeTrackedSource> transformer
+                = BeanTransformer.newInstance(ChangeTrackedTarget.class, ChangeTrackedSource.class);
+
+        //when
+        long diff = transformer.diff(target, source);
+        source.setSourceCount(null);
+        target.setRatio(null);
+        long diffOfNulls = transformer.diff(target, source);
+
+        //then
+        assertThat(transformer.getChangedProperties(diff)).containsExactly("count");
+        assertThat(transformer.getChangedProperties(diffOfNulls)).containsExactly("ratio");
+        assertThat(target.getCount()).isEqualTo(1L);
+        assertThat(target.writes).isEqualTo(1);
+    }
+
+    @Test
+    public void testCanDiffWithoutAllocation() {
+        //given
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        ChangeTrackedSource source = new ChangeTrackedSource();
+        source.setSourceName("Test");
+        source.setSourceCount(100_000);
+        source.setSourceRatio(1e10d);
+        ChangeTrackedTarget target = new ChangeTrackedTarget();
+        target.setName("Other");
+        target.setCount(100_000L);
+        target.setRatio(2e10d);
+        BeanTransformer<ChangeTrackedTarget, ChangeTrackedSource> transformer
+                = BeanTransformer.newInstance(ChangeTrackedTarget.class, ChangeTrackedSource.class);
+        long mask = transformer.diff(target, source);
+        long threadId = Thread.currentThread().getId();
 
+        //when
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 10_000; i++) {
+            mask |= transformer.diff(target, source);
+        }
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
 
+        //then
+        assertThat(transformer.getChangedProperties(mask)).containsExactly("name", "ratio");
+        assertThat(allocated).isLessThan(10_000L);
+    }
 
+    @Test
+    public void testCanReadNestedSourcePath() {
+        //given
+        PathAddress address = new PathAddress();
+        address.setCity("Test");
+        address.setZip(510000);
+        PathCustomer customer = new PathCustomer();
+        customer.setAddress(address);
+        PathSource source = new PathSource();
+        source.setCustomer(customer);
+        PathSource sourceWithoutCustomer = new PathSource();
+        PathTarget target = new PathTarget();
+        target.setCity("Kept");
+        BeanTransformer<PathTarget, PathSource> transformer = BeanTransformer.newInstance(PathTarget.class, PathSource.class);
 
+        //when
+        PathTarget transformed = transformer.getTargetInstanceFrom(source);
+        PathTarget merged = transformer.mergeProperties(target, sourceWithoutCustomer);
 
+        //then
+        assertThat(transformed.getCity()).isEqualTo("Test");
+        assertThat(transformed.getZipCode()).isEqualTo(510000L);
+        assertThat(merged.getCity()).isEqualTo("Kept");
+        assertThat(merged.getZipCode()).isZero();
+    }
 
+    @Test
+    public void testCanMergeAllIntoReusedTargets() {
+        //given
+        TestSourceClass[] sources = new TestSourceClass[3];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = new TestSourceClass();
+            sources[i].setSourceName("Test" + i);
+        }
+        TestTargetClass reused = new TestTargetClass();
+        TestTargetClass untouched = new TestTargetClass();
+        TestTargetClass[] targets = {reused, null, untouched};
+        BeanTransformer<TestTargetClass, TestSourceClass> transformer
+                = BeanTransformer.newInstance(TestTargetClass.class, TestSourceClass.class);
 
+        //when
+        transformer.mergeAll(targets, sources, 0, 2);
+        TestTargetClass created = targets[1];
+        transformer.mergeAll(targets, sources);
 
+        //then
+        assertThat(targets[0]).isSameAs(reused);
+        assertThat(targets[1]).isSameAs(created);
+        assertThat(targets[2]).isSameAs(untouched);
+        assertThat(targets).extracting(TestTargetClass::getName).containsExactly("Test0", "Test1", "Test2");
+        assertThatThrownBy(() -> transformer.mergeAll(targets, sources, 1, 4)).isInstanceOf(BeanMappingException.class);
+    }
 
     public static class TestSourceClass implements PropertiesSourceObject {
         private String sourceName;
@@ -93,5 +430,247 @@ public class TestBeanTransformer {
             this.date = date;
         }
     }
-}
 
+    public static class FluentSourceClass implements PropertiesSourceObject {
+        private String sourceName;
+        private boolean active;
+        private int count;
+
+        public String getSourceName() {
+            return sourceName;
+        }
+
+        public void setSourceName(String sourceName) {
+            this.sourceName = sourceName;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public void setActive(boolean active) {
+            this.active = active;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+    }
+
+    public static class FluentTargetClass {
+        @DataMapping(sourceClass = FluentSourceClass.class, sourceProperty = "sourceName")
+        private String name;
+
+        @DataMapping(sourceClass = FluentSourceClass.class, sourceProperty = "active")
+        private boolean active;
+
+        @DataMapping(sourceClass = FluentSourceClass.class, sourceProperty = "count")
+        private int count;
+
+        public FluentTargetClass name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public FluentTargetClass withActive(boolean active) {
+            this.active = active;
+            return this;
+        }
+
+        public FluentTargetClass setCount(int count) {
+            this.count = count;
+            return this;
+        }
+    }
+
+    public static class FieldAccessSource implements PropertiesSourceObject {
+        String sourceName;
+        private String secret;
+
+        public String getSourceName() {
+            return "getter:" + sourceName;
+        }
+
+        public void setSourceName(String sourceName) {
+            this.sourceName = sourceName;
+        }
+
+        public String getSecret() {
+            return "getter:" + secret;
+        }
+
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+    }
+
+    /**
+     * the accessors decorate the value, so the result tells whether the field or the accessor is used
+     */
+    public static class FieldAccessTarget {
+        @DataMapping(sourceClass = FieldAccessSource.class, sourceProperty = "sourceName", fieldAccess = true)
+        String name;
+
+        @DataMapping(sourceClass = FieldAccessSource.class, sourceProperty = "secret", fieldAccess = true)
+        private String secret;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = "setter:" + name;
+        }
+
+        public String getSecret() {
+            return secret;
+        }
+
+        public void setSecret(String secret) {
+            this.secret = "setter:" + secret;
+        }
+    }
+
+    public static class ChangeTrackedSource implements PropertiesSourceObject {
+        private String sourceName;
+        private Integer sourceCount;
+        private double sourceRatio;
+
+        public String getSourceName() {
+            return sourceName;
+        }
+
+        public void setSourceName(String sourceName) {
+            this.sourceName = sourceName;
+        }
+
+        public Integer getSourceCount() {
+            return sourceCount;
+        }
+
+        public void setSourceCount(Integer sourceCount) {
+            this.sourceCount = sourceCount;
+        }
+
+        public double getSourceRatio() {
+            return sourceRatio;
+        }
+
+        public void setSourceRatio(double sourceRatio) {
+            this.sourceRatio = sourceRatio;
+        }
+    }
+
+    public static class ChangeTrackedTarget {
+        private int writes;
+
+        @DataMapping(sourceClass = ChangeTrackedSource.class, sourceProperty = "sourceName")
+        private String name;
+
+        @DataMapping(sourceClass = ChangeTrackedSource.class, sourceProperty = "sourceCount")
+        private long count;
+
+        @DataMapping(sourceClass = ChangeTrackedSource.class, sourceProperty = "sourceRatio")
+        private Double ratio;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            writes++;
+            this.name = name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            writes++;
+            this.count = count;
+        }
+
+        public Double getRatio() {
+            return ratio;
+        }
+
+        public void setRatio(Double ratio) {
+            writes++;
+            this.ratio = ratio;
+        }
+    }
+
+    public static class PathSource implements PropertiesSourceObject {
+        private PathCustomer customer;
+
+        public PathCustomer getCustomer() {
+            return customer;
+        }
+
+        public void setCustomer(PathCustomer customer) {
+            this.customer = customer;
+        }
+    }
+
+    public static class PathCustomer {
+        private PathAddress address;
+
+        public PathAddress getAddress() {
+            return address;
+        }
+
+        public void setAddress(PathAddress address) {
+            this.address = address;
+        }
+    }
+
+    public static class PathAddress {
+        private String city;
+        private int zip;
+
+        public String getCity() {
+            return city;
+        }
+
+        public void setCity(String city) {
+            this.city = city;
+        }
+
+        public int getZip() {
+            return zip;
+        }
+
+        public void setZip(int zip) {
+            this.zip = zip;
+        }
+    }
+
+    public static class PathTarget {
+        @DataMapping(sourceClass = PathSource.class, sourceProperty = "customer.address.city")
+        private String city;
+
+        @DataMapping(sourceClass = PathSource.class, sourceProperty = "customer.address.zip")
+        private long zipCode;
+
+        public String getCity() {
+            return city;
+        }
+
+        public void setCity(String city) {
+            this.city = city;
+        }
+
+        public long getZipCode() {
+            return zipCode;
+        }
+
+        public void setZipCode(long zipCode) {
+            this.zipCode = zipCode;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.util.BeanMetadata;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.asm.ClassVisitor;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestBytecodeCacheStrategy {
+    private static final String ENTRY_PREFIX = TestTypeAdapter.PrimitiveTarget.class.getName()
+            + "__" + TestTypeAdapter.PrimitiveSource.class.getName() + "__";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldDefineCachedBytesWithoutGeneratingAgain() throws Exception {
+        //given
+        Path directory = folder.getRoot().toPath();
+        BeanTransformer.Generater<TestTypeAdapter.PrimitiveTarget, TestTypeAdapter.PrimitiveSource> first
+                = new BeanTransformer.Generater<>();
+        BeanTransformer.Generater<TestTypeAdapter.PrimitiveTarget, TestTypeAdapter.PrimitiveSource> second
+                = new BeanTransformer.Generater<TestTypeAdapter.PrimitiveTarget, TestTypeAdapter.PrimitiveSource>() {
+            @Override
+            public void generateClass(ClassVisitor classVisitor) {
+                throw new AssertionError("cached bytes should be used");
+            }
+        };
+        prepare(first, directory);
+        prepare(second, directory);
+        TestTypeAdapter.PrimitiveSource source = new TestTypeAdapter.PrimitiveSource();
+        source.setCount(3);
+
+        //when
+        first.create();
+        BeanTransformer<TestTypeAdapter.PrimitiveTarget, TestTypeAdapter.PrimitiveSource> transformer = second.create();
+
+        //then
+        assertThat(directory.toFile().list()).hasSize(1);
+        assertThat(directory.toFile().list()[0]).startsWith(ENTRY_PREFIX);
+        assertThat(transformer.getTargetInstanceFrom(source).getCount()).isEqualTo(3L);
+    }
+
+    @Test
+    public void shouldReplaceStaleEntry() throws Exception {
+        //given
+        Path directory = folder.getRoot().toPath();
+        Path staleEntry = Files.write(directory.resolve(ENTRY_PREFIX + "stale.class"), new byte[]{1, 2, 3});
+        BeanTransformer.Generater<TestTypeAdapter.PrimitiveTarget, TestTypeAdapter.PrimitiveSource> generater
+                = new BeanTransformer.Generater<>();
+        prepare(generater, directory);
+
+        //when
+        generater.create();
+
+        //then
+        assertThat(staleEntry).doesNotExist();
+        assertThat(directory.toFile().list())
+                .containsExactly(ENTRY_PREFIX + BytecodeCacheStrategy.hashOf(TestTypeAdapter.PrimitiveTarget.class,
+                        TestTypeAdapter.PrimitiveSource.class) + ".class");
+    }
+
+    @Test
+    public void shouldHashElementClassesOfDeepCopiedProperties() {
+        assertThat(BytecodeCacheStrategy.dependenciesOf(TestDeepCopyEmitter.DeepCopyTarget.class, TestDeepCopyEmitter.DeepCopySource.class))
+                .contains(TestDeepCopyEmitter.ItemTarget.class, TestDeepCopyEmitter.ItemSource.class)
+                .doesNotContain(String.class);
+        assertThat(BytecodeCacheStrategy.hashOf(TestDeepCopyEmitter.DeepCopyTarget.class, TestDeepCopyEmitter.DeepCopySource.class))
+                .isNotNull();
+    }
+
+    @Test
+    public void shouldHashClassesOfSourcePathWithoutParsingMapping() {
+        assertThat(BytecodeCacheStrategy.dependenciesOf(TestBeanTransformer.PathTarget.class, TestBeanTransformer.PathSource.class))
+                .contains(TestBeanTransformer.PathCustomer.class, TestBeanTransformer.PathAddress.class);
+        assertThat(BytecodeCacheStrategy.dependenciesOf(UnknownPathTarget.class, TestBeanTransformer.PathSource.class))
+                .contains(TestBeanTransformer.PathCustomer.class);
+    }
+
+    @Test
+    public void shouldHashCodeOfLibraryAndClassesWhichChooseEmittedAccessors() {
+        assertThat(BytecodeCacheStrategy.libraryFingerprint()).hasSize(32);
+        assertThat(BytecodeCacheStrategy.dependenciesOf(TestTypeAdapter.PrimitiveTarget.class, TestTypeAdapter.PrimitiveSource.class))
+                .contains(BeanMetadata.class, ConverterRegistry.class)
+                .extracting(Class::getName).contains("com.lzh.beanmapping.common.util.PropertyScanner");
+    }
+
+    /**
+     * each generater defines its class in a new class loader, as a new process would
+     */
+    private void prepare(BeanTransformer.Generater<?, ?> generater, Path directory) {
+        generater.setTarget(TestTypeAdapter.PrimitiveTarget.class);
+        generater.setSource(TestTypeAdapter.PrimitiveSource.class);
+        generater.setStrategy(new BytecodeCacheStrategy(directory));
+        generater.setClassLoader(new ClassLoader(getClass().getClassLoader()) {
+        });
+    }
+}
@@ -0,0 +1,120 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.PropertiesSourceObject;
+import com.lzh.beanmapping.common.annotation.DataMapping;
+import com.lzh.beanmapping.common.annotation.StatelessConverter;
+import com.lzh.beanmapping.common.exception.BeanMappingException;
+import org.junit.Test;
+
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestConverterRegistry {
+
+    @Test
+    public void shouldShareStatelessConverter() {
+        assertThat(ConverterRegistry.getConverter(UpperCaseConverter.class))
+                .isSameAs(ConverterRegistry.getConverter(UpperCaseConverter.class));
+    }
+
+    @Test
+    public void shouldCreateNewInstanceOfStatefulConverter() {
+        assertThat(ConverterRegistry.getConverter(LengthConverter.class))
+                .isNotSameAs(ConverterRegistry.getConverter(LengthConverter.class));
+    }
+
+    @Test(expected = BeanMappingException.class)
+    public void shouldThrowExceptionWhenConverterIsNotPublic() {
+        BeanTransformer.newInstance(HiddenConverterTarget.class, ConverterSource.class);
+    }
+
+    @Test
+    public void canMapOneSourcePropertyToSeveralTargetPropertiesWithConverters() {
+        //given
+        ConverterSource source = new ConverterSource();
+        source.setName("abc");
+
+        //when
+        ConverterTarget target = BeanTransformer.newInstance(ConverterTarget.class, ConverterSource.class)
+                .getTargetInstanceFrom(source);
+
+        //then
+        assertThat(target.getUpperName()).isEqualTo("ABC");
+        assertThat(target.getNameLength()).isEqualTo(3);
+    }
+
+    public static class ConverterSource implements PropertiesSourceObject {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class ConverterTarget {
+        @DataMapping(sourceClass = ConverterSource.class, sourceProperty = "name", converter = UpperCaseConverter.class)
+        private String upperName;
+        @DataMapping(sourceClass = ConverterSource.class, sourceProperty = "name", converter = LengthConverter.class)
+        private int nameLength;
+
+        public String getUpperName() {
+            return upperName;
+        }
+
+        public void setUpperName(String upperName) {
+            this.upperName = upperName;
+        }
+
+        public int getNameLength() {
+            return nameLength;
+        }
+
+        public void setNameLength(int nameLength) {
+            this.nameLength = nameLength;
+        }
+    }
+
+    public static class HiddenConverterTarget {
+        @DataMapping(sourceClass = ConverterSource.class, sourceProperty = "name", converter = HiddenConverter.class)
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    @StatelessConverter
+    public static final class UpperCaseConverter implements Function<String, String> {
+        @Override
+        public String apply(String value) {
+            return value.toUpperCase();
+        }
+    }
+
+    public static class LengthConverter implements ToIntFunction<String> {
+        @Override
+        public int applyAsInt(String value) {
+            return value.length();
+        }
+    }
+
+    static class HiddenConverter implements Function<String, String> {
+        public HiddenConverter() {
+        }
+
+        @Override
+        public String apply(String value) {
+            return value;
+        }
+    }
+}
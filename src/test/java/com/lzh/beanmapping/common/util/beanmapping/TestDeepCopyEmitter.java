@@ -0,0 +1,489 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.PropertiesSourceObject;
+import com.lzh.beanmapping.common.annotation.DataMapping;
+import com.lzh.beanmapping.common.exception.BeanMappingException;
+import org.junit.Test;
+import org.springframework.core.ResolvableType;
+
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestDeepCopyEmitter {
+
+    @Test
+    public void canDeepCopyCollectionsMapsAndArrays() {
+        //given
+        DeepCopySource source = new DeepCopySource();
+        source.setNames(new ArrayList<>(Arrays.asList("a", "b")));
+        source.setTags(new TreeSet<>(Comparator.reverseOrder()));
+        source.getTags().addAll(Arrays.asList("x", "y"));
+        Map<String, List<Integer>> scores = new HashMap<>();
+        scores.put("k", new ArrayList<>(Arrays.asList(1, 2)));
+        source.setScores(scores);
+        source.setNumbers(new int[]{1, 2, 3});
+        source.setMatrix(new long[][]{{1L}, {2L, 3L}});
+
+        //when
+        DeepCopyTarget target = BeanTransformer.newInstance(DeepCopyTarget.class, DeepCopySource.class)
+                .getTargetInstanceFrom(source);
+
+        //then
+        assertThat(target.getNames()).containsExactly("a", "b").isNotSameAs(source.getNames());
+        assertThat(target.getTags()).containsExactly("y", "x").isNotSameAs(source.getTags());
+        assertThat(target.getScores()).isEqualTo(scores).isNotSameAs(scores);
+        assertThat(target.getScores().get("k")).isNotSameAs(scores.get("k"));
+        assertThat(target.getNumbers()).containsExactly(1, 2, 3).isNotSameAs(source.getNumbers());
+        assertThat(Arrays.deepEquals(target.getMatrix(), source.getMatrix())).isTrue();
+        assertThat(target.getMatrix()[1]).isNotSameAs(source.getMatrix()[1]);
+    }
+
+    @Test
+    public void canDeepCopyNestedBeansWithTheirTransformers() {
+        //given
+        DeepCopySource source = new DeepCopySource();
+        ItemSource first = new ItemSource();
+        first.setItemName("first");
+        ItemSource second = new ItemSource();
+        second.setItemName("second");
+        source.setMainItem(first);
+        source.setItems(Arrays.asList(first, second));
+        source.setItemArray(new ItemSource[]{second});
+
+        //when
+        DeepCopyTarget target = BeanTransformer.newInstance(DeepCopyTarget.class, DeepCopySource.class)
+                .getTargetInstanceFrom(source);
+
+        //then
+        assertThat(target.getMainItem().getName()).isEqualTo("first");
+        assertThat(target.getItems()).extracting(ItemTarget::getName).containsExactly("first", "second");
+        assertThat(target.getItemArray()).hasSize(1);
+        assertThat(target.getItemArray()[0].getName()).isEqualTo("second");
+    }
+
+    @Test
+    public void shouldKeepNullWhenSourcePropertyIsNull() {
+        //when
+        DeepCopyTarget target = BeanTransformer.newInstance(DeepCopyTarget.class, DeepCopySource.class)
+                .getTargetInstanceFrom(new DeepCopySource());
+
+        //then
+        assertThat(target.getNames()).isNull();
+        assertThat(target.getScores()).isNull();
+        assertThat(target.getNumbers()).isNull();
+        assertThat(target.getMainItem()).isNull();
+    }
+
+    @Test(expected = BeanMappingException.class)
+    public void shouldThrowExceptionWhenTypesCanNotBeCopied() {
+        DeepCopyEmitter.kindOf(ResolvableType.forClass(String.class),
+                ResolvableType.forClass(Integer.class));
+    }
+
+    @Test
+    public void shouldCloneDatesInsteadOfSharingThem() {
+        //given
+        ClonedSource source = new ClonedSource();
+        source.setCreatedAt(new Date(1L));
+        source.setHistory(new ArrayList<>(Collections.singletonList(new Date(2L))));
+
+        //when
+        ClonedTarget target = BeanTransformer.newInstance(ClonedTarget.class, ClonedSource.class)
+                .getTargetInstanceFrom(source);
+
+        //then
+        assertThat(target.getCreatedAt()).isEqualTo(new Date(1L)).isNotSameAs(source.getCreatedAt());
+        assertThat(target.getHistory()).containsExactly(new Date(2L));
+        assertThat(target.getHistory().get(0)).isNotSameAs(source.getHistory().get(0));
+    }
+
+    @Test
+    public void shouldSortCopiedBeansByTheirNaturalOrdering() {
+        //given
+        ClonedSource source = new ClonedSource();
+        source.setRankedItems(new TreeSet<>(Comparator.comparing(ItemSource::getItemName).reversed()));
+        for (String name : Arrays.asList("a", "b")) {
+            ItemSource item = new ItemSource();
+            item.setItemName(name);
+            source.getRankedItems().add(item);
+        }
+
+        //when
+        ClonedTarget target = BeanTransformer.newInstance(ClonedTarget.class, ClonedSource.class)
+                .getTargetInstanceFrom(source);
+
+        //then
+        assertThat(target.getRankedItems()).extracting(RankedItemTarget::getName).containsExactly("a", "b");
+    }
+
+    @Test(expected = BeanMappingException.class)
+    public void shouldThrowExceptionWhenMutableValueIsNotMapped() {
+        DeepCopyEmitter.kindOf(ResolvableType.forClass(ItemTarget.class),
+                ResolvableType.forClass(ItemTarget.class));
+    }
+
+    public static class ItemSource implements PropertiesSourceObject {
+        private String itemName;
+
+        public String getItemName() {
+            return itemName;
+        }
+
+        public void setItemName(String itemName) {
+            this.itemName = itemName;
+        }
+    }
+
+    public static class ItemTarget {
+        @DataMapping(sourceClass = ItemSource.class, sourceProperty = "itemName")
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class DeepCopySource implements PropertiesSourceObject {
+        private List<String> names;
+        private SortedSet<String> tags;
+        private Map<String, List<Integer>> scores;
+        private int[] numbers;
+        private long[][] matrix;
+        private ItemSource mainItem;
+        private List<ItemSource> items;
+        private ItemSource[] itemArray;
+
+        public List<String> getNames() {
+            return names;
+        }
+
+        public void setNames(List<String> names) {
+            this.names = names;
+        }
+
+        public SortedSet<String> getTags() {
+            return tags;
+        }
+
+        public void setTags(SortedSet<String> tags) {
+            this.tags = tags;
+        }
+
+        public Map<String, List<Integer>> getScores() {
+            return scores;
+        }
+
+        public void setScores(Map<String, List<Integer>> scores) {
+            this.scores = scores;
+        }
+
+        public int[] getNumbers() {
+            return numbers;
+        }
+
+        public void setNumbers(int[] numbers) {
+            this.numbers = numbers;
+        }
+
+        public long[][] getMatrix() {
+            return matrix;
+        }
+
+        public void setMatrix(long[][] matrix) {
+            this.matrix = matrix;
+        }
+
+        public ItemSource getMainItem() {
+            return mainItem;
+        }
+
+        public void setMainItem(ItemSource mainItem) {
+            this.mainItem = mainItem;
+        }
+
+        public List<ItemSource> getItems() {
+            return items;
+        }
+
+        public void setItems(List<ItemSource> items) {
+            this.items = items;
+        }
+
+        public ItemSource[] getItemArray() {
+            return itemArray;
+        }
+
+        public void setItemArray(ItemSource[] itemArray) {
+            this.itemArray = itemArray;
+        }
+    }
+
+    @Test
+    public void shouldPresizeMapsAndSetsToSourceSize() throws Exception {
+        //given
+        PresizedSource source = new PresizedSource();
+        source.setLabels(new HashMap<>(Collections.singletonMap("k", "v")));
+        source.setCodes(new HashSet<>(Collections.singleton("c")));
+        source.setShared(new ConcurrentHashMap<>(Collections.singletonMap("k", "v")));
+
+        //when
+        PresizedTarget target = BeanTransformer.newInstance(PresizedTarget.class, PresizedSource.class)
+                .getTargetInstanceFrom(source);
+
+        //then
+        assertThat(target.getLabels()).isInstanceOf(LinkedHashMap.class).containsEntry("k", "v");
+        assertThat(target.getCodes()).isInstanceOf(LinkedHashSet.class).containsExactly("c");
+        assertThat(target.getShared()).isInstanceOf(ConcurrentHashMap.class).containsEntry("k", "v");
+        assertThat(tableLength(HashMap.class, target.getLabels())).isEqualTo(2);
+        assertThat(tableLength(HashMap.class, readField(HashSet.class, "map", target.getCodes()))).isEqualTo(2);
+        assertThat(tableLength(ConcurrentHashMap.class, target.getShared())).isEqualTo(2);
+    }
+
+    /**
+     * a map created with the default capacity has 16 buckets after the first put
+     */
+    private static int tableLength(Class mapClass, Object map) throws Exception {
+        return ((Object[]) readField(mapClass, "table", map)).length;
+    }
+
+    private static Object readField(Class owner, String name, Object instance) throws Exception {
+        Field field = owner.getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(instance);
+    }
+
+    public static class DeepCopyTarget {
+        @DataMapping(sourceClass = DeepCopySource.class, sourceProperty = "names", needDeepCopy = true)
+        private List<String> names;
+        @DataMapping(sourceClass = DeepCopySource.class, sourceProperty = "tags", needDeepCopy = true)
+        private SortedSet<String> tags;
+        @DataMapping(sourceClass = DeepCopySource.class, sourceProperty = "scores", needDeepCopy = true)
+        private Map<String, List<Integer>> scores;
+        @DataMapping(sourceClass = DeepCopySource.class, sourceProperty = "numbers", needDeepCopy = true)
+        private int[] numbers;
+        @DataMapping(sourceClass = DeepCopySource.class, sourceProperty = "matrix", needDeepCopy = true)
+        private long[][] matrix;
+        @DataMapping(sourceClass = DeepCopySource.class, sourceProperty = "mainItem", needDeepCopy = true)
+        private ItemTarget mainItem;
+        @DataMapping(sourceClass = DeepCopySource.class, sourceProperty = "items", needDeepCopy = true)
+        private List<ItemTarget> items;
+        @DataMapping(sourceClass = DeepCopySource.class, sourceProperty = "itemArray", needDeepCopy = true)
+        private ItemTarget[] itemArray;
+
+        public List<String> getNames() {
+            return names;
+        }
+
+        public void setNames(List<String> names) {
+            this.names = names;
+        }
+
+        public SortedSet<String> getTags() {
+            return tags;
+        }
+
+        public void setTags(SortedSet<String> tags) {
+            this.tags = tags;
+        }
+
+        public Map<String, List<Integer>> getScores() {
+            return scores;
+        }
+
+        public void setScores(Map<String, List<Integer>> scores) {
+            this.scores = scores;
+        }
+
+        public int[] getNumbers() {
+            return numbers;
+        }
+
+        public void setNumbers(int[] numbers) {
+            this.numbers = numbers;
+        }
+
+        public long[][] getMatrix() {
+            return matrix;
+        }
+
+        public void setMatrix(long[][] matrix) {
+            this.matrix = matrix;
+        }
+
+        public ItemTarget getMainItem() {
+            return mainItem;
+        }
+
+        public void setMainItem(ItemTarget mainItem) {
+            this.mainItem = mainItem;
+        }
+
+        public List<ItemTarget> getItems() {
+            return items;
+        }
+
+        public void setItems(List<ItemTarget> items) {
+            this.items = items;
+        }
+
+        public ItemTarget[] getItemArray() {
+            return itemArray;
+        }
+
+        public void setItemArray(ItemTarget[] itemArray) {
+            this.itemArray = itemArray;
+        }
+    }
+
+    public static class RankedItemTarget implements Comparable<RankedItemTarget> {
+        @DataMapping(sourceClass = ItemSource.class, sourceProperty = "itemName")
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public int compareTo(RankedItemTarget o) {
+            return name.compareTo(o.name);
+        }
+    }
+
+    public static class ClonedSource implements PropertiesSourceObject {
+        private Date createdAt;
+        private List<Date> history;
+        private SortedSet<ItemSource> rankedItems;
+
+        public Date getCreatedAt() {
+            return createdAt;
+        }
+
+        public void setCreatedAt(Date createdAt) {
+            this.createdAt = createdAt;
+        }
+
+        public List<Date> getHistory() {
+            return history;
+        }
+
+        public void setHistory(List<Date> history) {
+            this.history = history;
+        }
+
+        public SortedSet<ItemSource> getRankedItems() {
+            return rankedItems;
+        }
+
+        public void setRankedItems(SortedSet<ItemSource> rankedItems) {
+            this.rankedItems = rankedItems;
+        }
+    }
+
+    public static class ClonedTarget {
+        @DataMapping(sourceClass = ClonedSource.class, sourceProperty = "createdAt", needDeepCopy = true)
+        private Date createdAt;
+        @DataMapping(sourceClass = ClonedSource.class, sourceProperty = "history", needDeepCopy = true)
+        private List<Date> history;
+        @DataMapping(sourceClass = ClonedSource.class, sourceProperty = "rankedItems", needDeepCopy = true)
+        private SortedSet<RankedItemTarget> rankedItems;
+
+        public Date getCreatedAt() {
+            return createdAt;
+        }
+
+        public void setCreatedAt(Date createdAt) {
+            this.createdAt = createdAt;
+        }
+
+        public List<Date> getHistory() {
+            return history;
+        }
+
+        public void setHistory(List<Date> history) {
+            this.history = history;
+        }
+
+        public SortedSet<RankedItemTarget> getRankedItems() {
+            return rankedItems;
+        }
+
+        public void setRankedItems(SortedSet<RankedItemTarget> rankedItems) {
+            this.rankedItems = rankedItems;
+        }
+    }
+
+    public static class PresizedSource implements PropertiesSourceObject {
+        private Map<String, String> labels;
+        private Set<String> codes;
+        private ConcurrentMap<String, String> shared;
+
+        public Map<String, String> getLabels() {
+            return labels;
+        }
+
+        public void setLabels(Map<String, String> labels) {
+            this.labels = labels;
+        }
+
+        public Set<String> getCodes() {
+            return codes;
+        }
+
+        public void setCodes(Set<String> codes) {
+            this.codes = codes;
+        }
+
+        public ConcurrentMap<String, String> getShared() {
+            return shared;
+        }
+
+        public void setShared(ConcurrentMap<String, String> shared) {
+            this.shared = shared;
+        }
+    }
+
+    public static class PresizedTarget {
+        @DataMapping(sourceClass = PresizedSource.class, sourceProperty = "labels", needDeepCopy = true)
+        private Map<String, String> labels;
+        @DataMapping(sourceClass = PresizedSource.class, sourceProperty = "codes", needDeepCopy = true)
+        private Set<String> codes;
+        @DataMapping(sourceClass = PresizedSource.class, sourceProperty = "shared", needDeepCopy = true)
+        private ConcurrentMap<String, String> shared;
+
+        public Map<String, String> getLabels() {
+            return labels;
+        }
+
+        public void setLabels(Map<String, String> labels) {
+            this.labels = labels;
+        }
+
+        public Set<String> getCodes() {
+            return codes;
+        }
+
+        public void setCodes(Set<String> codes) {
+            this.codes = codes;
+        }
+
+        public ConcurrentMap<String, String> getShared() {
+            return shared;
+        }
+
+        public void setShared(ConcurrentMap<String, String> shared) {
+            this.shared = shared;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.converter.StringToDateConverter;
+import com.lzh.beanmapping.common.exception.BeanMappingException;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestMapSourceTransformer {
+
+    @Test
+    public void shouldMapRowByKeysOfSourceProperties() {
+        //given
+        Map<String, Object> row = new HashMap<>();
+        row.put("sourceName", "Test");
+        row.put("sourceDate", "01/01/2018");
+        MapSourceTransformer<TestBeanTransformer.TestTargetClass> transformer
+                = MapSourceTransformer.newInstance(TestBeanTransformer.TestTargetClass.class, TestBeanTransformer.TestSourceClass.class);
+
+        //when
+        TestBeanTransformer.TestTargetClass target = transformer.getTargetInstanceFrom(row);
+
+        //then
+        assertThat(transformer.getTargetClass()).isEqualTo(TestBeanTransformer.TestTargetClass.class);
+        assertThat(target.getName()).isEqualTo("Test");
+        assertThat(target.getDate()).isEqualTo(new StringToDateConverter().apply("01/01/2018"));
+    }
+
+    @Test
+    public void shouldConvertNumbersOfOtherTypes() {
+        //given
+        Map<String, Object> row = new HashMap<>();
+        row.put("sourceCount", 3L);
+        row.put("sourceRatio", new BigDecimal("0.5"));
+        TestBeanTransformer.ChangeTrackedTarget target = new TestBeanTransformer.ChangeTrackedTarget();
+        target.setName("Kept");
+        MapSourceTransformer<TestBeanTransformer.ChangeTrackedTarget> transformer = MapSourceTransformer.newInstance(
+                TestBeanTransformer.ChangeTrackedTarget.class, TestBeanTransformer.ChangeTrackedSource.class);
+
+        //when
+        transformer.mergeProperties(target, row);
+
+        //then
+        assertThat(target.getCount()).isEqualTo(3L);
+        assertThat(target.getRatio()).isEqualTo(0.5d);
+        assertThat(target.getName()).isNull();
+    }
+
+    @Test
+    public void shouldSkipNullOfPrimitiveProperty() {
+        //given
+        Map<String, Object> row = new HashMap<>();
+        row.put("sourceName", "Test");
+        TestBeanTransformer.ChangeTrackedTarget target = new TestBeanTransformer.ChangeTrackedTarget();
+        target.setCount(9L);
+        target.setRatio(1d);
+
+        //when
+        MapSourceTransformer.newInstance(TestBeanTransformer.ChangeTrackedTarget.class, TestBeanTransformer.ChangeTrackedSource.class)
+                .mergeProperties(target, row);
+
+        //then
+        assertThat(target.getName()).isEqualTo("Test");
+        assertThat(target.getCount()).isEqualTo(9L);
+        assertThat(target.getRatio()).isEqualTo(1d);
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenRowClassIsNotMapped() {
+        assertThatThrownBy(() -> MapSourceTransformer.newInstance(
+                TestBeanTransformer.TestTargetClass.class, TestBeanTransformer.ChangeTrackedSource.class))
+                .isInstanceOf(BeanMappingException.class);
+    }
+}
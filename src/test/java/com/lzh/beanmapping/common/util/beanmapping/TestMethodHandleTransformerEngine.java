@@ -0,0 +1,181 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.exception.BeanMappingException;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.text.SimpleDateFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestMethodHandleTransformerEngine {
+    private final TransformerEngine engine = TransformerEngines.METHOD_HANDLE;
+
+    @Test
+    public void canTransformBeanWithoutGeneratedClass() throws Exception {
+        //given
+        TestBeanTransformer.TestSourceClass source = new TestBeanTransformer.TestSourceClass();
+        source.setSourceName("Test");
+        source.setSourceDate("01/01/2018");
+
+        //when
+        BeanTransformer<TestBeanTransformer.TestTargetClass, TestBeanTransformer.TestSourceClass> transformer
+                = engine.create(TestBeanTransformer.TestTargetClass.class, TestBeanTransformer.TestSourceClass.class);
+        TestBeanTransformer.TestTargetClass target = transformer.getTargetInstanceFrom(source);
+
+        //then
+        assertThat(transformer).isInstanceOf(MethodHandleTransformerEngine.MethodHandleTransformer.class);
+        assertThat(transformer.getTargetClass()).isEqualTo(TestBeanTransformer.TestTargetClass.class);
+        assertThat(target.getName()).isEqualTo("Test");
+        assertThat(target.getDate()).isEqualTo(new SimpleDateFormat("MM/dd/yyyy").parse("01/01/2018"));
+    }
+
+    @Test
+    public void shouldAdaptPrimitivesLikeGeneratedTransformer() {
+        //given
+        TestTypeAdapter.PrimitiveSource source = new TestTypeAdapter.PrimitiveSource();
+        source.setCount(3);
+        source.setBoxedCount(null);
+        source.setAmount(5);
+        source.setBoxedAmount(null);
+        TestTypeAdapter.PrimitiveTarget target = new TestTypeAdapter.PrimitiveTarget();
+        target.setBoxedCount(9);
+
+        //when
+        engine.create(TestTypeAdapter.PrimitiveTarget.class, TestTypeAdapter.PrimitiveSource.class).mergeProperties(target, source);
+
+        //then
+        assertThat(target.getCount()).isEqualTo(3L);
+        assertThat(target.getBoxedCount()).isEqualTo(9);
+        assertThat(target.getAmount()).isEqualTo(5L);
+        assertThat(target.getBoxedAmount()).isNull();
+    }
+
+    @Test
+    public void shouldWidenWrappersAndCallPrimitiveConverters() {
+        //given
+        TestTypeAdapter.PrimitiveSource source = new TestTypeAdapter.PrimitiveSource();
+        source.setBoxedAmount(6);
+        source.setText("42");
+        source.setWord("ab");
+        source.setCount(7);
+        source.setBoxedCount(null);
+
+        //when
+        TestTypeAdapter.PrimitiveTarget target = engine
+                .create(TestTypeAdapter.PrimitiveTarget.class, TestTypeAdapter.PrimitiveSource.class)
+                .getTargetInstanceFrom(source);
+        TestTypeAdapter.PrimitiveConverterTarget converted = engine
+                .create(TestTypeAdapter.PrimitiveConverterTarget.class, TestTypeAdapter.PrimitiveSource.class)
+                .getTargetInstanceFrom(source);
+
+        //then
+        assertThat(target.getBoxedAmount()).isEqualTo(6L);
+        assertThat(converted.getParsed()).isEqualTo(42);
+        assertThat(converted.getLabel()).isEqualTo("#7");
+        assertThat(converted.getLength()).isEqualTo(2L);
+        assertThat(converted.getBoxedLabel()).isNull();
+    }
+
+    @Test
+    public void shouldAccessFieldsLikeGeneratedTransformer() {
+        //given
+        TestBeanTransformer.FieldAccessSource source = new TestBeanTransformer.FieldAccessSource();
+        source.setSourceName("Test");
+        source.setSecret("Secret");
+
+        //when
+        TestBeanTransformer.FieldAccessTarget target = engine
+                .create(TestBeanTransformer.FieldAccessTarget.class, TestBeanTransformer.FieldAccessSource.class)
+                .getTargetInstanceFrom(source);
+
+        //then
+        assertThat(target.getName()).isEqualTo("Test");
+        assertThat(target.getSecret()).isEqualTo("setter:getter:Secret");
+    }
+
+    @Test
+    public void shouldReadNestedSourcePathLikeGeneratedTransformer() {
+        //given
+        TestBeanTransformer.PathAddress address = new TestBeanTransformer.PathAddress();
+        address.setCity("Test");
+        address.setZip(7);
+        TestBeanTransformer.PathCustomer customer = new TestBeanTransformer.PathCustomer();
+        customer.setAddress(address);
+        TestBeanTransformer.PathSource source = new TestBeanTransformer.PathSource();
+        source.setCustomer(customer);
+        TestBeanTransformer.PathCustomer customerWithoutAddress = new TestBeanTransformer.PathCustomer();
+        TestBeanTransformer.PathSource sourceWithoutAddress = new TestBeanTransformer.PathSource();
+        sourceWithoutAddress.setCustomer(customerWithoutAddress);
+        BeanTransformer<TestBeanTransformer.PathTarget, TestBeanTransformer.PathSource> transformer
+                = engine.create(TestBeanTransformer.PathTarget.class, TestBeanTransformer.PathSource.class);
+
+        //when
+        TestBeanTransformer.PathTarget transformed = transformer.getTargetInstanceFrom(source);
+        TestBeanTransformer.PathTarget withoutAddress = transformer.getTargetInstanceFrom(sourceWithoutAddress);
+
+        //then
+        assertThat(transformed.getCity()).isEqualTo("Test");
+        assertThat(transformed.getZipCode()).isEqualTo(7L);
+        assertThat(withoutAddress.getCity()).isNull();
+        assertThat(withoutAddress.getZipCode()).isZero();
+    }
+
+    @Test
+    public void shouldTrackChangesLikeGeneratedTransformerWithoutGeneratingIt() throws Exception {
+        //given
+        TestBeanTransformer.ChangeTrackedSource source = new TestBeanTransformer.ChangeTrackedSource();
+        source.setSourceName("Test");
+        source.setSourceRatio(0.5d);
+        TestBeanTransformer.ChangeTrackedTarget target = new TestBeanTransformer.ChangeTrackedTarget();
+        target.setName("Other");
+        target.setCount(1L);
+        target.setRatio(0.5d);
+        BeanTransformer<TestBeanTransformer.ChangeTrackedTarget, TestBeanTransformer.ChangeTrackedSource> transformer
+                = engine.create(TestBeanTransformer.ChangeTrackedTarget.class, TestBeanTransformer.ChangeTrackedSource.class),
+                generated = TransformerEngines.CGLIB.create(TestBeanTransformer.ChangeTrackedTarget.class, TestBeanTransformer.ChangeTrackedSource.class);
+
+        //when
+        long diff = transformer.diff(target, source);
+        long generatedDiff = generated.diff(target, source);
+        source.setSourceCount(1);
+        long diffOfCount = transformer.diff(target, source);
+        long generatedDiffOfCount = generated.diff(target, source);
+        source.setSourceCount(3);
+        long changeMask = transformer.mergeChangedProperties(target, source);
+        long secondMask = transformer.mergeChangedProperties(target, source);
+
+        //then
+        assertThat(transformer.getChangedProperties(diff)).containsExactly("name");
+        assertThat(diff).isEqualTo(generatedDiff);
+        assertThat(diffOfCount).isEqualTo(generatedDiffOfCount);
+        assertThat(transformer.getChangedProperties(changeMask)).containsExactly("count", "name");
+        assertThat(secondMask).isZero();
+        assertThat(target.getName()).isEqualTo("Test");
+        assertThat(target.getCount()).isEqualTo(3L);
+        Field generatedTransformer = BeanTransformer.class.getDeclaredField("generatedTransformer");
+        generatedTransformer.setAccessible(true);
+        assertThat(generatedTransformer.get(transformer)).isNull();
+    }
+
+    @Test
+    public void shouldDelegateDeepCopyToCglib() {
+        //when
+        BeanTransformer transformer = engine.create(TestDeepCopyEmitter.DeepCopyTarget.class, TestDeepCopyEmitter.DeepCopySource.class);
+
+        //then
+        assertThat(transformer).isNotInstanceOf(MethodHandleTransformerEngine.MethodHandleTransformer.class);
+    }
+
+    @Test
+    public void canFindEngineByName() {
+        assertThat(TransformerEngines.forName("cglib")).isSameAs(TransformerEngines.CGLIB);
+        assertThat(TransformerEngines.forName("methodhandle")).isSameAs(TransformerEngines.METHOD_HANDLE);
+        assertThat(TransformerEngines.configured()).isSameAs(TransformerEngines.CGLIB);
+    }
+
+    @Test(expected = BeanMappingException.class)
+    public void shouldThrowExceptionWhenEngineIsUnknown() {
+        TransformerEngines.forName("unknown");
+    }
+}
@@ -0,0 +1,165 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.PropertiesSourceObject;
+import com.lzh.beanmapping.common.annotation.DataMapping;
+import com.lzh.beanmapping.common.converter.StringToDateConverter;
+import com.lzh.beanmapping.common.exception.BeanMappingException;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestMultiSourceTransformer {
+
+    @Test
+    public void shouldFillTargetFromAllSources() {
+        //given
+        UserSource user = new UserSource();
+        user.setName("Test");
+        OrderSource order = new OrderSource();
+        order.setOrderDate("01/01/2018");
+        order.setAmount(12);
+        MultiSourceTransformer<AssembledTarget> transformer
+                = MultiSourceTransformer.newInstance(AssembledTarget.class, UserSource.class, OrderSource.class);
+
+        //when
+        AssembledTarget target = transformer.getTargetInstanceFrom(user, order);
+
+        //then
+        assertThat(transformer.getTargetClass()).isEqualTo(AssembledTarget.class);
+        assertThat(target.getUserName()).isEqualTo("Test");
+        assertThat(target.getOrderDate()).isEqualTo(new StringToDateConverter().apply("01/01/2018"));
+        assertThat(target.getAmount()).isEqualTo(12L);
+    }
+
+    @Test
+    public void shouldSkipPropertiesOfNullSource() {
+        //given
+        OrderSource order = new OrderSource();
+        order.setAmount(3);
+        AssembledTarget target = new AssembledTarget();
+        target.setUserName("Kept");
+        MultiSourceTransformer<AssembledTarget> transformer
+                = MultiSourceTransformer.newInstance(AssembledTarget.class, UserSource.class, OrderSource.class);
+
+        //when
+        AssembledTarget merged = transformer.mergeProperties(target, null, order);
+
+        //then
+        assertThat(merged).isSameAs(target);
+        assertThat(merged.getUserName()).isEqualTo("Kept");
+        assertThat(merged.getAmount()).isEqualTo(3L);
+    }
+
+    @Test
+    public void shouldThrowExceptionNamingSourceClassesWhenSourcesAreMissing() {
+        //given
+        UserSource user = new UserSource();
+        MultiSourceTransformer<AssembledTarget> transformer
+                = MultiSourceTransformer.newInstance(AssembledTarget.class, UserSource.class, OrderSource.class);
+
+        //then
+        assertThatThrownBy(() -> transformer.getTargetInstanceFrom(user))
+                .isInstanceOf(BeanMappingException.class)
+                .hasMessageContaining(UserSource.class.getName())
+                .hasMessageContaining(OrderSource.class.getName());
+    }
+
+    @Test
+    public void shouldFollowOrderOfGivenSourceClasses() {
+        //given
+        UserSource user = new UserSource();
+        user.setName("Test");
+        OrderSource order = new OrderSource();
+        order.setAmount(5);
+
+        //when
+        AssembledTarget target = MultiSourceTransformer
+                .newInstance(AssembledTarget.class, OrderSource.class, UserSource.class)
+                .getTargetInstanceFrom(order, user);
+
+        //then
+        assertThat(target.getUserName()).isEqualTo("Test");
+        assertThat(target.getAmount()).isEqualTo(5L);
+    }
+
+    @Test
+    public void shouldRejectSourceClassNotMappedToTarget() {
+        assertThatThrownBy(() -> MultiSourceTransformer.newInstance(
+                AssembledTarget.class, UserSource.class, TestBeanTransformer.TestSourceClass.class))
+                .isInstanceOf(BeanMappingException.class);
+        assertThatThrownBy(() -> MultiSourceTransformer.newInstance(
+                AssembledTarget.class, UserSource.class, UserSource.class))
+                .isInstanceOf(BeanMappingException.class);
+    }
+
+    public static class UserSource implements PropertiesSourceObject {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class OrderSource implements PropertiesSourceObject {
+        private String orderDate;
+        private int amount;
+
+        public String getOrderDate() {
+            return orderDate;
+        }
+
+        public void setOrderDate(String orderDate) {
+            this.orderDate = orderDate;
+        }
+
+        public int getAmount() {
+            return amount;
+        }
+
+        public void setAmount(int amount) {
+            this.amount = amount;
+        }
+    }
+
+    public static class AssembledTarget {
+        @DataMapping(sourceClass = UserSource.class, sourceProperty = "name")
+        private String userName;
+
+        @DataMapping(sourceClass = OrderSource.class, sourceProperty = "orderDate", converter = StringToDateConverter.class)
+        private Date orderDate;
+
+        @DataMapping(sourceClass = OrderSource.class, sourceProperty = "amount")
+        private Long amount;
+
+        public String getUserName() {
+            return userName;
+        }
+
+        public void setUserName(String userName) {
+            this.userName = userName;
+        }
+
+        public Date getOrderDate() {
+            return orderDate;
+        }
+
+        public void setOrderDate(Date orderDate) {
+            this.orderDate = orderDate;
+        }
+
+        public Long getAmount() {
+            return amount;
+        }
+
+        public void setAmount(Long amount) {
+            this.amount = amount;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestResultSetRowMapper {
+
+    @Test
+    public void shouldMapRowsByLabelsOfColumns() throws SQLException {
+        //given
+        StubResultSet stub = new StubResultSet(new String[]{"SOURCE_RATIO", "source_name", "SourceCount"},
+                new Object[]{0.5d, "Test0", 1},
+                new Object[]{1.5d, "Test1", null});
+        ResultSetRowMapper<TestBeanTransformer.ChangeTrackedTarget> mapper = ResultSetRowMapper.newInstance(
+                TestBeanTransformer.ChangeTrackedTarget.class, TestBeanTransformer.ChangeTrackedSource.class, stub.metaData());
+
+        //when
+        List<TestBeanTransformer.ChangeTrackedTarget> targets = mapper.getTargetInstancesFrom(stub.resultSet());
+
+        //then
+        assertThat(mapper.getTargetClass()).isEqualTo(TestBeanTransformer.ChangeTrackedTarget.class);
+        assertThat(targets).extracting(TestBeanTransformer.ChangeTrackedTarget::getName).containsExactly("Test0", "Test1");
+        assertThat(targets).extracting(TestBeanTransformer.ChangeTrackedTarget::getCount).containsExactly(1L, 0L);
+        assertThat(targets).extracting(TestBeanTransformer.ChangeTrackedTarget::getRatio).containsExactly(0.5d, 1.5d);
+    }
+
+    @Test
+    public void shouldReadPrimitiveGettersInsteadOfGetObject() throws SQLException {
+        //given
+        StubResultSet stub = new StubResultSet(new String[]{"source_count", "source_ratio"},
+                new Object[]{2, 2.5d});
+        ResultSet resultSet = stub.resultSet();
+        resultSet.next();
+
+        //when
+        ResultSetRowMapper.newInstance(TestBeanTransformer.ChangeTrackedTarget.class,
+                TestBeanTransformer.ChangeTrackedSource.class, stub.metaData())
+                .getTargetInstanceFrom(resultSet);
+
+        //then
+        assertThat(stub.calls).containsExactlyInAnyOrder("next", "getInt", "wasNull", "getDouble", "wasNull");
+    }
+
+    @Test
+    public void shouldNotWritePropertyOfNullOrMissingColumn() throws SQLException {
+        //given
+        StubResultSet stub = new StubResultSet(new String[]{"sourceRatio"}, new Object[]{null});
+        ResultSet resultSet = stub.resultSet();
+        resultSet.next();
+        TestBeanTransformer.ChangeTrackedTarget target = new TestBeanTransformer.ChangeTrackedTarget();
+        target.setName("Kept");
+        target.setRatio(3d);
+
+        //when
+        ResultSetRowMapper.newInstance(TestBeanTransformer.ChangeTrackedTarget.class,
+                TestBeanTransformer.ChangeTrackedSource.class, stub.metaData())
+                .mergeProperties(target, resultSet);
+
+        //then
+        assertThat(target.getName()).isEqualTo("Kept");
+        assertThat(target.getRatio()).isEqualTo(3d);
+    }
+
+    /**
+     * a result set over rows in memory, it records the names of the invoked methods
+     */
+    private static class StubResultSet {
+        private final String[] labels;
+        private final List<Object[]> rows;
+        private final List<String> calls = new ArrayList<>();
+        private int row = -1;
+        private boolean wasNull;
+
+        StubResultSet(String[] labels, Object[]... rows) {
+            this.labels = labels;
+            this.rows = Arrays.asList(rows);
+        }
+
+        ResultSetMetaData metaData() {
+            return (ResultSetMetaData) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{ResultSetMetaData.class},
+                    (proxy, method, args) -> method.getName().equals("getColumnCount")
+                            ? labels.length : labels[(Integer) args[0] - 1]);
+        }
+
+        ResultSet resultSet() {
+            return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{ResultSet.class},
+                    (proxy, method, args) -> {
+                        calls.add(method.getName());
+                        switch (method.getName()) {
+                            case "next":
+                                return ++row < rows.size();
+                            case "wasNull":
+                                return wasNull;
+                            case "getInt":
+                                return number(args).intValue();
+                            case "getDouble":
+                                return number(args).doubleValue();
+                            case "getString":
+                                return value(args);
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+
+        private Object value(Object[] args) {
+            Object value = rows.get(row)[(Integer) args[0] - 1];
+            wasNull = value == null;
+            return value;
+        }
+
+        private Number number(Object[] args) {
+            Object value = value(args);
+            return value == null ? 0 : (Number) value;
+        }
+    }
+}
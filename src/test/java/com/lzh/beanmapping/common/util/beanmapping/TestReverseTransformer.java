@@ -0,0 +1,244 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.PropertiesSourceObject;
+import com.lzh.beanmapping.common.annotation.DataMapping;
+import com.lzh.beanmapping.common.converter.IntToStringConverter;
+import com.lzh.beanmapping.common.converter.StringToDateConverter;
+import com.lzh.beanmapping.common.converter.StringToIntConverter;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestReverseTransformer {
+
+    @Test
+    public void shouldWriteTargetBackIntoSource() {
+        //given
+        OrderDto dto = new OrderDto();
+        dto.setName("Test");
+        dto.setCode(42);
+        dto.setVersion(7L);
+        ReverseTransformer<OrderDto, OrderPo> transformer = ReverseTransformer.newInstance(OrderDto.class, OrderPo.class);
+
+        //when
+        OrderPo po = transformer.getSourceInstanceFrom(dto);
+
+        //then
+        assertThat(transformer.getTargetClass()).isEqualTo(OrderDto.class);
+        assertThat(transformer.getSourceClass()).isEqualTo(OrderPo.class);
+        assertThat(po.getOrderName()).isEqualTo("Test");
+        assertThat(po.getOrderCode()).isEqualTo("42");
+        assertThat(po.getVersion()).isEqualTo(7L);
+    }
+
+    @Test
+    public void shouldRoundTripThroughBothDirections() {
+        //given
+        OrderPo po = new OrderPo();
+        po.setOrderName("Test");
+        po.setOrderCode("12");
+        po.setVersion(3L);
+
+        //when
+        OrderDto dto = BeanTransformUtil.getInstance(OrderDto.class, OrderPo.class).getTargetInstanceFrom(po);
+        OrderPo written = BeanTransformUtil.getReverseInstance(OrderDto.class, OrderPo.class).getSourceInstanceFrom(dto);
+
+        //then
+        assertThat(written.getOrderName()).isEqualTo("Test");
+        assertThat(written.getOrderCode()).isEqualTo("12");
+        assertThat(written.getVersion()).isEqualTo(3L);
+    }
+
+    @Test
+    public void shouldKeepSourcePropertiesWithoutInverseConverter() {
+        //given
+        OrderPo po = new OrderPo();
+        po.setCreatedAt("01/01/2018");
+        OrderDto dto = new OrderDto();
+        dto.setCreatedAt(new Date(0));
+        dto.setName("Test");
+
+        //when
+        OrderPo merged = BeanTransformUtil.getReverseInstance(OrderDto.class, OrderPo.class).mergeProperties(po, dto);
+
+        //then
+        assertThat(merged).isSameAs(po);
+        assertThat(merged.getCreatedAt()).isEqualTo("01/01/2018");
+        assertThat(merged.getOrderName()).isEqualTo("Test");
+        assertThat(BeanMappingInfo.parser(OrderDto.class).getReverseMappingInfos(OrderPo.class)).hasSize(3);
+    }
+
+    @Test
+    public void shouldWriteSourcePropertyBackFromOnlyOneTargetProperty() {
+        //given
+        AliasedOrderDto aliased = new AliasedOrderDto();
+        aliased.setOrderName("Name");
+        aliased.setAlias("Alias");
+        aliased.setDisplayName("Display");
+        LabeledOrderDto labeled = new LabeledOrderDto();
+        labeled.setTitle("Title");
+        labeled.setLabel("Label");
+
+        //when
+        OrderPo fromAliased = ReverseTransformer.newInstance(AliasedOrderDto.class, OrderPo.class).getSourceInstanceFrom(aliased);
+        OrderPo fromLabeled = ReverseTransformer.newInstance(LabeledOrderDto.class, OrderPo.class).getSourceInstanceFrom(labeled);
+
+        //then
+        assertThat(BeanMappingInfo.parser(AliasedOrderDto.class).getReverseMappingInfos(OrderPo.class)).hasSize(1);
+        assertThat(fromAliased.getOrderName()).isEqualTo("Name");
+        assertThat(fromLabeled.getOrderName()).isEqualTo("Label");
+    }
+
+    @Test
+    public void shouldShareReverseTransformerOfPair() {
+        assertThat(BeanTransformUtil.getReverseInstance(OrderDto.class, OrderPo.class))
+                .isSameAs(BeanTransformUtil.getReverseInstance(OrderDto.class, OrderPo.class));
+    }
+
+    public static class OrderPo implements PropertiesSourceObject {
+        private String orderName;
+        private String orderCode;
+        private Long version;
+        private String createdAt;
+
+        public String getOrderName() {
+            return orderName;
+        }
+
+        public void setOrderName(String orderName) {
+            this.orderName = orderName;
+        }
+
+        public String getOrderCode() {
+            return orderCode;
+        }
+
+        public void setOrderCode(String orderCode) {
+            this.orderCode = orderCode;
+        }
+
+        public Long getVersion() {
+            return version;
+        }
+
+        public void setVersion(Long version) {
+            this.version = version;
+        }
+
+        public String getCreatedAt() {
+            return createdAt;
+        }
+
+        public void setCreatedAt(String createdAt) {
+            this.createdAt = createdAt;
+        }
+    }
+
+    public static class OrderDto {
+        @DataMapping(sourceClass = OrderPo.class, sourceProperty = "orderName")
+        private String name;
+
+        @DataMapping(sourceClass = OrderPo.class, sourceProperty = "orderCode",
+                converter = StringToIntConverter.class, inverseConverter = IntToStringConverter.class)
+        private int code;
+
+        @DataMapping(sourceClass = OrderPo.class, sourceProperty = "version")
+        private long version;
+
+        @DataMapping(sourceClass = OrderPo.class, sourceProperty = "createdAt", converter = StringToDateConverter.class)
+        private Date createdAt;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        public void setCode(int code) {
+            this.code = code;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public void setVersion(long version) {
+            this.version = version;
+        }
+
+        public Date getCreatedAt() {
+            return createdAt;
+        }
+
+        public void setCreatedAt(Date createdAt) {
+            this.createdAt = createdAt;
+        }
+    }
+
+    public static class AliasedOrderDto {
+        @DataMapping(sourceClass = OrderPo.class, sourceProperty = "orderName")
+        private String displayName;
+
+        @DataMapping(sourceClass = OrderPo.class, sourceProperty = "orderName")
+        private String orderName;
+
+        @DataMapping(sourceClass = OrderPo.class, sourceProperty = "orderName")
+        private String alias;
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public void setDisplayName(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getOrderName() {
+            return orderName;
+        }
+
+        public void setOrderName(String orderName) {
+            this.orderName = orderName;
+        }
+
+        public String getAlias() {
+            return alias;
+        }
+
+        public void setAlias(String alias) {
+            this.alias = alias;
+        }
+    }
+
+    public static class LabeledOrderDto {
+        @DataMapping(sourceClass = OrderPo.class, sourceProperty = "orderName")
+        private String title;
+
+        @DataMapping(sourceClass = OrderPo.class, sourceProperty = "orderName")
+        private String label;
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public void setLabel(String label) {
+            this.label = label;
+        }
+    }
+}
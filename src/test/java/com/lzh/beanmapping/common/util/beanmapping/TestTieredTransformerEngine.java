@@ -0,0 +1,162 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestTieredTransformerEngine {
+
+    @Test
+    public void shouldInterpretUntilThresholdThenSwapInGeneratedTransformer() {
+        //given
+        TieredConfig config = new TieredConfig();
+        config.setCompileThreshold(3);
+        config.setExecutor(Runnable::run);
+        TieredTransformerEngine.TieredTransformer<TestBeanTransformer.TestTargetClass, TestBeanTransformer.TestSourceClass> transformer
+                = (TieredTransformerEngine.TieredTransformer) TransformerEngines.tiered(config)
+                .create(TestBeanTransformer.TestTargetClass.class, TestBeanTransformer.TestSourceClass.class);
+        TestBeanTransformer.TestSourceClass source = new TestBeanTransformer.TestSourceClass();
+        source.setSourceName("Test");
+
+        //when
+        transformer.getTargetInstanceFrom(source);
+        transformer.getTargetInstanceFrom(source);
+        boolean compiledBeforeThreshold = transformer.isCompiled();
+        TestBeanTransformer.TestTargetClass lastInterpreted = transformer.getTargetInstanceFrom(source);
+        TestBeanTransformer.TestTargetClass compiled = transformer.getTargetInstanceFrom(source);
+
+        //then
+        assertThat(compiledBeforeThreshold).isFalse();
+        assertThat(transformer.isCompiled()).isTrue();
+        assertThat(lastInterpreted.getName()).isEqualTo("Test");
+        assertThat(compiled.getName()).isEqualTo("Test");
+    }
+
+    @Test
+    public void shouldCountBeansOfBatches() {
+        //given
+        TieredConfig config = new TieredConfig();
+        config.setCompileThreshold(5);
+        config.setExecutor(Runnable::run);
+        TieredTransformerEngine.TieredTransformer<TestBeanTransformer.TestTargetClass, TestBeanTransformer.TestSourceClass> transformer
+                = (TieredTransformerEngine.TieredTransformer) TransformerEngines.tiered(config)
+                .create(TestBeanTransformer.TestTargetClass.class, TestBeanTransformer.TestSourceClass.class);
+        List<TestBeanTransformer.TestSourceClass> sources = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            TestBeanTransformer.TestSourceClass source = new TestBeanTransformer.TestSourceClass();
+            source.setSourceName("Test" + i);
+            sources.add(source);
+        }
+
+        //when
+        List<TestBeanTransformer.TestTargetClass> targets = transformer.getTargetInstancesFrom(sources);
+
+        //then
+        assertThat(transformer.isCompiled()).isTrue();
+        assertThat(targets).extracting(TestBeanTransformer.TestTargetClass::getName)
+                .containsExactly("Test0", "Test1", "Test2", "Test3", "Test4");
+    }
+
+    @Test
+    public void shouldKeepInterpretingWhileGenerationIsPending() {
+        //given
+        List<Runnable> pending = new ArrayList<>();
+        TieredConfig config = new TieredConfig();
+        config.setCompileThreshold(0);
+        config.setExecutor(pending::add);
+        TieredTransformerEngine.TieredTransformer<TestBeanTransformer.TestTargetClass, TestBeanTransformer.TestSourceClass> transformer
+                = (TieredTransformerEngine.TieredTransformer) TransformerEngines.tiered(config)
+                .create(TestBeanTransformer.TestTargetClass.class, TestBeanTransformer.TestSourceClass.class);
+        TestBeanTransformer.TestSourceClass source = new TestBeanTransformer.TestSourceClass();
+        source.setSourceName("Test");
+
+        //when
+        TestBeanTransformer.TestTargetClass first = transformer.getTargetInstanceFrom(source);
+        TestBeanTransformer.TestTargetClass second = transformer.getTargetInstanceFrom(source);
+
+        //then
+        assertThat(pending).hasSize(1);
+        assertThat(transformer.isCompiled()).isFalse();
+        assertThat(Arrays.asList(first.getName(), second.getName())).containsOnly("Test");
+    }
+
+    @Test
+    public void shouldTrackChangesOfColdPairWithoutGeneratingClass() throws Exception {
+        //given
+        List<Runnable> pending = new ArrayList<>();
+        TieredConfig config = new TieredConfig();
+        config.setCompileThreshold(10);
+        config.setExecutor(pending::add);
+        TieredTransformerEngine.TieredTransformer<TestBeanTransformer.ChangeTrackedTarget, TestBeanTransformer.ChangeTrackedSource> transformer
+                = (TieredTransformerEngine.TieredTransformer) TransformerEngines.tiered(config)
+                .create(TestBeanTransformer.ChangeTrackedTarget.class, TestBeanTransformer.ChangeTrackedSource.class);
+        TestBeanTransformer.ChangeTrackedSource source = new TestBeanTransformer.ChangeTrackedSource();
+        source.setSourceName("Test");
+        TestBeanTransformer.ChangeTrackedTarget target = new TestBeanTransformer.ChangeTrackedTarget();
+
+        //when
+        long diff = transformer.diff(target, source);
+        long changeMask = transformer.mergeChangedProperties(target, source);
+
+        //then
+        assertThat(transformer.getChangedProperties(diff)).containsExactly("name", "ratio");
+        assertThat(changeMask).isEqualTo(diff);
+        assertThat(target.getName()).isEqualTo("Test");
+        assertThat(pending).isEmpty();
+        assertThat(transformer.isCompiled()).isFalse();
+        Field interpreter = TieredTransformerEngine.TieredTransformer.class.getDeclaredField("interpreter"),
+                generatedTransformer = BeanTransformer.class.getDeclaredField("generatedTransformer");
+        interpreter.setAccessible(true);
+        generatedTransformer.setAccessible(true);
+        assertThat(generatedTransformer.get(interpreter.get(transformer))).isNull();
+    }
+
+    @Test
+    public void shouldKeepInterpretingAndRequestAgainWhenGenerationIsRejected() {
+        //given
+        List<Runnable> pending = new ArrayList<>();
+        TieredConfig config = new TieredConfig();
+        config.setCompileThreshold(2);
+        config.setExecutor(command -> {
+            pending.add(command);
+            if (pending.size() == 1) {
+                throw new RejectedExecutionException("queue is full");
+            }
+        });
+        TieredTransformerEngine.TieredTransformer<TestBeanTransformer.TestTargetClass, TestBeanTransformer.TestSourceClass> transformer
+                = (TieredTransformerEngine.TieredTransformer) TransformerEngines.tiered(config)
+                .create(TestBeanTransformer.TestTargetClass.class, TestBeanTransformer.TestSourceClass.class);
+        TestBeanTransformer.TestSourceClass source = new TestBeanTransformer.TestSourceClass();
+        source.setSourceName("Test");
+
+        //when
+        transformer.getTargetInstanceFrom(source);
+        TestBeanTransformer.TestTargetClass rejected = transformer.getTargetInstanceFrom(source);
+        transformer.getTargetInstanceFrom(source);
+        int requestsBeforeThreshold = pending.size();
+        transformer.getTargetInstanceFrom(source);
+        pending.get(1).run();
+
+        //then
+        assertThat(rejected.getName()).isEqualTo("Test");
+        assertThat(requestsBeforeThreshold).isEqualTo(1);
+        assertThat(pending).hasSize(2);
+        assertThat(transformer.isCompiled()).isTrue();
+    }
+
+    @Test
+    public void shouldNotTierPairsWhichAreGeneratedAnyway() {
+        //when
+        BeanTransformer transformer = TransformerEngines.TIERED
+                .create(TestDeepCopyEmitter.DeepCopyTarget.class, TestDeepCopyEmitter.DeepCopySource.class);
+
+        //then
+        assertThat(transformer).isNotInstanceOf(TieredTransformerEngine.TieredTransformer.class);
+    }
+}
@@ -0,0 +1,84 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.converter.EnumConverterTest;
+import com.lzh.beanmapping.common.exception.BeanMappingException;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestTransformerWarmUp {
+
+    @Test
+    public void canWarmUpAllPairsOfScannedPackage() {
+        //given
+        WarmUpConfig config = new WarmUpConfig();
+        config.setParallelism(2);
+        config.setJitIterations(100);
+        AtomicInteger reads = new AtomicInteger();
+        EnumConverterTest.ColorSource sample = new EnumConverterTest.ColorSource() {
+            @Override
+            public String getName() {
+                reads.incrementAndGet();
+                return "RED";
+            }
+        };
+        config.addSamples(EnumConverterTest.ColorSource.class, sample);
+
+        //when
+        List<BeanTransformer> transformers = TransformerWarmUp.warmUp(config, "com.lzh.beanmapping.common.converter");
+
+        //then
+        assertThat(transformers)
+                .extracting(BeanTransformer::getTargetClass)
+                .containsExactly(EnumConverterTest.ColorTarget.class);
+        assertThat(transformers.get(0))
+                .isSameAs(BeanTransformUtil.getInstance(EnumConverterTest.ColorTarget.class, EnumConverterTest.ColorSource.class));
+        assertThat(reads.get()).isEqualTo(100);
+    }
+
+    @Test
+    public void shouldOnlyGenerateTransformersByDefault() {
+        //given
+        AtomicInteger reads = new AtomicInteger();
+        WarmUpConfig config = new WarmUpConfig();
+        config.addSamples(EnumConverterTest.ColorSource.class, new EnumConverterTest.ColorSource() {
+            @Override
+            public String getName() {
+                reads.incrementAndGet();
+                return "RED";
+            }
+        });
+
+        //when
+        List<BeanTransformer> transformers = TransformerWarmUp.warmUp(config, "com.lzh.beanmapping.common.converter");
+
+        //then
+        assertThat(transformers).hasSize(1);
+        assertThat(reads.get()).isZero();
+    }
+
+    @Test(expected = BeanMappingException.class)
+    public void shouldRejectSampleOfAnotherClass() {
+        new WarmUpConfig().addSamples((Class) EnumConverterTest.ColorSource.class, new TestTypeAdapter.PrimitiveSource());
+    }
+
+    @Test
+    public void shouldSkipInvalidMappings() {
+        //when
+        List<BeanTransformer> transformers = TransformerWarmUp.warmUp("com.lzh.beanmapping.common.util.beanmapping");
+
+        //then
+        assertThat(transformers)
+                .extracting(BeanTransformer::getTargetClass)
+                .contains(TestTypeAdapter.PrimitiveTarget.class, TestDeepCopyEmitter.DeepCopyTarget.class)
+                .doesNotContain(TestTypeAdapter.NarrowingTarget.class);
+    }
+
+    @Test(expected = BeanMappingException.class)
+    public void shouldRejectNonPositiveParallelism() {
+        new WarmUpConfig().setParallelism(0);
+    }
+}
@@ -0,0 +1,45 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestTupleSourceTransformer {
+
+    @Test
+    public void shouldMapTupleByIndexesOfColumns() {
+        //given
+        TupleSourceTransformer<TestBeanTransformer.ChangeTrackedTarget> transformer = TupleSourceTransformer.newInstance(
+                TestBeanTransformer.ChangeTrackedTarget.class, TestBeanTransformer.ChangeTrackedSource.class,
+                "sourceRatio", "sourceName", "sourceCount");
+
+        //when
+        List<TestBeanTransformer.ChangeTrackedTarget> targets = transformer.getTargetInstancesFrom(Arrays.asList(
+                new Object[]{0.5d, "Test0", 1},
+                new Object[]{1.5f, "Test1", null}));
+
+        //then
+        assertThat(targets).extracting(TestBeanTransformer.ChangeTrackedTarget::getName).containsExactly("Test0", "Test1");
+        assertThat(targets).extracting(TestBeanTransformer.ChangeTrackedTarget::getCount).containsExactly(1L, 0L);
+        assertThat(targets).extracting(TestBeanTransformer.ChangeTrackedTarget::getRatio).containsExactly(0.5d, 1.5d);
+    }
+
+    @Test
+    public void shouldNotWritePropertyWithoutColumn() {
+        //given
+        TestBeanTransformer.ChangeTrackedTarget target = new TestBeanTransformer.ChangeTrackedTarget();
+        target.setName("Kept");
+
+        //when
+        TupleSourceTransformer.newInstance(TestBeanTransformer.ChangeTrackedTarget.class, TestBeanTransformer.ChangeTrackedSource.class,
+                "sourceCount")
+                .mergeProperties(target, new Object[]{2});
+
+        //then
+        assertThat(target.getName()).isEqualTo("Kept");
+        assertThat(target.getCount()).isEqualTo(2L);
+    }
+}
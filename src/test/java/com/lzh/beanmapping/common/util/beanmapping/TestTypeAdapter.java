@@ -0,0 +1,266 @@
+package com.lzh.beanmapping.common.util.beanmapping;
+
+import com.lzh.beanmapping.common.PropertiesSourceObject;
+import com.lzh.beanmapping.common.annotation.DataMapping;
+import com.lzh.beanmapping.common.exception.BeanMappingException;
+import org.junit.Test;
+
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestTypeAdapter {
+
+    @Test
+    public void canDecideWhichTypesCanBeAdapted() {
+        assertThat(TypeAdapter.canAdapt(int.class, long.class)).isTrue();
+        assertThat(TypeAdapter.canAdapt(Integer.class, int.class)).isTrue();
+        assertThat(TypeAdapter.canAdapt(int.class, Long.class)).isTrue();
+        assertThat(TypeAdapter.canAdapt(Integer.class, Long.class)).isTrue();
+        assertThat(TypeAdapter.canAdapt(int.class, Object.class)).isTrue();
+        assertThat(TypeAdapter.canAdapt(long.class, int.class)).isFalse();
+        assertThat(TypeAdapter.canAdapt(boolean.class, int.class)).isFalse();
+        assertThat(TypeAdapter.canAdapt(String.class, Integer.class)).isFalse();
+    }
+
+    @Test
+    public void canTransferPrimitivesAndWrappersWithoutConverter() {
+        //given
+        PrimitiveSource source = new PrimitiveSource();
+        source.setCount(3);
+        source.setBoxedCount(4);
+        source.setAmount(5);
+        source.setBoxedAmount(6);
+
+        //when
+        PrimitiveTarget target = BeanTransformer.newInstance(PrimitiveTarget.class, PrimitiveSource.class)
+                .getTargetInstanceFrom(source);
+
+        //then
+        assertThat(target.getCount()).isEqualTo(3L);
+        assertThat(target.getBoxedCount()).isEqualTo(4);
+        assertThat(target.getAmount()).isEqualTo(5L);
+        assertThat(target.getBoxedAmount()).isEqualTo(6L);
+    }
+
+    @Test
+    public void shouldSkipWriteWhenNullWrapperIsAssignedToPrimitive() {
+        //given
+        PrimitiveSource source = new PrimitiveSource();
+        source.setBoxedCount(null);
+        source.setBoxedAmount(null);
+        PrimitiveTarget target = new PrimitiveTarget();
+        target.setBoxedCount(9);
+
+        //when
+        BeanTransformer.newInstance(PrimitiveTarget.class, PrimitiveSource.class).mergeProperties(target, source);
+
+        //then
+        assertThat(target.getBoxedCount()).isEqualTo(9);
+        assertThat(target.getBoxedAmount()).isNull();
+    }
+
+    @Test
+    public void canUsePrimitiveConverters() {
+        //given
+        PrimitiveSource source = new PrimitiveSource();
+        source.setText("42");
+        source.setWord("ab");
+        source.setCount(7);
+        source.setBoxedCount(8);
+
+        //when
+        PrimitiveConverterTarget target = BeanTransformer.newInstance(PrimitiveConverterTarget.class, PrimitiveSource.class)
+                .getTargetInstanceFrom(source);
+
+        //then
+        assertThat(target.getParsed()).isEqualTo(42);
+        assertThat(target.getLabel()).isEqualTo("#7");
+        assertThat(target.getLength()).isEqualTo(2L);
+        assertThat(target.getBoxedLabel()).isEqualTo("#8");
+    }
+
+    @Test(expected = BeanMappingException.class)
+    public void shouldThrowExceptionWhenTypeCanNotBeAdapted() {
+        BeanTransformer.newInstance(NarrowingTarget.class, PrimitiveSource.class);
+    }
+
+    public static class PrimitiveSource implements PropertiesSourceObject {
+        private int count;
+        private Integer boxedCount;
+        private int amount;
+        private Integer boxedAmount;
+        private String text;
+        private String word;
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public Integer getBoxedCount() {
+            return boxedCount;
+        }
+
+        public void setBoxedCount(Integer boxedCount) {
+            this.boxedCount = boxedCount;
+        }
+
+        public int getAmount() {
+            return amount;
+        }
+
+        public void setAmount(int amount) {
+            this.amount = amount;
+        }
+
+        public Integer getBoxedAmount() {
+            return boxedAmount;
+        }
+
+        public void setBoxedAmount(Integer boxedAmount) {
+            this.boxedAmount = boxedAmount;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public void setText(String text) {
+            this.text = text;
+        }
+
+        public String getWord() {
+            return word;
+        }
+
+        public void setWord(String word) {
+            this.word = word;
+        }
+    }
+
+    public static class PrimitiveTarget {
+        @DataMapping(sourceClass = PrimitiveSource.class, sourceProperty = "count")
+        private long count;
+        @DataMapping(sourceClass = PrimitiveSource.class, sourceProperty = "boxedCount")
+        private int boxedCount;
+        @DataMapping(sourceClass = PrimitiveSource.class, sourceProperty = "amount")
+        private Long amount;
+        @DataMapping(sourceClass = PrimitiveSource.class, sourceProperty = "boxedAmount")
+        private Long boxedAmount;
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+
+        public int getBoxedCount() {
+            return boxedCount;
+        }
+
+        public void setBoxedCount(int boxedCount) {
+            this.boxedCount = boxedCount;
+        }
+
+        public Long getAmount() {
+            return amount;
+        }
+
+        public void setAmount(Long amount) {
+            this.amount = amount;
+        }
+
+        public Long getBoxedAmount() {
+            return boxedAmount;
+        }
+
+        public void setBoxedAmount(Long boxedAmount) {
+            this.boxedAmount = boxedAmount;
+        }
+    }
+
+    public static class PrimitiveConverterTarget {
+        @DataMapping(sourceClass = PrimitiveSource.class, sourceProperty = "text", converter = ParseConverter.class)
+        private int parsed;
+        @DataMapping(sourceClass = PrimitiveSource.class, sourceProperty = "count", converter = LabelConverter.class)
+        private String label;
+        @DataMapping(sourceClass = PrimitiveSource.class, sourceProperty = "word", converter = LengthConverter.class)
+        private long length;
+        @DataMapping(sourceClass = PrimitiveSource.class, sourceProperty = "boxedCount", converter = LabelConverter.class)
+        private String boxedLabel;
+
+        public int getParsed() {
+            return parsed;
+        }
+
+        public void setParsed(int parsed) {
+            this.parsed = parsed;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public void setLabel(String label) {
+            this.label = label;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public void setLength(long length) {
+            this.length = length;
+        }
+
+        public String getBoxedLabel() {
+            return boxedLabel;
+        }
+
+        public void setBoxedLabel(String boxedLabel) {
+            this.boxedLabel = boxedLabel;
+        }
+    }
+
+    public static class NarrowingTarget {
+        @DataMapping(sourceClass = PrimitiveSource.class, sourceProperty = "text")
+        private int text;
+
+        public int getText() {
+            return text;
+        }
+
+        public void setText(int text) {
+            this.text = text;
+        }
+    }
+
+    public static class ParseConverter implements ToIntFunction<String> {
+        @Override
+        public int applyAsInt(String value) {
+            return Integer.parseInt(value);
+        }
+    }
+
+    public static class LabelConverter implements IntFunction<String> {
+        @Override
+        public String apply(int value) {
+            return "#" + value;
+        }
+    }
+
+    public static class LengthConverter implements ToLongFunction<String> {
+        @Override
+        public long applyAsLong(String value) {
+            return value.length();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.lzh.beanmapping.processor;
+
+import com.lzh.beanmapping.common.PropertiesSourceObject;
+import com.lzh.beanmapping.common.annotation.DataMapping;
+import com.lzh.beanmapping.common.converter.EnumConverterTest;
+import com.lzh.beanmapping.common.exception.BeanMappingException;
+import com.lzh.beanmapping.common.util.beanmapping.BeanTransformUtil;
+import com.lzh.beanmapping.common.util.beanmapping.BeanTransformer;
+import com.lzh.beanmapping.common.util.beanmapping.PrecompiledTransformers;
+import com.lzh.beanmapping.common.util.beanmapping.TestBeanTransformer;
+import com.lzh.beanmapping.common.util.beanmapping.TestDeepCopyEmitter;
+import com.lzh.beanmapping.common.util.beanmapping.TestTypeAdapter;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * the processor runs on the test sources, so the transformers of the public test beans are precompiled
+ */
+public class TestBeanTransformerProcessor {
+
+    @Test
+    public void shouldPreferPrecompiledTransformer() {
+        //when
+        BeanTransformer<TestTypeAdapter.PrimitiveTarget, TestTypeAdapter.PrimitiveSource> transformer
+                = BeanTransformUtil.getInstance(TestTypeAdapter.PrimitiveTarget.class, TestTypeAdapter.PrimitiveSource.class);
+
+        //then
+        assertThat(transformer.getClass().getName()).isEqualTo(PrecompiledTransformers.classNameOf(
+                TestTypeAdapter.PrimitiveTarget.class.getName(), TestTypeAdapter.PrimitiveSource.class.getName()));
+        assertThat(transformer.getTargetClass()).isEqualTo(TestTypeAdapter.PrimitiveTarget.class);
+        assertThat(transformer.getSourceClass()).isEqualTo(TestTypeAdapter.PrimitiveSource.class);
+    }
+
+    @Test
+    public void precompiledTransformerShouldAdaptPrimitivesLikeGeneratedOne() {
+        //given
+        TestTypeAdapter.PrimitiveSource source = new TestTypeAdapter.PrimitiveSource();
+        source.setCount(3);
+        source.setAmount(5);
+        source.setBoxedAmount(6);
+        TestTypeAdapter.PrimitiveTarget target = new TestTypeAdapter.PrimitiveTarget();
+        target.setBoxedCount(9);
+
+        //when
+        BeanTransformUtil.mergeProperties(target, source);
+
+        //then
+        assertThat(target.getCount()).isEqualTo(3L);
+        assertThat(target.getBoxedCount()).isEqualTo(9);
+        assertThat(target.getAmount()).isEqualTo(5L);
+        assertThat(target.getBoxedAmount()).isEqualTo(6L);
+    }
+
+    @Test
+    public void precompiledTransformerShouldCallConverters() throws ClassNotFoundException {
+        //given
+        EnumConverterTest.ColorSource source = new EnumConverterTest.ColorSource();
+        source.setName("RED");
+        source.setOrdinal(1);
+
+        //when
+        EnumConverterTest.ColorTarget target = BeanTransformUtil.newInstanceFrom(EnumConverterTest.ColorTarget.class, source);
+
+        //then
+        assertThat(target.getByName()).isEqualTo(EnumConverterTest.Color.RED);
+        assertThat(target.getByOrdinal()).isEqualTo(EnumConverterTest.Color.GREEN);
+    }
+
+    @Test
+    public void shouldGenerateTransformerAtRuntimeWhenDeepCopyIsUsed() {
+        //when
+        BeanTransformer transformer
+                = BeanTransformUtil.getInstance(TestDeepCopyEmitter.DeepCopyTarget.class, TestDeepCopyEmitter.DeepCopySource.class);
+
+        //then
+        assertThat(PrecompiledTransformers.load(TestDeepCopyEmitter.DeepCopyTarget.class, TestDeepCopyEmitter.DeepCopySource.class))
+                .isNull();
+        assertThat(transformer.getClass().getName()).contains("BeanTransformerByCGLIB");
+    }
+
+    @Test
+    public void precompiledTransformerShouldAccessFieldsLikeGeneratedOne() throws ClassNotFoundException {
+        //given
+        TestBeanTransformer.FieldAccessSource source = new TestBeanTransformer.FieldAccessSource();
+        source.setSourceName("Test");
+        source.setSecret("Secret");
+
+        //when
+        TestBeanTransformer.FieldAccessTarget target
+                = BeanTransformUtil.newInstanceFrom(TestBeanTransformer.FieldAccessTarget.class, source);
+
+        //then
+        assertThat(BeanTransformUtil.getInstance(TestBeanTransformer.FieldAccessTarget.class, TestBeanTransformer.FieldAccessSource.class)
+                .getClass().getName()).isEqualTo(PrecompiledTransformers.classNameOf(
+                TestBeanTransformer.FieldAccessTarget.class.getName(), TestBeanTransformer.FieldAccessSource.class.getName()));
+        assertThat(target.getName()).isEqualTo("Test");
+        assertThat(target.getSecret()).isEqualTo("setter:getter:Secret");
+    }
+
+    @Test
+    public void precompiledTransformerShouldChooseSetterOfGetterTypeLikeGeneratedOne() throws ClassNotFoundException {
+        //given
+        OverloadedSource source = new OverloadedSource();
+        source.setName("Test");
+        source.setCount(3L);
+
+        //when
+        OverloadedTarget target = BeanTransformUtil.newInstanceFrom(OverloadedTarget.class, source);
+
+        //then
+        assertThat(BeanTransformUtil.getInstance(OverloadedTarget.class, OverloadedSource.class).getClass().getName())
+                .isEqualTo(PrecompiledTransformers.classNameOf(OverloadedTarget.class.getName(), OverloadedSource.class.getName()));
+        assertThat(target.getName()).isEqualTo("with:Test");
+        assertThat(target.getCount()).isEqualTo(3L);
+    }
+
+    @Test
+    public void precompiledTransformerShouldInlineBatchLoopsLikeGeneratedOne() throws Exception {
+        //given
+        TestTypeAdapter.PrimitiveSource first = new TestTypeAdapter.PrimitiveSource(),
+                second = new TestTypeAdapter.PrimitiveSource();
+        first.setCount(1);
+        second.setCount(2);
+        second.setBoxedCount(null);
+        TestTypeAdapter.PrimitiveTarget recycled = new TestTypeAdapter.PrimitiveTarget();
+        recycled.setBoxedCount(9);
+        TestTypeAdapter.PrimitiveTarget[] buffer = {null, recycled};
+        BeanTransformer<TestTypeAdapter.PrimitiveTarget, TestTypeAdapter.PrimitiveSource> transformer
+                = BeanTransformUtil.getInstance(TestTypeAdapter.PrimitiveTarget.class, TestTypeAdapter.PrimitiveSource.class);
+
+        //when
+        List<TestTypeAdapter.PrimitiveTarget> targets = transformer.getTargetInstancesFrom(Arrays.asList(first, second));
+        transformer.mergeAll(buffer, new TestTypeAdapter.PrimitiveSource[]{first, second});
+
+        //then
+        Class transformerClass = transformer.getClass();
+        assertThat(transformerClass.getDeclaredMethod("fillTargetInstances", Object[].class, Object[].class, int.class, int.class))
+                .isNotNull();
+        assertThat(transformerClass.getDeclaredMethod("mergeTargetInstances", Object[].class, Object[].class, int.class, int.class))
+                .isNotNull();
+        assertThat(targets).extracting(TestTypeAdapter.PrimitiveTarget::getCount).containsExactly(1L, 2L);
+        assertThat(buffer[0].getCount()).isEqualTo(1L);
+        assertThat(buffer[1]).isSameAs(recycled);
+        assertThat(recycled.getCount()).isEqualTo(2L);
+        assertThat(recycled.getBoxedCount()).isEqualTo(9);
+    }
+
+    @Test
+    public void shouldNotShareClassNameBetweenNestedAndUnderscoredSource() {
+        assertThat(PrecompiledTransformers.classNameOf("a.Target", "a.Foo$Bar"))
+                .isNotEqualTo(PrecompiledTransformers.classNameOf("a.Target", "a.Foo_Bar"));
+        assertThat(PrecompiledTransformers.classNameOf("a.Foo$Bar", "a.Source"))
+                .isNotEqualTo(PrecompiledTransformers.classNameOf("a.Foo_Bar", "a.Source"));
+    }
+
+    @Test(expected = BeanMappingException.class)
+    public void shouldThrowExceptionWhenPrecompiledClassTransformsAnotherPair() {
+        PrecompiledTransformers.load(StaleTarget.class, StaleSource.class);
+    }
+
+    public static class OverloadedSource implements PropertiesSourceObject {
+        private String name;
+        private long count;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+    }
+
+    public static class OverloadedTarget {
+        @DataMapping(sourceClass = OverloadedSource.class, sourceProperty = "name")
+        private String name;
+        @DataMapping(sourceClass = OverloadedSource.class, sourceProperty = "count")
+        private long count;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(Object name) {
+            this.name = "object:" + name;
+        }
+
+        public OverloadedTarget withName(String name) {
+            this.name = "with:" + name;
+            return this;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+
+        public void setCount(String count) {
+            this.count = Long.parseLong(count);
+        }
+    }
+
+    public static class StaleSource implements PropertiesSourceObject {
+    }
+
+    public static class StaleTarget {
+    }
+}
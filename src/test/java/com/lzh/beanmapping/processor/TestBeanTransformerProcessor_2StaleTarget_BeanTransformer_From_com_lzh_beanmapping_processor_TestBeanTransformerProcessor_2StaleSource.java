@@ -0,0 +1,32 @@
+package com.lzh.beanmapping.processor;
+
+import com.lzh.beanmapping.common.util.beanmapping.BeanTransformer;
+
+/**
+ * a class found under the precompiled name of (StaleTarget, StaleSource) which transforms another pair,
+ * as a stale build output or a colliding name would
+ */
+public final class TestBeanTransformerProcessor_2StaleTarget_BeanTransformer_From_com_lzh_beanmapping_processor_TestBeanTransformerProcessor_2StaleSource
+        extends BeanTransformer<TestBeanTransformerProcessor.StaleTarget, TestBeanTransformerProcessor.OverloadedSource> {
+
+    @Override
+    public TestBeanTransformerProcessor.StaleTarget getTargetInstanceFrom(TestBeanTransformerProcessor.OverloadedSource source) {
+        return new TestBeanTransformerProcessor.StaleTarget();
+    }
+
+    @Override
+    public TestBeanTransformerProcessor.StaleTarget mergeProperties(TestBeanTransformerProcessor.StaleTarget target,
+                                                                    TestBeanTransformerProcessor.OverloadedSource source) {
+        return target;
+    }
+
+    @Override
+    public Class<TestBeanTransformerProcessor.StaleTarget> getTargetClass() {
+        return TestBeanTransformerProcessor.StaleTarget.class;
+    }
+
+    @Override
+    public Class<TestBeanTransformerProcessor.OverloadedSource> getSourceClass() {
+        return TestBeanTransformerProcessor.OverloadedSource.class;
+    }
+}